@@ -57,6 +57,11 @@ import jcsp.lang.*;
  * via the {@link #setGraphicsChannels <TT>toGraphics</TT>/<TT>fromGraphics</TT>} channels
  * (see {@link GraphicsProtocol.SetPaintable}).
  * <P>
+ * Renderers that compute pixels, rather than draw shapes, should attach
+ * a {@link FrameBuffer} instead.  Any number of processes may then write
+ * disjoint tiles of its raster in parallel, and only the tiles they have
+ * flushed are copied to the canvas (see {@link GraphicsProtocol.MakeFrameBuffer}).
+ * <P>
  * All channels are managed by independent internal handler processes.  It is, therefore,
  * safe for a serial application process both to service an event channel and configure
  * the component -- no deadlock can occur.
@@ -226,6 +231,7 @@ import jcsp.lang.*;
  * </PRE>
  *
  * @see DisplayList
+ * @see FrameBuffer
  * @see Display
  * @see GraphicsCommand
  * @see Paintable
@@ -535,6 +541,16 @@ public class ActiveCanvas extends Canvas implements CSProcess
                      paintable.register(this);
                      fromGraphics.write(Boolean.TRUE);
                      break;
+                  case GraphicsProtocol.MAKE_FRAME_BUFFER_TAG:
+                     final GraphicsProtocol.MakeFrameBuffer mfb = (GraphicsProtocol.MakeFrameBuffer) gp;
+                     final Dimension size = getSize();
+                     final FrameBuffer frameBuffer =
+                             new FrameBuffer(Math.max(size.width, 1), Math.max(size.height, 1),
+                                             mfb.tileWidth, mfb.tileHeight);
+                     paintable = frameBuffer;
+                     paintable.register(this);
+                     fromGraphics.write(frameBuffer);
+                     break;
                   case GraphicsProtocol.GENERAL_TAG:
                      final GraphicsProtocol.General general = (GraphicsProtocol.General) gp;
                      fromGraphics.write(general.c.configure(this));
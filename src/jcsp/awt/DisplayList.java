@@ -81,6 +81,20 @@ import java.awt.*;
  * through {@link ActiveCanvas#setPaintable <TT>setPaintable</TT>}) or dynamically (by sending
  * a {@link GraphicsProtocol.SetPaintable} object through
  * a {@link GraphicsProtocol} channel).
+ * <P>
+ * Changes between refreshes are coalesced: the <TT>DisplayList</TT> accumulates the
+ * region damaged by {@link #change <TT>change</TT>}s (the union of the bounding boxes
+ * of the replaced and replacing commands) and asks its component for at most one
+ * repaint until that repaint has been serviced.  The commands are then replayed
+ * into the back-buffer clipped to the damaged region -- skipping those drawing
+ * commands that lie wholly outside it -- and only that region is copied to the screen.
+ * A full replay still happens after a {@link #set <TT>set</TT>}, after the component
+ * is resized, when a change replaces a command whose extent is not known (such as a
+ * colour, font or text command) or while the list holds commands that alter the
+ * coordinate system or clip of later ones (<TT>Translate</TT>, <TT>ClipRect</TT>,
+ * <TT>SetClip</TT>, <TT>CopyArea</TT> or <TT>General</TT>).  So, for example,
+ * animating a few shapes over a large static background only costs the redrawing
+ * of the background around those shapes.
  *
  * @see GraphicsCommand
  * @see Display
@@ -106,6 +120,15 @@ public class DisplayList implements Paintable, Display
    private boolean updated = true;
    private long minRefreshInterval = 10;  // milliseconds
    
+   private int nUnclippable = 0;          // commands that rule out a clipped replay
+   private Rectangle damage = null;       // region changed since the last refresh
+   private boolean repaintPending = false;
+   private int originX = 0;               // translation accumulated by imageGraphics
+   private int originY = 0;
+   private final Rectangle oldBounds = new Rectangle();
+   private final Rectangle newBounds = new Rectangle();
+   private final Rectangle cullBounds = new Rectangle();
+   
    /**
     * Sets the array of <TT>GraphicsCommand</TT>s to be executed.  The commands will
     * be executed in ascending order of index.
@@ -129,6 +152,7 @@ public class DisplayList implements Paintable, Display
                {
                   System.arraycopy(c, 0, command, 0, n);
                   nCommands = n;
+                  nUnclippable = countUnclippable(c);
                   updateIndex = 0;
                   refresh = true;
                }
@@ -142,13 +166,14 @@ public class DisplayList implements Paintable, Display
                {
                   command = tmp;
                   nCommands = n;
+                  nUnclippable = countUnclippable(c);
                   updateIndex = 0;
                   refresh = true;
                }
             }
          }
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
    }
    
    /**
@@ -167,11 +192,12 @@ public class DisplayList implements Paintable, Display
          {
             command[0] = c;
             nCommands = 1;
+            nUnclippable = unclippable(c) ? 1 : 0;
             updateIndex = 0;
             refresh = true;
          }
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
    }
    
    /**
@@ -192,6 +218,7 @@ public class DisplayList implements Paintable, Display
          final int n = c.length;
          if (n > 0)
          {
+            nUnclippable += countUnclippable(c);
             final int newNcommands = extensionStart + n;
             if (newNcommands <= maxCommands)
             {
@@ -219,7 +246,7 @@ public class DisplayList implements Paintable, Display
             }
          }
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
       return extensionStart;
    }
    
@@ -238,6 +265,8 @@ public class DisplayList implements Paintable, Display
       final int extensionStart = nCommands;
       if (c != null)
       {
+         if (unclippable(c))
+            nUnclippable++;
          final int newNcommands = extensionStart + 1;
          if (newNcommands <= maxCommands)
          {
@@ -264,7 +293,7 @@ public class DisplayList implements Paintable, Display
             nCommands = newNcommands;
          }
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
       return extensionStart;
    }
    
@@ -275,7 +304,8 @@ public class DisplayList implements Paintable, Display
     * return false.
     * The <TT>repaint</TT> method of the registered component is called to trigger
     * the {@link #update <TT>update</TT>} callback on this object.
-    * All commands will be executed.
+    * All commands will be executed, clipped to the region covered by the replaced
+    * and new commands where that is known.
     * <P>
     *
     * @param c the new GraphicsCommands to be executed.
@@ -293,9 +323,8 @@ public class DisplayList implements Paintable, Display
             {
                synchronized (this)
                {
-                  System.arraycopy(c, 0, command, i, n);
-                  updateIndex = 0;
-                  refresh = true;
+                  for (int j = 0; j < n; j++)
+                     replace(i + j, c[j]);
                }
             }
             else
@@ -304,7 +333,7 @@ public class DisplayList implements Paintable, Display
             }
          }
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
       return true;
    }
    
@@ -315,7 +344,8 @@ public class DisplayList implements Paintable, Display
     * return false.
     * The <TT>repaint</TT> method of the registered component is called to trigger
     * the {@link #update <TT>update</TT>} callback on this object.
-    * All commands will be executed.
+    * All commands will be executed, clipped to the region covered by the replaced
+    * and new command where that is known.
     * <P>
     *
     * @param c the new GraphicsCommand to be executed.
@@ -330,15 +360,13 @@ public class DisplayList implements Paintable, Display
          {
             synchronized (this)
             {
-               command[i] = c;
-               updateIndex = 0;
-               refresh = true;
+               replace(i, c);
             }
          }
          else
             return false;
       }
-      component.repaint(minRefreshInterval);
+      requestRepaint();
       return true;
    }
    
@@ -373,11 +401,205 @@ public class DisplayList implements Paintable, Display
       this.minRefreshInterval = minRefreshInterval;
    }
    
-   private void execute(int start, Graphics g)
+   /**
+    * Replaces command <TT>i</TT>, recording the damage this does.  Must be called
+    * while holding the lock on this object.
+    */
+   private void replace(final int i, final GraphicsCommand c)
+   {
+      final GraphicsCommand old = command[i];
+      command[i] = c;
+      if (unclippable(old))
+         nUnclippable--;
+      if (unclippable(c))
+         nUnclippable++;
+      if (!refresh)
+      {
+         if (bounds(old, oldBounds) && bounds(c, newBounds))
+         {
+            oldBounds.add(newBounds);
+            oldBounds.grow(1, 1);
+            if (damage == null)
+               damage = new Rectangle(oldBounds);
+            else
+               damage.add(oldBounds);
+         }
+         else
+         {
+            updateIndex = 0;
+            refresh = true;
+            damage = null;
+         }
+      }
+   }
+   
+   /**
+    * Asks the component for a repaint, unless one is already outstanding.
+    */
+   private void requestRepaint()
+   {
+      synchronized (this)
+      {
+         if (repaintPending)
+            return;
+         repaintPending = true;
+      }
+      component.repaint(minRefreshInterval);
+   }
+   
+   /**
+    * Commands that change the coordinate system, or the clip, seen by the commands after
+    * them -- or that read back from the image -- cannot be replayed clipped to a damaged region.
+    */
+   private static boolean unclippable(final GraphicsCommand c)
+   {
+      switch (c.tag)
+      {
+         case GraphicsCommand.TRANSLATE:
+         case GraphicsCommand.CLIP_RECT:
+         case GraphicsCommand.SET_CLIP:
+         case GraphicsCommand.COPY_AREA:
+         case GraphicsCommand.GENERAL:
+            return true;
+         default:
+            return false;
+      }
+   }
+   
+   private static int countUnclippable(final GraphicsCommand[] c)
    {
-      for (int i = start; i < nCommands; i++)
+      int count = 0;
+      for (int i = 0; i < c.length; i++)
+      {
+         if (unclippable(c[i]))
+            count++;
+      }
+      return count;
+   }
+   
+   /**
+    * Sets <TT>b</TT> to the bounding box of the pixels drawn by <TT>c</TT>.  Returns false
+    * if this is not known or if <TT>c</TT> affects the drawing of the commands after it.
+    */
+   private static boolean bounds(final GraphicsCommand c, final Rectangle b)
+   {
+      switch (c.tag)
+      {
+         case GraphicsCommand.NULL_TAG:
+            b.setBounds(0, 0, 0, 0);
+            return true;
+         case GraphicsCommand.DRAW_LINE:
+            final GraphicsCommand.DrawLine dl = (GraphicsCommand.DrawLine) c;
+            b.setBounds(Math.min(dl.x1, dl.x2), Math.min(dl.y1, dl.y2),
+                    Math.abs(dl.x2 - dl.x1) + 1, Math.abs(dl.y2 - dl.y1) + 1);
+            return true;
+         case GraphicsCommand.FILL_RECT:
+            final GraphicsCommand.FillRect fr = (GraphicsCommand.FillRect) c;
+            return area(fr.x, fr.y, fr.width, fr.height, b);
+         case GraphicsCommand.DRAW_RECT:
+            final GraphicsCommand.DrawRect dr = (GraphicsCommand.DrawRect) c;
+            return area(dr.x, dr.y, dr.width, dr.height, b);
+         case GraphicsCommand.CLEAR_RECT:
+            final GraphicsCommand.ClearRect cr = (GraphicsCommand.ClearRect) c;
+            return area(cr.x, cr.y, cr.width, cr.height, b);
+         case GraphicsCommand.DRAW_ROUND_RECT:
+            final GraphicsCommand.DrawRoundRect drr = (GraphicsCommand.DrawRoundRect) c;
+            return area(drr.x, drr.y, drr.width, drr.height, b);
+         case GraphicsCommand.FILL_ROUND_RECT:
+            final GraphicsCommand.FillRoundRect frr = (GraphicsCommand.FillRoundRect) c;
+            return area(frr.x, frr.y, frr.width, frr.height, b);
+         case GraphicsCommand.DRAW_3D_RECT:
+            final GraphicsCommand.Draw3DRect d3r = (GraphicsCommand.Draw3DRect) c;
+            return area(d3r.x, d3r.y, d3r.width, d3r.height, b);
+         case GraphicsCommand.FILL_3D_RECT:
+            final GraphicsCommand.Fill3DRect f3r = (GraphicsCommand.Fill3DRect) c;
+            return area(f3r.x, f3r.y, f3r.width, f3r.height, b);
+         case GraphicsCommand.DRAW_OVAL:
+            final GraphicsCommand.DrawOval dov = (GraphicsCommand.DrawOval) c;
+            return area(dov.x, dov.y, dov.width, dov.height, b);
+         case GraphicsCommand.FILL_OVAL:
+            final GraphicsCommand.FillOval fov = (GraphicsCommand.FillOval) c;
+            return area(fov.x, fov.y, fov.width, fov.height, b);
+         case GraphicsCommand.DRAW_ARC:
+            final GraphicsCommand.DrawArc da = (GraphicsCommand.DrawArc) c;
+            return area(da.x, da.y, da.width, da.height, b);
+         case GraphicsCommand.FILL_ARC:
+            final GraphicsCommand.FillArc fa = (GraphicsCommand.FillArc) c;
+            return area(fa.x, fa.y, fa.width, fa.height, b);
+         case GraphicsCommand.DRAW_POLYLINE:
+            final GraphicsCommand.DrawPolyline dpl = (GraphicsCommand.DrawPolyline) c;
+            return points(dpl.xPoints, dpl.yPoints, dpl.nPoints, b);
+         case GraphicsCommand.DRAW_POLYGON:
+            final GraphicsCommand.DrawPolygon dpg = (GraphicsCommand.DrawPolygon) c;
+            if (dpg.polytag == 0)
+               return points(dpg.xPoints, dpg.yPoints, dpg.nPoints, b);
+            return points(dpg.p.xpoints, dpg.p.ypoints, dpg.p.npoints, b);
+         case GraphicsCommand.FILL_POLYGON:
+            final GraphicsCommand.FillPolygon fpg = (GraphicsCommand.FillPolygon) c;
+            if (fpg.polytag == 0)
+               return points(fpg.xPoints, fpg.yPoints, fpg.nPoints, b);
+            return points(fpg.p.xpoints, fpg.p.ypoints, fpg.p.npoints, b);
+         case GraphicsCommand.DRAW_IMAGE:
+            final GraphicsCommand.DrawImage di = (GraphicsCommand.DrawImage) c;
+            switch (di.drawtag)
+            {
+               case 0:
+               case 2:
+                  return area(di.x, di.y, di.image.getWidth(null), di.image.getHeight(null), b);
+               case 1:
+               case 3:
+                  return area(di.x, di.y, di.width, di.height, b);
+               default:
+                  b.setBounds(Math.min(di.dx1, di.dx2), Math.min(di.dy1, di.dy2),
+                          Math.abs(di.dx2 - di.dx1) + 1, Math.abs(di.dy2 - di.dy1) + 1);
+                  return true;
+            }
+         default:
+            return false;
+      }
+   }
+   
+   private static boolean area(final int x, final int y, final int width, final int height,
+           final Rectangle b)
+   {
+      if ((width < 0) || (height < 0))
+         return false;
+      b.setBounds(x, y, width + 1, height + 1);   // outlines cover x .. x + width
+      return true;
+   }
+   
+   private static boolean points(final int[] xPoints, final int[] yPoints, final int nPoints,
+           final Rectangle b)
+   {
+      if (nPoints <= 0)
+      {
+         b.setBounds(0, 0, 0, 0);
+         return true;
+      }
+      int minX = xPoints[0], maxX = xPoints[0], minY = yPoints[0], maxY = yPoints[0];
+      for (int i = 1; i < nPoints; i++)
+      {
+         minX = Math.min(minX, xPoints[i]);
+         maxX = Math.max(maxX, xPoints[i]);
+         minY = Math.min(minY, yPoints[i]);
+         maxY = Math.max(maxY, yPoints[i]);
+      }
+      b.setBounds(minX, minY, maxX - minX + 1, maxY - minY + 1);
+      return true;
+   }
+   
+   /**
+    * Executes commands <TT>start</TT> up to (but not including) <TT>end</TT>.  If <TT>cull</TT>
+    * is not null, drawing commands known to lie wholly outside it are skipped.
+    */
+   private void execute(final int start, final int end, final Graphics g, final Rectangle cull)
+   {
+      for (int i = start; i < end; i++)
       {
          final GraphicsCommand c = command[i];
+         if ((cull != null) && (c.tag >= GraphicsCommand.DRAW_LINE) && bounds(c, cullBounds)
+                 && !cullBounds.intersects(cull))
+            continue;
          switch (c.tag)
          {
             case GraphicsCommand.NULL_TAG:
@@ -386,6 +608,8 @@ public class DisplayList implements Paintable, Display
             case GraphicsCommand.TRANSLATE:
                final GraphicsCommand.Translate t = (GraphicsCommand.Translate) c;
                g.translate(t.x, t.y);
+               originX += t.x;
+               originY += t.y;
                break;
             case GraphicsCommand.SET_COLOR:
                final GraphicsCommand.SetColor sc = (GraphicsCommand.SetColor) c;
@@ -557,6 +781,26 @@ public class DisplayList implements Paintable, Display
       component = c;
    }
    
+   /**
+    * (Re)creates the back-buffer if there is none or the component has been resized.
+    *
+    * @return true if the back-buffer was (re)created and needs a full replay.
+    */
+   private boolean checkImage()
+   {
+      final Dimension newSize = component.getSize();
+      if ((image == null) || (newSize.width != size.width) || (newSize.height != size.height))
+      {
+         size = newSize;
+         image = component.createImage(size.width, size.height);
+         imageGraphics = image.getGraphics();
+         originX = 0;
+         originY = 0;
+         return true;
+      }
+      return false;
+   }
+   
    /**
     * This is the call-back delegated here by the registered <TT>Component</TT>.
     * It will normally be the JVM <I>event thread</I> that is making this call.
@@ -566,22 +810,12 @@ public class DisplayList implements Paintable, Display
     */
    public synchronized void paint(final Graphics g)
    {
-      final Dimension newSize = component.getSize();                
-      if (image == null)
-      {                                          
-         size = newSize;                                              
-         image = component.createImage(size.width, size.height);     
-         imageGraphics = image.getGraphics();                        
-      }
-      else if ((newSize.width != size.width) || (newSize.height != size.height))
-      {   
-         size = newSize;                                              
-         image = component.createImage(size.width, size.height);     
-         imageGraphics = image.getGraphics();                        
-      }                                                                     
-      execute(0, imageGraphics);                                  
-      g.drawImage(image, 0, 0, component);                          
+      checkImage();
+      execute(0, nCommands, imageGraphics, null);
+      g.drawImage(image, 0, 0, component);
       refresh = false;
+      damage = null;
+      repaintPending = false;
    }
    
    /**
@@ -593,44 +827,32 @@ public class DisplayList implements Paintable, Display
     */
    public synchronized void update(final Graphics g)
    {
-      if (refresh)
+      final boolean resized = checkImage();
+      if (refresh || resized || ((damage != null) && (nUnclippable > 0)))
       {
-         final Dimension newSize = component.getSize();              
-         if (image == null)
-         {                                         
-            size = newSize;                                            
-            image = component.createImage(size.width, size.height);   
-            imageGraphics = image.getGraphics();                      
-         }
-         else if ((newSize.width != size.width) || (newSize.height != size.height))
-         {
-            size = newSize;                                            
-            image = component.createImage(size.width, size.height);   
-            imageGraphics = image.getGraphics();                      
-         }                                                            
-         execute(0, imageGraphics);                                  
-         g.drawImage(image, 0, 0, component); 
-         refresh = false;
-         updated = true;                                            
+         execute(0, nCommands, imageGraphics, null);
+         g.drawImage(image, 0, 0, component);
+      }
+      else if (damage != null)
+      {
+         // replay the commands before any pending extension within the damaged region only
+         final Shape clip = imageGraphics.getClip();
+         imageGraphics.clipRect(damage.x, damage.y, damage.width, damage.height);
+         execute(0, updateIndex, imageGraphics, damage);
+         imageGraphics.setClip(clip);
+         execute(updateIndex, nCommands, imageGraphics, null);
+         if (updateIndex == nCommands)
+            g.clipRect(damage.x + originX, damage.y + originY, damage.width, damage.height);
+         g.drawImage(image, 0, 0, component);
       }
       else
       {
-         final Dimension newSize = component.getSize();              
-         if (image == null)
-         {                                         
-            size = newSize;                                            
-            image = component.createImage(size.width, size.height);   
-            imageGraphics = image.getGraphics();                      
-         }
-         else if ((newSize.width != size.width) || (newSize.height != size.height))
-         {   
-            size = newSize;                                            
-            image = component.createImage(size.width, size.height);   
-            imageGraphics = image.getGraphics();                      
-         }                                                            
-         execute(updateIndex, imageGraphics);                        
-         g.drawImage(image, 0, 0, component);                        
-         updated = true;
+         execute(updateIndex, nCommands, imageGraphics, null);
+         g.drawImage(image, 0, 0, component);
       }
+      refresh = false;
+      damage = null;
+      updated = true;
+      repaintPending = false;
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.awt;
+
+import java.awt.*;
+import java.awt.image.*;
+
+/**
+ * This implements the {@link Paintable} interface and provides a shared pixel
+ * raster that many processes may render into directly.
+ * <H2>Description</H2>
+ * A <TT>FrameBuffer</TT> is a passive object holding an <TT>int[]</TT> array of
+ * RGB pixels (row by row, {@link #getWidth <TT>getWidth</TT>} pixels to a row)
+ * divided into rectangular <I>tiles</I>.  User processes write pixels straight
+ * into the {@link #getPixels <TT>getPixels</TT>} array and then {@link #flush flush}
+ * the tiles they have changed.  When an active graphics component (such as
+ * {@link ActiveCanvas <TT>ActiveCanvas</TT>}) to which the <TT>FrameBuffer</TT>
+ * has been attached next updates, only the tiles flushed since its previous update
+ * are copied to the screen.
+ * <P>
+ * This is the natural way to display the results of CPU-bound renderers (such as
+ * fractal generators).  Pixels do not pass through channels, nor are they packaged
+ * into <TT>MemoryImageSource</TT> images and <TT>GraphicsCommand</TT>s.  Instead, a
+ * number of worker processes, running in <TT>Parallel</TT>, each render their own
+ * disjoint set of tiles.  No locking is needed on the pixels themselves -- the
+ * {@link #flush flush} of a tile guarantees that the component sees every pixel
+ * written before it.  The only contention is a brief one on <TT>flush</TT>, and
+ * consecutive flushes between screen updates cause only one repaint request.
+ * <P>
+ * Processes must only write into tiles that no other process is writing into
+ * at the same time -- in the same way that processes must not share variables.
+ * <P>
+ * A <TT>FrameBuffer</TT> may be attached to an <TT>ActiveCanvas</TT> statically, through
+ * {@link ActiveCanvas#setPaintable <TT>setPaintable</TT>}, or dynamically, by sending
+ * a {@link GraphicsProtocol.SetPaintable} object through its {@link GraphicsProtocol}
+ * channel.  Alternatively, a {@link GraphicsProtocol.MakeFrameBuffer} object sent
+ * down that channel will return a <TT>FrameBuffer</TT> the size of the canvas that
+ * has already been attached to it.
+ * <H2>Example</H2>
+ * <PRE>
+ *   final FrameBuffer frame = new FrameBuffer (width, height, 64, 64);
+ *   canvas.setPaintable (frame);
+ *
+ *   final CSProcess[] workers = new CSProcess[nWorkers];
+ *   for (int w = 0; w &lt; nWorkers; w++) {
+ *     final int id = w;
+ *     workers[w] = new CSProcess () {
+ *       public void run () {
+ *         final int[] pixels = frame.getPixels ();
+ *         final Rectangle r = new Rectangle ();
+ *         for (int t = id; t &lt; frame.getTileCount (); t += nWorkers) {
+ *           frame.getTile (t, r);
+ *           for (int y = r.y; y &lt; r.y + r.height; y++) {
+ *             for (int x = r.x; x &lt; r.x + r.width; x++) {
+ *               pixels[y*frame.getWidth () + x] = colour (x, y);
+ *             }
+ *           }
+ *           frame.flush (t);
+ *         }
+ *       }
+ *     };
+ *   }
+ *   new Parallel (workers).run ();
+ * </PRE>
+ *
+ * @see Paintable
+ * @see ActiveCanvas
+ * @see DisplayList
+ */
+
+public class FrameBuffer implements Paintable
+{
+   private Component component;
+   
+   private final int width;
+   private final int height;
+   private final int tileWidth;
+   private final int tileHeight;
+   private final int tilesAcross;
+   private final int tilesDown;
+   
+   private final BufferedImage image;
+   private final int[] pixels;
+   
+   private final boolean[] dirty;
+   private final int[] dirtyList;     // the dirty tiles, in the order they were flushed
+   private int nDirty = 0;
+   private boolean repaintPending = false;
+   private long minRefreshInterval = 10;  // milliseconds
+   
+   /**
+    * Constructs a new <TT>FrameBuffer</TT>.  All pixels are initially black.
+    * <P>
+    *
+    * @param width the width of the raster in pixels.
+    * @param height the height of the raster in pixels.
+    * @param tileWidth the width of a tile in pixels (the tiles on the right edge may be narrower).
+    * @param tileHeight the height of a tile in pixels (the tiles on the bottom edge may be shorter).
+    */
+   public FrameBuffer(final int width, final int height, final int tileWidth, final int tileHeight)
+   {
+      if ((width <= 0) || (height <= 0) || (tileWidth <= 0) || (tileHeight <= 0))
+         throw new IllegalArgumentException("FrameBuffer dimensions must be positive");
+      this.width = width;
+      this.height = height;
+      this.tileWidth = tileWidth;
+      this.tileHeight = tileHeight;
+      tilesAcross = (width + tileWidth - 1)/tileWidth;
+      tilesDown = (height + tileHeight - 1)/tileHeight;
+      image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      dirty = new boolean[tilesAcross*tilesDown];
+      dirtyList = new int[tilesAcross*tilesDown];
+   }
+   
+   /**
+    * Returns the pixel array.  Pixel <TT>(x, y)</TT> is element <TT>(y*getWidth() + x)</TT>
+    * and holds its colour in the form <TT>0xRRGGBB</TT>.
+    * <P>
+    *
+    * @return the pixel array.
+    */
+   public int[] getPixels()
+   {
+      return pixels;
+   }
+   
+   /**
+    * @return the width of the raster in pixels.
+    */
+   public int getWidth()
+   {
+      return width;
+   }
+   
+   /**
+    * @return the height of the raster in pixels.
+    */
+   public int getHeight()
+   {
+      return height;
+   }
+   
+   /**
+    * @return the number of tiles in each row.
+    */
+   public int getTilesAcross()
+   {
+      return tilesAcross;
+   }
+   
+   /**
+    * @return the number of rows of tiles.
+    */
+   public int getTilesDown()
+   {
+      return tilesDown;
+   }
+   
+   /**
+    * @return the number of tiles.  Tiles are numbered row by row from zero.
+    */
+   public int getTileCount()
+   {
+      return dirty.length;
+   }
+   
+   /**
+    * Sets <TT>r</TT> to the area of the raster covered by a tile.
+    * <P>
+    *
+    * @param tile the tile number.
+    * @param r the rectangle to set.
+    * @return <TT>r</TT>.
+    */
+   public Rectangle getTile(final int tile, final Rectangle r)
+   {
+      final int x = (tile % tilesAcross)*tileWidth;
+      final int y = (tile/tilesAcross)*tileHeight;
+      r.setBounds(x, y, Math.min(tileWidth, width - x), Math.min(tileHeight, height - y));
+      return r;
+   }
+   
+   /**
+    * Returns the area of the raster covered by a tile.
+    * <P>
+    *
+    * @param tile the tile number.
+    * @return the area covered by the tile.
+    */
+   public Rectangle getTile(final int tile)
+   {
+      return getTile(tile, new Rectangle());
+   }
+   
+   /**
+    * Marks a tile as changed.  Every pixel written to the tile before this call will
+    * be visible to the next update of the attached component, which this call requests.
+    * <P>
+    *
+    * @param tile the tile number.
+    */
+   public void flush(final int tile)
+   {
+      boolean request;
+      synchronized (this)
+      {
+         if (!dirty[tile])
+         {
+            dirty[tile] = true;
+            dirtyList[nDirty++] = tile;
+         }
+         request = !repaintPending;
+         repaintPending = true;
+      }
+      if (request && (component != null))
+         component.repaint(minRefreshInterval);
+   }
+   
+   /**
+    * Marks all the tiles overlapping an area of the raster as changed.
+    * <P>
+    *
+    * @param x the left of the area.
+    * @param y the top of the area.
+    * @param w the width of the area.
+    * @param h the height of the area.
+    */
+   public void flush(final int x, final int y, final int w, final int h)
+   {
+      final int x0 = Math.max(x, 0)/tileWidth;
+      final int y0 = Math.max(y, 0)/tileHeight;
+      final int x1 = Math.min(x + w - 1, width - 1)/tileWidth;
+      final int y1 = Math.min(y + h - 1, height - 1)/tileHeight;
+      if ((x1 < x0) || (y1 < y0))
+         return;
+      boolean request;
+      synchronized (this)
+      {
+         for (int ty = y0; ty <= y1; ty++)
+         {
+            for (int tx = x0; tx <= x1; tx++)
+            {
+               final int tile = ty*tilesAcross + tx;
+               if (!dirty[tile])
+               {
+                  dirty[tile] = true;
+                  dirtyList[nDirty++] = tile;
+               }
+            }
+         }
+         request = !repaintPending;
+         repaintPending = true;
+      }
+      if (request && (component != null))
+         component.repaint(minRefreshInterval);
+   }
+   
+   /**
+    * Marks every tile as changed.
+    */
+   public void flush()
+   {
+      flush(0, 0, width, height);
+   }
+   
+   /**
+    * Sets the <TT>repaint</TT> interval invoked by the {@link #flush flush} methods.
+    * The default is 10 milliseconds.
+    * <P>
+    *
+    * @param minRefreshInterval the screen will be updated at most once
+    * per <TT>minRefreshInterval</TT> milliseconds.
+    */
+   public void setMinRefreshInterval(final long minRefreshInterval)
+   {
+      this.minRefreshInterval = minRefreshInterval;
+   }
+   
+   /**
+    * Register the <TT>Component</TT> that will delegate its <TT>paint</TT> and
+    * <TT>update</TT> methods here.  Only the JCSP <TT>Active</TT> component should
+    * perform this registration (in response to being passed this <TT>Paintable</TT>).
+    * <P>
+    *
+    * @param c the Component that will do the delegating.
+    */
+   public synchronized void register(final Component c)
+   {
+      component = c;
+   }
+   
+   /**
+    * This is the call-back delegated here by the registered <TT>Component</TT>.
+    * It will normally be the JVM <I>event thread</I> that is making this call.
+    * The whole raster is copied.
+    * <P>
+    *
+    * @param g the graphics context for the painting.
+    */
+   public synchronized void paint(final Graphics g)
+   {
+      g.drawImage(image, 0, 0, component);
+      clearDirty();
+   }
+   
+   /**
+    * This is the call-back delegated here by the registered <TT>Component</TT>.
+    * It will normally be the JVM <I>event thread</I> that is making this call.
+    * Only the tiles flushed since the last update are copied.
+    * <P>
+    *
+    * @param g the graphics context for the painting.
+    */
+   public synchronized void update(final Graphics g)
+   {
+      final Rectangle r = new Rectangle();
+      for (int i = 0; i < nDirty; i++)
+      {
+         getTile(dirtyList[i], r);
+         g.drawImage(image, r.x, r.y, r.x + r.width, r.y + r.height,
+                 r.x, r.y, r.x + r.width, r.y + r.height, component);
+      }
+      clearDirty();
+   }
+   
+   private void clearDirty()
+   {
+      for (int i = 0; i < nDirty; i++)
+         dirty[dirtyList[i]] = false;
+      nDirty = 0;
+      repaintPending = false;
+   }
+}
@@ -63,6 +63,7 @@ public abstract class GraphicsProtocol extends TaggedProtocol
    static final int MAKE_MIS_IMAGE_TAG = 5;
    static final int SET_PAINTABLE_TAG = 6;
    static final int GENERAL_TAG = 7;
+   static final int MAKE_FRAME_BUFFER_TAG = 8;
    
    static private final class GetDimension extends GraphicsProtocol
    {
@@ -183,6 +184,29 @@ public abstract class GraphicsProtocol extends TaggedProtocol
       }
    }
    
+   /**
+    * This is a configuration class to create a {@link FrameBuffer} the size of the
+    * graphics component and register it as the component's <TT>Paintable</TT> object.
+    * The <TT>jcsp.awt.FrameBuffer</TT> will be returned down the <TT>fromGraphics</TT>
+    * channel.
+    */
+   static public final class MakeFrameBuffer extends GraphicsProtocol
+   {
+      final int tileWidth;
+      final int tileHeight;
+      
+      /**
+       * @param tileWidth the width of a tile of the FrameBuffer in pixels.
+       * @param tileHeight the height of a tile of the FrameBuffer in pixels.
+       */
+      public MakeFrameBuffer(final int tileWidth, final int tileHeight)
+      {
+         super(MAKE_FRAME_BUFFER_TAG);
+         this.tileWidth = tileWidth;
+         this.tileHeight = tileHeight;
+      }
+   }
+   
    /**
     * This is the interface for general configuration of the graphics component.
     * See the {@link General <TT>General</TT>} class.
@@ -0,0 +1,97 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.demos.lang;
+
+import jcsp.lang.*;
+import jcsp.util.Buffer;
+
+/**
+ * Times a ping-pong between two processes over a pair of unbuffered
+ * {@link One2OneChannel}s, after first exercising buffered and poisonable
+ * channels so that the shared channel-end call sites have seen several
+ * channel classes.  It is used to check that the reads and writes on the
+ * cached channel ends stay cheap, and are still inlined by the JIT compiler,
+ * once those call sites are no longer monomorphic:
+ * <PRE>
+ *   java jcsp.demos.lang.ChannelEndBenchmark
+ *   java -XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining \
+ *        jcsp.demos.lang.ChannelEndBenchmark | grep 'One2OneChannelImpl$Input::read'
+ * </PRE>
+ * The second command should report the reads as <TT>inline (hot)</TT>.
+ * An optional argument gives the number of round trips to time (default 200000).
+ */
+public class ChannelEndBenchmark
+{
+    public static void main(String[] argv)
+    {
+        final int n = (argv.length > 0) ? Integer.parseInt(argv[0]) : 200000;
+        final Object token = "token";
+
+        for (int i = 0; i < 200000; i++)
+        {
+            One2OneChannel b = Channel.one2one(new Buffer(1));
+            b.out().write(token);
+            b.in().read();
+            One2OneChannel p = Channel.one2one(new Buffer(1), 1);
+            p.out().write(token);
+            p.in().read();
+            Any2OneChannel q = Channel.any2one(new Buffer(1));
+            q.out().write(token);
+            q.in().read();
+        }
+
+        final One2OneChannel ping = Channel.one2one();
+        final One2OneChannel pong = Channel.one2one();
+        for (int rep = 0; rep < 3; rep++)
+        {
+            final ChannelOutput pingOut = ping.out();
+            final ChannelInput pingIn = ping.in();
+            final ChannelOutput pongOut = pong.out();
+            final ChannelInput pongIn = pong.in();
+            final long start = System.nanoTime();
+            new Parallel(new CSProcess[]
+            {
+                new CSProcess()
+                {
+                    public void run()
+                    {
+                        for (int i = 0; i < n; i++)
+                        {
+                            pingOut.write(token);
+                            pongIn.read();
+                        }
+                    }
+                },
+                new CSProcess()
+                {
+                    public void run()
+                    {
+                        for (int i = 0; i < n; i++)
+                        {
+                            pongOut.write(pingIn.read());
+                        }
+                    }
+                }
+            }).run();
+            System.out.println("round trip: " + (System.nanoTime() - start) / n + " ns");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.demos.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import jcsp.lang.ParallelFor;
+
+/**
+ * Checks that {@link ParallelFor} runs its body exactly once for each index in
+ * a range, and never outside it &ndash; including negative ranges, ranges at the
+ * ends of the <TT>int</TT>s, and empty or reversed ranges &ndash; and that when the
+ * body throws, <TT>run</TT> throws it on only once no iteration is still running.  Exits with status 1
+ * on the first failure.
+ * <PRE>
+ *   java jcsp.demos.lang.ParallelForCheck
+ * </PRE>
+ */
+public class ParallelForCheck
+{
+    public static void main(String[] argv)
+    {
+        check(-100, -2, 0);
+        check(-100, -2, 1);
+        check(-50, 50, 1);
+        check(-50, 50, 7);
+        check(0, 10000, 0);
+        check(Integer.MIN_VALUE, Integer.MIN_VALUE + 1000, 1);
+        check(Integer.MAX_VALUE - 1000, Integer.MAX_VALUE, 1);
+        check(5, 5, 0);
+        check(5, 3, 1);
+        check(-2, -100, 0);
+        checkFailure(0, 100000, 1);
+        checkFailure(0, 100000, 0);
+        System.out.println("ParallelFor: all checks passed");
+    }
+
+    private static void check(final int from, final int to, int grain)
+    {
+        final int n = (to > from) ? to - from : 0;
+        final AtomicIntegerArray counts = new AtomicIntegerArray(n);
+        final int[] strays = new int[1];
+        new ParallelFor(from, to, grain, new ParallelFor.Body()
+        {
+            public void run(int i)
+            {
+                if ((i < from) || (i >= to))
+                {
+                    synchronized (strays)
+                    {
+                        strays[0]++;
+                    }
+                    throw new IllegalStateException("index " + i + " outside [" + from + ", " + to + ")");
+                }
+                counts.incrementAndGet(i - from);
+            }
+        }).run();
+        for (int i = 0; i < n; i++)
+        {
+            if (counts.get(i) != 1)
+                fail(from, to, grain, "index " + (from + i) + " run " + counts.get(i) + " times");
+        }
+        if (strays[0] != 0)
+            fail(from, to, grain, strays[0] + " indices outside the range");
+        System.out.println("[" + from + ", " + to + ") grain " + grain + ": ok");
+    }
+
+    private static void checkFailure(final int from, final int to, int grain)
+    {
+        final AtomicInteger running = new AtomicInteger();
+        final int bad = from + (to - from) / 3;
+        try
+        {
+            new ParallelFor(from, to, grain, new ParallelFor.Body()
+            {
+                public void run(int i)
+                {
+                    running.incrementAndGet();
+                    try
+                    {
+                        if (i == bad)
+                            throw new IllegalStateException("body failed at " + i);
+                        for (long spin = 0; spin < 10000; spin++)
+                            Thread.onSpinWait();
+                    }
+                    finally
+                    {
+                        running.decrementAndGet();
+                    }
+                }
+            }).run();
+            fail(from, to, grain, "the body's exception was not thrown on");
+        }
+        catch (IllegalStateException e)
+        {
+            if (running.get() != 0)
+                fail(from, to, grain, running.get() + " iterations still running after run threw");
+        }
+        System.out.println("[" + from + ", " + to + ") grain " + grain + " with a failing body: ok");
+    }
+
+    private static void fail(int from, int to, int grain, String why)
+    {
+        System.out.println("[" + from + ", " + to + ") grain " + grain + ": FAILED - " + why);
+        System.exit(1);
+    }
+}
@@ -618,7 +618,17 @@ public class Alternative
   private static final int inactive = 3;
   
   /** The state of the ALTing process. */
-  private int state = inactive;
+  private volatile int state = inactive;
+
+  /** The wait strategy for this Alternative - null for the default. */
+  private WaitStrategy waitStrategy = null;
+
+  /** A waiting ALT is released when a guard schedules it. */
+  private final WaitStrategy.Condition scheduled = new WaitStrategy.Condition () {
+    public boolean isReady () {
+      return state != waiting;
+    }
+  };
 
   /** The array of guard events from which we are selecting. */
   private final Guard[] guard;
@@ -640,6 +650,36 @@ public class Alternative
 
   /** The index of a selected AltingBarrier. */
   private int barrierSelected;
+
+  /** This flag is set by a committed symmetric channel enable/disable. */
+  private boolean commitTrigger = false;
+
+  /** The index of a committed symmetric channel guard. */
+  private int commitSelected;
+
+  /**
+   * This is set (under the altMonitor) when this ALT has been paired with
+   * the ALT on the other side of a symmetric channel.  It is cleared when
+   * the disable sequence completes.
+   */
+  private boolean claimed = false;
+
+  /**
+   * This is set (under the altMonitor) when this ALT, offering an
+   * {@link AltingBarrier}, has been paired through a symmetric channel.
+   * The {@link AltingBarrierCoordinate} is then held on its behalf, so that
+   * none of its barriers can complete, until its disable sequence finishes.
+   */
+  private boolean holdsCoordinate = false;
+
+  /** A unique number used to order the locking of two altMonitors. */
+  private final long id = nextId ();
+
+  private static long idCount = 0;
+
+  private static synchronized long nextId () {
+    return idCount++;
+  }
   
   /**
    * This is the index variable used during the enable/disable sequences.
@@ -711,6 +751,9 @@ public class Alternative
     state = enabling;
     favourite = 0;
     enableGuards ();
+    if (!timeout) {
+      awaitReady ();
+    }
     synchronized (altMonitor) {
       if (state == enabling) {
         state = waiting;
@@ -785,6 +828,9 @@ public class Alternative
   public final int fairSelect () {
     state = enabling;
     enableGuards ();
+    if (!timeout) {
+      awaitReady ();
+    }
     synchronized (altMonitor) {
       if (state == enabling) {
         state = waiting;
@@ -871,6 +917,7 @@ public class Alternative
       AltingBarrierCoordinate.startEnable ();
     }
     barrierSelected = NONE_SELECTED;
+    commitSelected = NONE_SELECTED;
     for (enableIndex = favourite; enableIndex < guard.length; enableIndex++) {
       if (guard[enableIndex].enable (this)) {
         // if (guard[enableIndex] instanceof AltingChannelInput) {
@@ -880,10 +927,14 @@ public class Alternative
 	// }
         selected = enableIndex;
         state = ready;
+        if (commitTrigger) {
+          commitSelected = selected;
+          commitTrigger = false;
+        }
 	if (barrierTrigger) {
 	  barrierSelected = selected;
           barrierTrigger = false;
-	} else if (barrierPresent) {
+	} else if (barrierPresent && (commitSelected == NONE_SELECTED)) {
 	  // System.out.println ("ENABLE " + enableIndex + " NON-BARRIER SUCCEED");
           AltingBarrierCoordinate.finishEnable ();
         }
@@ -905,10 +956,14 @@ public class Alternative
 	// }
         selected = enableIndex;
         state = ready;
+        if (commitTrigger) {
+          commitSelected = selected;
+          commitTrigger = false;
+        }
 	if (barrierTrigger) {
 	  barrierSelected = selected;
           barrierTrigger = false;
-	} else if (barrierPresent) {
+	} else if (barrierPresent && (commitSelected == NONE_SELECTED)) {
 	  // System.out.println ("ENABLE " + enableIndex + " NON-BARRIER SUCCEED");
           AltingBarrierCoordinate.finishEnable ();
         }
@@ -949,6 +1004,10 @@ public class Alternative
 	      barrierSelected = selected;
               barrierTrigger = false;
 	    }
+            if (commitTrigger) {
+              commitSelected = selected;
+              commitTrigger = false;
+            }
           }
         }
         startIndex = guard.length - 1;
@@ -966,6 +1025,10 @@ public class Alternative
 	    barrierSelected = selected;
             barrierTrigger = false;
 	  }
+          if (commitTrigger) {
+            commitSelected = selected;
+            commitTrigger = false;
+          }
         }
       }
       if (selected == NONE_SELECTED) {
@@ -978,6 +1041,17 @@ public class Alternative
     if (barrierSelected != NONE_SELECTED) {        // We must choose a barrier sync
       selected = barrierSelected;                  // if one is ready - so that all
       AltingBarrierCoordinate.finishDisable ();    // parties make the same choice.
+    } else if (commitSelected != NONE_SELECTED) {  // Likewise, a symmetric channel
+      selected = commitSelected;                   // committed by both sides must
+      final boolean held;                          // be chosen by both sides.
+      synchronized (altMonitor) {
+        claimed = false;
+        held = holdsCoordinate;
+        holdsCoordinate = false;
+      }
+      if (held) {                                  // No barrier could complete while
+        AltingBarrierCoordinate.finishDisable ();  // we withdrew our offers.
+      }
     }
   }
 
@@ -999,6 +1073,52 @@ public class Alternative
     }
   }
 
+  /**
+   * Sets the way in which this Alternative waits for a guard to become
+   * ready.  If this is not set (or is set to null), the
+   * {@link WaitStrategy#getDefault default} is used.  A select with an
+   * enabled {@link CSTimer} guard always blocks.
+   *
+   * @param strategy the wait strategy (or null).
+   */
+  public void setWaitStrategy (final WaitStrategy strategy) {
+    waitStrategy = strategy;
+  }
+
+  /**
+   * If no guard was ready when enabled and the wait strategy is not
+   * blocking, this waits (outside the altMonitor) to be scheduled.
+   * If the strategy gives up, the state is left as <TT>waiting</TT>
+   * and the select blocks in the usual way.
+   */
+  private void awaitReady () {
+    final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+    if (strategy == WaitStrategy.BLOCKING) {
+      return;
+    }
+    synchronized (altMonitor) {
+      if (state != enabling) {
+        return;
+      }
+      state = waiting;
+    }
+    if (strategy.await (scheduled)) {
+      return;
+    }
+    synchronized (altMonitor) {
+      try {
+        while (state == waiting) {
+          altMonitor.wait ();
+        }
+      }
+      catch (InterruptedException e) {
+        throw new ProcessInterruptedException (
+          "*** Thrown from Alternative.select ()\n" + e.toString ()
+        );
+      }
+    }
+  }
+
   /**
    * This is a call-back from an AltingBarrier.
    * It is still in the flow of control of the ALTing process.
@@ -1007,6 +1127,85 @@ public class Alternative
     barrierTrigger = true;
   }
 
+  /**
+   * This is a call-back from a symmetric channel end that has been committed
+   * by {@link #claim claim}.  It is still in the flow of control of the
+   * ALTing process.
+   */
+  void setCommitTrigger () {
+    commitTrigger = true;
+  }
+
+  /**
+   * This pairs two ALTing processes, one on each side of a symmetric channel,
+   * so that both will select that channel.  It is in the flow of control of
+   * whichever of them is enabling the channel second, which must be holding
+   * the channel's lock.  It fails if the other ALT is null or has already
+   * been paired through another symmetric channel.
+   * <P>
+   * If either ALT also offers an {@link AltingBarrier}, the pairing is made
+   * under the {@link AltingBarrierCoordinate}: no barrier enable may then
+   * start until each such ALT has finished its disable sequence, so none of
+   * its barriers can complete after it has committed to the channel.  An
+   * enabling ALT that offers a barrier already holds the coordinator.  One
+   * that does not must first see {@link #mustCoordinate mustCoordinate},
+   * take the coordinator (with <TT>AltingBarrierCoordinate.startEnable</TT>,
+   * outside the channel's lock) and pass <TT>held</TT> as true; the
+   * coordinator is released here unless it passes to the other ALT.
+   * The altMonitors are always taken in the same order, so concurrent
+   * pairings through different channels cannot deadlock.
+   *
+   * @param a the ALT enabling the channel.
+   * @param b the other ALT (which may be null).
+   * @param held true if the coordinator has been taken for this pairing.
+   * @return true if and only if the ALTs have been paired.
+   */
+  static boolean claim (Alternative a, Alternative b, boolean held) {
+    boolean paired = false;
+    if (b != null) {
+      final Alternative first = (a.id < b.id) ? a : b;
+      final Alternative second = (a.id < b.id) ? b : a;
+      synchronized (first.altMonitor) {
+        synchronized (second.altMonitor) {
+          if (!(a.claimed || b.claimed)) {
+            a.claimed = true;
+            b.claimed = true;
+            if (a.barrierPresent) {
+              a.holdsCoordinate = true;
+            }
+            if (b.barrierPresent) {
+              b.holdsCoordinate = true;
+              if (a.barrierPresent) {
+                AltingBarrierCoordinate.addDisable ();
+              } else {
+                held = false;        // passed to b
+              }
+            }
+            paired = true;
+          }
+        }
+      }
+    }
+    if (held) {
+      AltingBarrierCoordinate.finishEnable ();
+    }
+    return paired;
+  }
+
+  /**
+   * This reports whether {@link #claim claim} needs the
+   * {@link AltingBarrierCoordinate} to be taken before it pairs these ALTs:
+   * that is, if the other ALT offers an {@link AltingBarrier} and the
+   * enabling ALT does not (and so does not hold the coordinator already).
+   *
+   * @param a the ALT enabling the channel.
+   * @param b the other ALT.
+   * @return true if and only if the coordinator must be taken first.
+   */
+  static boolean mustCoordinate (Alternative a, Alternative b) {
+    return b.barrierPresent && !a.barrierPresent;
+  }
+
   /**
    * This is the wake-up call to the process ALTing on guards controlled
    * by this object.  It is in the flow of control of a process writing
@@ -1073,6 +1272,9 @@ public class Alternative
     state = enabling;
     favourite = 0;
     enableGuards (preCondition);
+    if (!timeout) {
+      awaitReady ();
+    }
     synchronized (altMonitor) {
       if (state == enabling) {
         state = waiting;
@@ -1143,6 +1345,9 @@ public class Alternative
     }
     state = enabling;
     enableGuards (preCondition);
+    if (!timeout) {
+      awaitReady ();
+    }
     synchronized (altMonitor) {
       if (state == enabling) {
         state = waiting;
@@ -1207,14 +1412,19 @@ public class Alternative
       AltingBarrierCoordinate.startEnable ();
     }
     barrierSelected = NONE_SELECTED;
+    commitSelected = NONE_SELECTED;
     for (enableIndex = favourite; enableIndex < guard.length; enableIndex++) {
       if (preCondition[enableIndex] && guard[enableIndex].enable (this)) {
         selected = enableIndex;
         state = ready;
+        if (commitTrigger) {
+          commitSelected = selected;
+          commitTrigger = false;
+        }
 	if (barrierTrigger) {
 	  barrierSelected = selected;
           barrierTrigger = false;
-	} else if (barrierPresent) {
+	} else if (barrierPresent && (commitSelected == NONE_SELECTED)) {
           AltingBarrierCoordinate.finishEnable ();
         }
         return;
@@ -1224,10 +1434,14 @@ public class Alternative
       if (preCondition[enableIndex] && guard[enableIndex].enable (this)) {
         selected = enableIndex;
         state = ready;
+        if (commitTrigger) {
+          commitSelected = selected;
+          commitTrigger = false;
+        }
 	if (barrierTrigger) {
 	  barrierSelected = selected;
           barrierTrigger = false;
-	} else if (barrierPresent) {
+	} else if (barrierPresent && (commitSelected == NONE_SELECTED)) {
           AltingBarrierCoordinate.finishEnable ();
         }
         return;
@@ -1261,6 +1475,10 @@ public class Alternative
 	      barrierSelected = selected;
               barrierTrigger = false;
 	    }
+            if (commitTrigger) {
+              commitSelected = selected;
+              commitTrigger = false;
+            }
           }
         }
         startIndex = guard.length - 1;
@@ -1278,6 +1496,10 @@ public class Alternative
 	    barrierSelected = selected;
             barrierTrigger = false;
 	  }
+          if (commitTrigger) {
+            commitSelected = selected;
+            commitTrigger = false;
+          }
         }
       }
       if (selected == NONE_SELECTED) {
@@ -1290,6 +1512,17 @@ public class Alternative
     if (barrierSelected != NONE_SELECTED) {        // We must choose a barrier sync
       selected = barrierSelected;                  // if one is ready - so that all
       AltingBarrierCoordinate.finishDisable ();    // parties make the same choice.
+    } else if (commitSelected != NONE_SELECTED) {  // Likewise, a symmetric channel
+      selected = commitSelected;                   // committed by both sides must
+      final boolean held;                          // be chosen by both sides.
+      synchronized (altMonitor) {
+        claimed = false;
+        held = holdsCoordinate;
+        holdsCoordinate = false;
+      }
+      if (held) {                                  // No barrier could complete while
+        AltingBarrierCoordinate.finishDisable ();  // we withdrew our offers.
+      }
     }
   }
 
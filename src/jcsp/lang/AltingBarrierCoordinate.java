@@ -111,7 +111,24 @@ package jcsp.lang;
     }
   }
 
-  /* Invoked at finish of a disable sequence selecting a barrier. */
+  /*
+   * Invoked by an enable sequence involving a barrier that pairs, through a
+   * symmetric channel, with another ALT involving a barrier.  Both disable
+   * sequences must finish before another enable sequence may start.
+   */
+  static void addDisable () {
+    synchronized (activeLock) {
+      if (active < 1) {
+        throw new JCSP_InternalError(
+	  "\n*** symmetric channel paired two AltingBarrier ALTs " +
+	  "with 'active' count less than one: " + active
+	);
+      }
+      active++;
+    }
+  }
+
+  /* Invoked at finish of a disable sequence selecting a barrier or a paired symmetric channel. */
   static void finishDisable () {
     synchronized (activeLock) {
       if (active < 1) {
@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class AltingChannelInputImpl extends AltingChannelInput {
+    final class AltingChannelInputImpl extends AltingChannelInput {
 
-	private ChannelInternals channel;
-	private int immunity;
+	private final ChannelInternals channel;
+	private final int immunity;
 	
 	AltingChannelInputImpl(ChannelInternals _channel, int _immunity) {
 		channel = _channel;
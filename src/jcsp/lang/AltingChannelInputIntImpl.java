@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class AltingChannelInputIntImpl extends AltingChannelInputInt {
+    final class AltingChannelInputIntImpl extends AltingChannelInputInt {
 
-	private ChannelInternalsInt channel;
-	private int immunity;
+	private final ChannelInternalsInt channel;
+	private final int immunity;
 	
 	AltingChannelInputIntImpl(ChannelInternalsInt _channel, int _immunity) {
 		channel = _channel;
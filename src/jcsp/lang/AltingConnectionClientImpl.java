@@ -43,6 +43,9 @@ public class AltingConnectionClientImpl extends AltingConnectionClient
     private ConnectionClientMessage msg = new ConnectionClientMessage();
     private ConnectionClientOpenMessage msgOpen = new ConnectionClientOpenMessage();
 
+    /** The direct exchange used instead of the channels, or null. */
+    private ConnectionExchange exchange = null;
+
     /**
      * Constructs a new instance. This constructor must be called by a subclass which is responsible
      * for creating the channels used by the connection and must pass them into this constructor.
@@ -60,6 +63,17 @@ public class AltingConnectionClientImpl extends AltingConnectionClient
         currentClientState = CLIENT_STATE_CLOSED;
     }
 
+    /**
+     * Constructs a new instance that hands requests and replies straight
+     * over the given exchange, with no message wrappers or channels.
+     */
+    AltingConnectionClientImpl(ConnectionExchange exchange)
+    {
+        super(exchange.fromServer());
+        this.exchange = exchange;
+        currentClientState = CLIENT_STATE_CLOSED;
+    }
+
     /**
      * Sends some data over the connection to server once the
      * connection has been opened.
@@ -71,6 +85,14 @@ public class AltingConnectionClientImpl extends AltingConnectionClient
         if (currentClientState == CLIENT_STATE_MADE_REQ)
             throw new IllegalStateException
                     ("Cannot call request(Object) twice without calling reply().");
+        if (exchange != null)
+        {
+            if (currentClientState == CLIENT_STATE_CLOSED)
+                claim();
+            exchange.request(data);
+            currentClientState = CLIENT_STATE_MADE_REQ;
+            return;
+        }
         //this will claim the use of the client
         if (currentClientState == CLIENT_STATE_CLOSED)
         {
@@ -98,6 +120,18 @@ public class AltingConnectionClientImpl extends AltingConnectionClient
         if (currentClientState != CLIENT_STATE_MADE_REQ)
             throw new IllegalStateException
                     ("Cannot call reply() on a ConnectionClient that is not waiting for a reply.");
+        if (exchange != null)
+        {
+            Object data = exchange.takeReply();
+            if (exchange.lastReplyOpen())
+                currentClientState = CLIENT_STATE_OPEN;
+            else
+            {
+                currentClientState = CLIENT_STATE_CLOSED;
+                release();
+            }
+            return data;
+        }
         ConnectionServerMessage serverReply = (ConnectionServerMessage)fromServer.read();
 
         //check whether the server closed the connection
@@ -65,6 +65,9 @@ public class AltingConnectionServerImpl extends AltingConnectionServer
 
     private ConnectionServerMessage msg = null;
 
+    /** The direct exchange used instead of the channels, or null. */
+    private ConnectionExchange exchange = null;
+
     /**
      * Constructs a new server instance. This must be called by a subclass which is responsible for
      * creating the channels.
@@ -79,6 +82,18 @@ public class AltingConnectionServerImpl extends AltingConnectionServer
         currentServerState = SERVER_STATE_CLOSED;
     }
 
+    /**
+     * Constructs a new server instance that takes requests and hands back
+     * replies straight over the given exchange, with no message wrappers
+     * or channels.
+     */
+    AltingConnectionServerImpl(ConnectionExchange exchange)
+    {
+        super(exchange.toServer());
+        this.exchange = exchange;
+        currentServerState = SERVER_STATE_CLOSED;
+    }
+
     /**
      * Receives some data from a client once a connection
      * has been established. This will block until the client
@@ -92,6 +107,12 @@ public class AltingConnectionServerImpl extends AltingConnectionServer
         if (currentServerState == SERVER_STATE_RECEIVED)
             throw new IllegalStateException
                     ("Cannot call request() twice on ConnectionServer without replying to the client first.");
+        if (exchange != null)
+        {
+            Object data = exchange.takeRequest();
+            currentServerState = SERVER_STATE_RECEIVED;
+            return data;
+        }
         ConnectionClientMessage msg = (ConnectionClientMessage)currentInputChannel.read();
 
         if (currentServerState == SERVER_STATE_CLOSED)
@@ -145,6 +166,12 @@ public class AltingConnectionServerImpl extends AltingConnectionServer
             throw new IllegalStateException
                     ("Cannot call reply(Object, boolean) on a ConnectionServer that has not received an unacknowledge request.");
 
+        if (exchange != null)
+        {
+            exchange.reply(data, !close);
+            currentServerState = close ? SERVER_STATE_CLOSED : SERVER_STATE_OPEN;
+            return;
+        }
         //set open to true before replying
         msg.data = data;
         msg.open = !close;
@@ -43,9 +43,10 @@ package jcsp.lang;
  * <TT>Any2AnyChannelInt</TT> is an interface for a channel which
  * is safe for use by many reading and writing processes.  Reading processes
  * compete with each other to use the channel.  Writing processes compete
- * with each other to use the channel.  Only one reader and one writer will
- * actually be using the channel at any one time.  This is managed by the
- * channel &ndash; user processes just read from or write to it.
+ * with each other to use the channel.  Each value is passed from one writer
+ * to one reader.  For the (unbuffered) channels from {@link Channel#any2anyInt()}, several
+ * such reader/writer pairs may be completing their hand-offs at the same time.
+ * This is managed by the channel &ndash; user processes just read from or write to it.
  * </P>
  * <P>
  * <I>Please note that this is a safely shared channel and not
@@ -84,6 +85,12 @@ package jcsp.lang;
  * and can lead to infinite starvation.  This is a problem for <I>any</I> Java system
  * relying on good behaviour from <TT>synchronized</TT>, not just for these
  * <I>any-any</I> channels.
+ * <P>
+ * The unbuffered channel does not queue its waiting readers and writers in
+ * <TT>synchronized</TT> blocks, but on a stack: the process that has waited
+ * for the <I>shortest</I> time is served first.  This gives the best throughput
+ * for pools of interchangeable workers, but no fairness guarantee is made between
+ * individual readers (or individual writers).
  *
  * @see Channel
  * @see jcsp.lang.One2OneChannelInt
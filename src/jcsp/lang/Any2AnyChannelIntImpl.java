@@ -20,11 +20,29 @@
 
 package jcsp.lang;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
     /**
  * This implements an any-to-any integer channel,
  * safe for use by many writers and many readers. Refer to the {@link Any2AnyChannelInt} interface
  * for more details.
+ * <P>
+ * Rather than serialising writers behind one monitor and readers behind another,
+ * waiting processes are kept on a single lock-free <I>dual stack</I> (in the manner
+ * of {@link java.util.concurrent.SynchronousQueue}).  The stack only ever holds
+ * nodes of one kind &ndash; waiting readers or waiting writers.  An arriving process
+ * of the opposite kind pops the top node and completes the rendezvous directly with
+ * its owner, synchronising only on that node.  Any number of reader/writer pairs may,
+ * therefore, be in the middle of a hand-off at the same time.
+ * </P>
+ * <P>
+ * An extended rendezvous ({@link #startRead()}/{@link #endRead()}) holds the writer
+ * until the reader releases it.  Only one reader may be inside an extended rendezvous
+ * at a time, but ordinary readers are not held up by it.
+ * </P>
  *
+ * @see Any2AnyChannelImpl
  * @see One2OneChannelImpl
  * @see Any2OneChannelImpl
  * @see One2AnyChannelImpl
@@ -32,9 +50,234 @@ package jcsp.lang;
  * @author P.D. Austin and P.H. Welch
  */
 
-class Any2AnyChannelIntImpl extends Any2AnyIntImpl
+class Any2AnyChannelIntImpl implements Any2AnyChannelInt, ChannelInternalsInt
 {
-	Any2AnyChannelIntImpl() {
-		super(new One2OneChannelIntImpl());
-	}
+  /**
+   * A process waiting on the stack.  The owner waits (on the node's monitor)
+   * for the matching process to move <TT>state</TT> on.
+   */
+  private static final class Node {
+
+    static final int WAITING = 0;       // on the stack, unmatched
+    static final int CLAIMED = 1;       // popped by a matching process
+    static final int FILLED = 2;        // (reader node) the writer has deposited its value
+    static final int RELEASED = 3;      // the reader has finished with the value
+    static final int CANCELLED = 4;     // withdrawn by its owner (on poisoning)
+    static final int POISONED = 5;      // withdrawn by a poisoner
+
+    static final AtomicIntegerFieldUpdater STATE =
+      AtomicIntegerFieldUpdater.newUpdater (Node.class, "state");
+
+    final boolean isReader;
+    int item;
+    Node next;
+    volatile int state = WAITING;
+
+    Node (boolean isReader, int item) {
+      this.isReader = isReader;
+      this.item = item;
+    }
+
+    boolean claim (int to) {
+      return STATE.compareAndSet (this, WAITING, to);
+    }
+
+    void advance (int to) {
+      synchronized (this) {
+        state = to;
+        notifyAll ();
+      }
+    }
+
+    void await (int target, String where) {
+      synchronized (this) {
+        try {
+          while (state < target) {
+            wait ();
+          }
+        } catch (InterruptedException e) {
+          throw new ProcessInterruptedException ("*** Thrown from " + where + "\n" + e.toString ());
+        }
+      }
+    }
+
+  }
+
+  /** The top of the dual stack (all readers or all writers) */
+  private final AtomicReference head = new AtomicReference ();
+
+  /** Serialises extended rendezvous */
+  private final Mutex extendedMutex = new Mutex ();
+
+  /** The node held by the reader currently in an extended rendezvous */
+  private Node extended;
+
+  private final boolean poisonable;
+  private final int immunity;
+  private volatile int poisonStrength = 0;
+
+  /** The (shared) ends of this channel */
+  private final SharedChannelInputInt in;
+  private final SharedChannelOutputInt out;
+
+  Any2AnyChannelIntImpl () {
+    this.poisonable = false;
+    this.immunity = 0;
+    this.in = new SharedChannelInputIntImpl (this, immunity);
+    this.out = new SharedChannelOutputIntImpl (this, immunity);
+  }
+
+  Any2AnyChannelIntImpl (int _immunity) {
+    this.poisonable = true;
+    this.immunity = _immunity;
+    this.in = new SharedChannelInputIntImpl (this, immunity);
+    this.out = new SharedChannelOutputIntImpl (this, immunity);
+  }
+
+  public SharedChannelInputInt in () {
+    return in;
+  }
+
+  public SharedChannelOutputInt out () {
+    return out;
+  }
+
+  /**
+   * Finds a partner for a new reader or writer.  Either a waiting node of the
+   * opposite kind is popped and claimed (and returned), or <TT>mine</TT> is pushed
+   * and <TT>null</TT> returned.  Cancelled or poisoned nodes met on the way are discarded.
+   */
+  private Node match (boolean isReader, Node mine) {
+    while (true) {
+      checkPoison ();
+      Node h = (Node) head.get ();
+      if ((h == null) || (h.isReader == isReader)) {
+        mine.next = h;
+        if (head.compareAndSet (h, mine)) {
+          return null;
+        }
+      } else if (head.compareAndSet (h, h.next)) {
+        h.next = null;
+        if (h.claim (Node.CLAIMED)) {
+          return h;
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits on our own (pushed) node until it reaches <TT>target</TT>,
+   * backing out if the channel is poisoned first.
+   */
+  private void awaitPartner (Node mine, int target, String where) {
+    if ((poisonStrength > 0) && mine.claim (Node.CANCELLED)) {
+      throw new PoisonException (poisonStrength);
+    }
+    mine.await (target, where);
+    if (mine.state == Node.POISONED) {
+      throw new PoisonException (poisonStrength);
+    }
+  }
+
+  private void checkPoison () {
+    if (poisonStrength > 0) {
+      throw new PoisonException (poisonStrength);
+    }
+  }
+
+  public void write (int value) {
+    Node mine = new Node (false, value);
+    Node reader = match (false, mine);
+    if (reader == null) {
+      awaitPartner (mine, Node.RELEASED, "Any2AnyChannelInt.write (int)");
+    } else {
+      reader.item = value;
+      reader.advance (Node.FILLED);
+      reader.await (Node.RELEASED, "Any2AnyChannelInt.write (int)");
+    }
+  }
+
+  /**
+   * Waits for a writer and returns the node through which it will be released,
+   * with the writer's value in its <TT>item</TT>.
+   */
+  private Node receive (String where) {
+    Node mine = new Node (true, 0);
+    Node writer = match (true, mine);
+    if (writer == null) {
+      awaitPartner (mine, Node.FILLED, where);
+      return mine;
+    }
+    return writer;
+  }
+
+  public int read () {
+    Node held = receive ("Any2AnyChannelInt.read ()");
+    int value = held.item;
+    held.advance (Node.RELEASED);
+    return value;
+  }
+
+  public int startRead () {
+    extendedMutex.claim ();
+    try {
+      Node held = receive ("Any2AnyChannelInt.startRead ()");
+      extended = held;
+      return held.item;
+    } catch (RuntimeException e) {
+      extendedMutex.release ();
+      throw e;
+    }
+  }
+
+  public void endRead () {
+    Node held = extended;
+    if (held != null) {
+      extended = null;
+        held.advance (Node.RELEASED);
+      extendedMutex.release ();
+    }
+  }
+
+  //begin never used:
+  public boolean readerDisable () {
+    return false;
+  }
+
+  public boolean readerEnable (Alternative alt) {
+    return false;
+  }
+
+  public boolean readerPending () {
+    return false;
+  }
+  //end never used
+
+  /**
+   * Poisons the channel (if it is poisonable) and releases every
+   * process still waiting on the stack.
+   */
+  private void poison (int strength) {
+    if (poisonable && (strength > 0)) {
+      poisonStrength = strength;
+      Node h = (Node) head.getAndSet (null);
+      while (h != null) {
+        Node next = h.next;
+        h.next = null;
+        if (h.claim (Node.POISONED)) {
+          h.advance (Node.POISONED);
+        }
+        h = next;
+      }
+    }
+  }
+
+  public void readerPoison (int strength) {
+    poison (strength);
+  }
+
+  public void writerPoison (int strength) {
+    poison (strength);
+  }
+
 }
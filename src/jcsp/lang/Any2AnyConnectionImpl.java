@@ -20,8 +20,6 @@
 
 package jcsp.lang;
 
-import jcsp.util.Buffer;
-
 /**
  * This class is an implementation of <code>Any2AnyConnection</code>.
  * Each end is safe to be used by one thread at a time.
@@ -30,25 +28,19 @@ import jcsp.util.Buffer;
  */
 class Any2AnyConnectionImpl extends AbstractConnectionImpl implements Any2AnyConnection
 {
-    private One2OneChannel chanToServer;
-    private One2OneChannel chanFromServer;
-    private Any2OneChannel chanClientSynch;
-    private Any2OneChannel chanServerSynch;
+    private ConnectionExchange exchange;
 
     /**
      * Initializes all the attributes to necessary values.
-     * Channels are created using the static factory in the
-     * <code>ChannelServer</code> inteface.
+     * Requests and replies are handed over directly through a single
+     * <code>ConnectionExchange</code> rather than through channels.
      *
      * Constructor for One2OneConnectionImpl.
      */
     public Any2AnyConnectionImpl()
     {
         super();
-        chanToServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanFromServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanClientSynch = ConnectionServer.FACTORY.createAny2One(new Buffer(1));
-        chanServerSynch = ConnectionServer.FACTORY.createAny2One(new Buffer(1));
+        exchange = new ConnectionExchange();
     }
 
     /**
@@ -62,14 +54,7 @@ class Any2AnyConnectionImpl extends AbstractConnectionImpl implements Any2AnyCon
      */
     public SharedAltingConnectionClient client()
     {
-        return new SharedAltingConnectionClient(
-                chanFromServer.in(),
-                chanClientSynch.in(),
-                chanToServer.out(),
-                chanToServer.out(),
-                chanClientSynch.out(),
-                chanFromServer.out(),
-                this);
+        return new SharedAltingConnectionClient(exchange, this);
     }
 
     /**
@@ -83,11 +68,6 @@ class Any2AnyConnectionImpl extends AbstractConnectionImpl implements Any2AnyCon
      */
     public SharedConnectionServer server()
     {
-        return new SharedConnectionServerImpl(
-                chanToServer.in(),
-                chanToServer.in(),
-                chanServerSynch.in(),
-                chanServerSynch.out(),
-                this);
+        return new SharedConnectionServerImpl(exchange, this);
     }
 }
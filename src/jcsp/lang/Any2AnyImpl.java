@@ -21,6 +21,11 @@
 package jcsp.lang;
 
     class Any2AnyImpl implements Any2AnyChannel, ChannelInternals {
+        /** The input end of this channel */
+        private final SharedChannelInput inputEnd;
+
+        /** The output end of this channel */
+        private final SharedChannelOutput outputEnd;
 
         private ChannelInternals channel;
         /** The mutex on which readers must synchronize */
@@ -29,14 +34,16 @@ package jcsp.lang;
     
         Any2AnyImpl(ChannelInternals _channel) {
                 channel = _channel;
+                inputEnd = new SharedChannelInputImpl(this,0);
+                outputEnd = new SharedChannelOutputImpl(this,0);
         }
         
         public SharedChannelInput in() {
-                return new SharedChannelInputImpl(this,0);
+                return inputEnd;
         }
 
         public SharedChannelOutput out() { 
-                return new SharedChannelOutputImpl(this,0);
+                return outputEnd;
         }
 
         public void endRead() {
@@ -21,6 +21,11 @@
 package jcsp.lang;
 
     class Any2AnyIntImpl implements Any2AnyChannelInt, ChannelInternalsInt {
+	/** The input end of this channel */
+	private final SharedChannelInputInt inputEnd;
+
+	/** The output end of this channel */
+	private final SharedChannelOutputInt outputEnd;
 
 	private ChannelInternalsInt channel;
 	/** The mutex on which readers must synchronize */
@@ -29,14 +34,16 @@ package jcsp.lang;
     
     Any2AnyIntImpl(ChannelInternalsInt _channel) {
 		channel = _channel;
+		inputEnd = new SharedChannelInputIntImpl(this,0);
+		outputEnd = new SharedChannelOutputIntImpl(this,0);
 	}
 	
 	public SharedChannelInputInt in() {
-		return new SharedChannelInputIntImpl(this,0);
+		return inputEnd;
 	}
 
 	public SharedChannelOutputInt out() { 
-		return new SharedChannelOutputIntImpl(this,0);
+		return outputEnd;
 	}
 
 	public void endRead() {
@@ -0,0 +1,217 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+import java.util.Hashtable;
+
+import jcsp.util.Buffer;
+import jcsp.util.InfiniteBuffer;
+
+/**
+ * This is an any-to-one CALL channel on which <I>clients</I> do not wait for their calls
+ * to be serviced.
+ * <H2>Description</H2>
+ * On an ordinary CALL channel (such as {@link Any2OneCallChannel}), a <I>client</I> is
+ * blocked for the whole of the <I>server</I>'s handling of its call, so it can have
+ * only one call in progress.  On an <TT>Any2OneAsyncCallChannel</TT>, a <I>client</I>
+ * {@link #call calls} by passing a request object and immediately receives an
+ * {@link AsyncCall} <I>completion handle</I> for it.  It may then carry on -- including
+ * making further calls -- and collect the reply from the handle later.  A client can
+ * therefore <I>pipeline</I> many calls to a slow server and overlap their latencies.
+ * <P>
+ * The <I>server</I> {@link #accept accept}s calls one at a time, in the order they were
+ * made, but may complete them in any order.  It completes a call either through
+ * its handle ({@link AsyncCall#complete <TT>AsyncCall.complete</TT>}) or, when it has only
+ * kept the call's <I>correlation id</I> (e.g. after passing the request on to some other
+ * process), through this channel ({@link #reply <TT>reply</TT>}).
+ * <P>
+ * Calls not yet accepted are held in a buffer.  If the channel is constructed with a limit,
+ * clients calling when that many calls are waiting to be accepted are blocked until the
+ * server catches up -- this bounds the memory used by an overloaded server.
+ * <P>
+ * Like other CALL channels, this channel may be used as a {@link Guard} by the server in
+ * an {@link Alternative}: it is ready when a call is waiting to be accepted.
+ * <H2>Example</H2>
+ * <PRE>
+ *   // client: issue all the lookups, then collect the replies
+ *   final AsyncCall[] pending = new AsyncCall[keys.length];
+ *   for (int i = 0; i &lt; keys.length; i++) {
+ *     pending[i] = lookup.call (keys[i]);
+ *   }
+ *   for (int i = 0; i &lt; keys.length; i++) {
+ *     results[i] = pending[i].getReply ();
+ *   }
+ *
+ *   // server: accept calls as they come and complete them when their data arrives
+ *   while (true) {
+ *     switch (alt.priSelect ()) {
+ *       case LOOKUP:
+ *         final AsyncCall call = lookup.accept ();
+ *         toStore.write (new Fetch (call.getId (), call.getRequest ()));
+ *         break;
+ *       case STORE:
+ *         final Fetched f = (Fetched) fromStore.read ();
+ *         lookup.reply (f.id, f.value);
+ *         break;
+ *     }
+ *   }
+ * </PRE>
+ *
+ * @see AsyncCall
+ * @see Any2OneCallChannel
+ * @see Alternative
+ */
+
+public class Any2OneAsyncCallChannel extends Guard
+{
+    /**
+     * The calls not yet accepted.
+     */
+    private final Any2OneChannel calls;
+
+    /**
+     * The calls accepted but not yet completed, indexed by correlation id.
+     */
+    private final Hashtable accepted = new Hashtable();
+
+    /**
+     * The correlation id of the next call.
+     */
+    private long nextId = 0;
+
+    /**
+     * Constructs a new channel that holds any number of calls waiting to be accepted.
+     */
+    public Any2OneAsyncCallChannel()
+    {
+        calls = Channel.any2one(new InfiniteBuffer());
+    }
+
+    /**
+     * Constructs a new channel that holds at most <TT>maxWaiting</TT> calls waiting to
+     * be accepted.  Further callers are blocked until the server accepts a call.
+     *
+     * @param maxWaiting the number of calls that may wait to be accepted.
+     */
+    public Any2OneAsyncCallChannel(final int maxWaiting)
+    {
+        if (maxWaiting <= 0)
+            throw new IllegalArgumentException("*** Any2OneAsyncCallChannel needs room for at least one call");
+        calls = Channel.any2one(new Buffer(maxWaiting));
+    }
+
+    /**
+     * This is invoked by a <I>client</I> to make a call.  It returns as soon as the
+     * call has been buffered (which, unless this channel has a limit, is immediately).
+     *
+     * @param request the request object passed to the server.
+     * @return the completion handle for the call.
+     */
+    public AsyncCall call(final Object request)
+    {
+        return call(request, null);
+    }
+
+    /**
+     * This is invoked by a <I>client</I> to make a call.  It returns as soon as the
+     * call has been buffered (which, unless this channel has a limit, is immediately).
+     * When the server completes the call, the completion handle is written to the
+     * <TT>completion</TT> channel.
+     *
+     * @param request the request object passed to the server.
+     * @param completion the channel to which the handle is written on completion.
+     * @return the completion handle for the call.
+     */
+    public AsyncCall call(final Object request, final ChannelOutput completion)
+    {
+        final AsyncCall call;
+        synchronized (this)
+        {
+            call = new AsyncCall(this, nextId++, request, completion);
+        }
+        calls.out().write(call);
+        return call;
+    }
+
+    /**
+     * This is invoked by the <I>server</I> to accept the next call.  It waits until a
+     * call has been made.
+     *
+     * @return the completion handle of the call.
+     */
+    public AsyncCall accept()
+    {
+        final AsyncCall call = (AsyncCall) calls.in().read();
+        accepted.put(new Long(call.getId()), call);
+        return call;
+    }
+
+    /**
+     * This is invoked by the <I>server</I> to complete an accepted call identified by
+     * its correlation id.  It is equivalent to {@link AsyncCall#complete <TT>complete</TT>}
+     * on the call's handle.
+     *
+     * @param id the correlation id of the call.
+     * @param reply the reply to the call.
+     * @throws IllegalArgumentException if no accepted call with that id is outstanding.
+     */
+    public void reply(final long id, final Object reply)
+    {
+        final AsyncCall call = (AsyncCall) accepted.get(new Long(id));
+        if (call == null)
+            throw new IllegalArgumentException("*** No outstanding call with id " + id);
+        call.complete(reply);
+    }
+
+    /**
+     * Returns the number of calls accepted by the server but not yet completed.
+     *
+     * @return the number of outstanding calls.
+     */
+    public int getOutstandingCount()
+    {
+        return accepted.size();
+    }
+
+    /**
+     * Called by an {@link AsyncCall} when it is completed.
+     */
+    void completed(final AsyncCall call)
+    {
+        accepted.remove(new Long(call.getId()));
+    }
+
+    /**
+     * This is one of the {@link Guard} methods needed by the {@link Alternative} class.
+     */
+    boolean enable(final Alternative alt)
+    {
+        return calls.in().enable(alt);
+    }
+
+    /**
+     * This is one of the {@link Guard} methods needed by the {@link Alternative} class.
+     */
+    boolean disable()
+    {
+        return calls.in().disable();
+    }
+}
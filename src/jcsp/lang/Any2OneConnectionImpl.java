@@ -20,8 +20,6 @@
 
 package jcsp.lang;
 
-import jcsp.util.*;
-
 /**
  * This class is an implementation of <code>Any2OneConnection</code>.
  * Each end is safe to be used by one thread at a time.
@@ -31,24 +29,20 @@ import jcsp.util.*;
 class Any2OneConnectionImpl implements Any2OneConnection
 {
     private AltingConnectionServer server;
-    private One2OneChannel chanToServer;
-    private One2OneChannel chanFromServer;
-    private Any2OneChannel chanSynch;
+    private ConnectionExchange exchange;
 
     /**
      * Initializes all the attributes to necessary values.
-     * Channels are created using the static factory in the
-     * <code>ChannelServer</code> inteface.
+     * Requests and replies are handed over directly through a single
+     * <code>ConnectionExchange</code> rather than through channels.
      *
      * Constructor for One2OneConnectionImpl.
      */
     public Any2OneConnectionImpl() {
         super();
-        chanToServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanFromServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanSynch = ConnectionServer.FACTORY.createAny2One(new Buffer(1));
+        exchange = new ConnectionExchange();
         //create the server object - client object created when accessed
-        server = new AltingConnectionServerImpl(chanToServer.in(), chanToServer.in());
+        server = new AltingConnectionServerImpl(exchange);
     }
 
     /**
@@ -59,13 +53,7 @@ class Any2OneConnectionImpl implements Any2OneConnection
      */
     public SharedAltingConnectionClient client()
     {
-        return new SharedAltingConnectionClient(chanFromServer.in(),
-                                                chanSynch.in(),
-                                                chanToServer.out(),
-                                                chanToServer.out(),
-                                                chanSynch.out(),
-                                                chanFromServer.out(),
-                                                this);
+        return new SharedAltingConnectionClient(exchange, this);
     }
 
     /**
@@ -21,12 +21,19 @@
 package jcsp.lang;
 
     class Any2OneImpl implements ChannelInternals, Any2OneChannel {
+	/** The input end of this channel */
+	private final AltingChannelInput inputEnd;
+
+	/** The output end of this channel */
+	private final SharedChannelOutput outputEnd;
 
 	private ChannelInternals channel;
 	private final Object writeMonitor = new Object();
 	
 	Any2OneImpl(ChannelInternals _channel) {
 		channel = _channel;
+		inputEnd = new AltingChannelInputImpl(channel,0);
+		outputEnd = new SharedChannelOutputImpl(this,0);
 	}
 
 	//Begin never used:
@@ -75,11 +82,11 @@ package jcsp.lang;
 	}
 
 	public AltingChannelInput in() {
-		return new AltingChannelInputImpl(channel,0);
+		return inputEnd;
 	}
 
 	public SharedChannelOutput out() {
-		return new SharedChannelOutputImpl(this,0);
+		return outputEnd;
 	}
 
 }
@@ -21,12 +21,19 @@
 package jcsp.lang;
 
     class Any2OneIntImpl implements ChannelInternalsInt, Any2OneChannelInt {
+	/** The input end of this channel */
+	private final AltingChannelInputInt inputEnd;
+
+	/** The output end of this channel */
+	private final SharedChannelOutputInt outputEnd;
 
 	private ChannelInternalsInt channel;
 	private final Object writeMonitor = new Object();
 	
 	Any2OneIntImpl(ChannelInternalsInt _channel) {
 		channel = _channel;
+		inputEnd = new AltingChannelInputIntImpl(channel,0);
+		outputEnd = new SharedChannelOutputIntImpl(this,0);
 	}
 
 	//Begin never used:
@@ -75,11 +82,11 @@ package jcsp.lang;
 	}
 
 	public AltingChannelInputInt in() {
-		return new AltingChannelInputIntImpl(channel,0);
+		return inputEnd;
 	}
 
 	public SharedChannelOutputInt out() {
-		return new SharedChannelOutputIntImpl(this,0);
+		return outputEnd;
 	}
 
 }
@@ -0,0 +1,158 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+/**
+ * This is the completion handle for a call made on an {@link Any2OneAsyncCallChannel}.
+ * <H2>Description</H2>
+ * An <TT>AsyncCall</TT> is returned to a <I>client</I> as soon as it has issued a call.
+ * It carries the <I>request</I> object and a <I>correlation id</I>, unique
+ * within its channel.  The <I>server</I> receives the same handle from
+ * {@link Any2OneAsyncCallChannel#accept <TT>accept</TT>} and, whenever it is ready
+ * (not necessarily in the order the calls were accepted), {@link #complete completes}
+ * it with a <I>reply</I>.
+ * <P>
+ * The <I>client</I> may collect the reply with {@link #getReply <TT>getReply</TT>},
+ * which waits until the call has been completed.  Alternatively, if the call was
+ * issued with a <I>completion channel</I>, the completed handle is also written to
+ * that channel -- so a client with many calls in progress can wait for whichever
+ * completes first (in an {@link Alternative} if necessary).
+ *
+ * @see Any2OneAsyncCallChannel
+ */
+
+public class AsyncCall
+{
+    /**
+     * The correlation id of this call.
+     */
+    private final long id;
+
+    /**
+     * The request made by the client.
+     */
+    private final Object request;
+
+    /**
+     * The channel to which this handle is written on completion (may be <TT>null</TT>).
+     */
+    private final ChannelOutput completion;
+
+    /**
+     * The channel on which the call was made.
+     */
+    private final Any2OneAsyncCallChannel channel;
+
+    /**
+     * The reply from the server.
+     */
+    private Object reply = null;
+
+    /**
+     * Set when the server has completed the call.
+     */
+    private boolean done = false;
+
+    AsyncCall(final Any2OneAsyncCallChannel channel, final long id, final Object request,
+              final ChannelOutput completion)
+    {
+        this.channel = channel;
+        this.id = id;
+        this.request = request;
+        this.completion = completion;
+    }
+
+    /**
+     * Returns the correlation id of this call.  Ids are unique within the channel
+     * on which the call was made.
+     *
+     * @return the correlation id.
+     */
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns the request made by the client.
+     *
+     * @return the request object.
+     */
+    public Object getRequest()
+    {
+        return request;
+    }
+
+    /**
+     * Returns whether the server has completed this call.  This never blocks.
+     *
+     * @return true if the reply is available.
+     */
+    public synchronized boolean isDone()
+    {
+        return done;
+    }
+
+    /**
+     * Returns the reply to this call, waiting for the server to complete it if necessary.
+     *
+     * @return the reply object.
+     */
+    public synchronized Object getReply()
+    {
+        try
+        {
+            while (!done)
+                wait();
+        }
+        catch (InterruptedException e)
+        {
+            throw new ProcessInterruptedException("*** Thrown from AsyncCall.getReply ()\n"
+                    + e.toString());
+        }
+        return reply;
+    }
+
+    /**
+     * This is invoked by the <I>server</I> to complete the call.  Any client waiting in
+     * {@link #getReply <TT>getReply</TT>} is released and, if the call was issued with a
+     * completion channel, this handle is written to it.  That write is made by the
+     * server, so the completion channel should be buffered if the server must not wait
+     * for the client.
+     *
+     * @param reply the reply to the call.
+     * @throws IllegalStateException if the call has already been completed.
+     */
+    public void complete(final Object reply)
+    {
+        synchronized (this)
+        {
+            if (done)
+                throw new IllegalStateException("*** AsyncCall " + id + " has already been completed");
+            this.reply = reply;
+            done = true;
+            channel.completed(this);
+            notifyAll();
+        }
+        if (completion != null)
+            completion.write(this);
+    }
+}
@@ -358,6 +358,12 @@ import java.io.Serializable;
 
 public class Barrier implements Serializable
 {
+  /**
+   * The value computed for this class before the wait strategy was added, so that
+   * barriers serialised by older versions can still be read.
+   */
+  private static final long serialVersionUID = 3692445318754255176L;
+
   /**
    * The number of processes currently enrolled on this barrier.
    */
@@ -377,7 +383,12 @@ public class Barrier implements Serializable
   /**
    * The even/odd flag used to detect spurious wakeups.
    */
-  private boolean evenOddCycle = true;      // could be initialised to false ...
+  private volatile boolean evenOddCycle = true;      // could be initialised to false ...
+
+  /**
+   * The wait strategy for this barrier - null for the default.
+   */
+  private transient WaitStrategy waitStrategy = null;
 
   /**
    * Construct a barrier initially associated with no processes.
@@ -441,6 +452,11 @@ public class Barrier implements Serializable
    * processes associated with the barrier have synchronised (or resigned).
    */
   public void sync () {
+    final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+    if (strategy != WaitStrategy.BLOCKING) {
+      sync (strategy);
+      return;
+    }
     synchronized (barrierLock) {
       countDown--;
 //System.out.println ("Barrier.sync : " + nEnrolled + ", " + countDown);
@@ -468,6 +484,55 @@ public class Barrier implements Serializable
       }
     }
   }
+  /**
+   * Synchronise using a non-blocking wait strategy: a process that is not the
+   * last to arrive watches for the end of the cycle outside the monitor, only
+   * waiting on the monitor if the strategy gives up.
+   */
+  private void sync (final WaitStrategy strategy) {
+    final boolean spuriousCycle;
+    synchronized (barrierLock) {
+      countDown--;
+      if (countDown <= 0) {
+        countDown = nEnrolled;
+        evenOddCycle = !evenOddCycle;
+        barrierLock.notifyAll ();
+        return;
+      }
+      spuriousCycle = evenOddCycle;
+    }
+    final WaitStrategy.Condition cycleEnded = new WaitStrategy.Condition () {
+      public boolean isReady () {
+        return evenOddCycle != spuriousCycle;
+      }
+    };
+    if (!strategy.await (cycleEnded)) {
+      synchronized (barrierLock) {
+        try {
+          while (spuriousCycle == evenOddCycle) {
+            barrierLock.wait ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from Barrier.sync ()\n" + e.toString ()
+          );
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the way in which processes wait on this barrier.  If this is not
+   * set (or is set to null), the {@link WaitStrategy#getDefault default}
+   * is used.  A wait strategy is not kept if the barrier is serialized.
+   *
+   * @param strategy the wait strategy (or null).
+   */
+  public void setWaitStrategy (final WaitStrategy strategy) {
+    waitStrategy = strategy;
+  }
+
 
   /**
    * A process may enroll only if it is resigned.
@@ -21,18 +21,271 @@
 
 package jcsp.lang;
 
-  class BasicOne2OneChannelSymmetric implements One2OneChannelSymmetric {
+/**
+ * This implements a symmetric one-to-one object channel.
+ * <H2>Description</H2>
+ * Both the reading and the writing process may {@link Alternative <TT>ALT</TT>}
+ * on this channel.  Each end is a {@link Guard} that takes part directly in
+ * the enable/disable sequence of its {@link Alternative}: no
+ * {@link AltingBarrier} machinery (with its global lock and two extra
+ * synchronisations) is involved.
+ * <P>
+ * When only one side is <TT>ALT</TT>ing, the channel behaves just like an
+ * ordinary channel with that side as the guard.  When both sides are
+ * <TT>ALT</TT>ing, whichever side enables the channel second pairs the
+ * two <TT>ALT</TT>s under the channel's lock (see <TT>Alternative.claim</TT>),
+ * wakes the other and returns ready.  A paired end then reports ready again
+ * when it is disabled and forces its <TT>ALT</TT> to select it, so both sides
+ * make the same choice.  An <TT>ALT</TT> that is paired through one symmetric
+ * channel cannot be paired through another in the same selection.
+ * <P>
+ * An <TT>ALT</TT> that also offers an {@link AltingBarrier} may still be
+ * paired, but only under the barrier coordinator, which is then held until
+ * that <TT>ALT</TT> has withdrawn its barrier offers: so once it is committed
+ * to the channel, none of its barriers can complete.  A process that is not
+ * offering a barrier may therefore wait briefly, while enabling the channel,
+ * for barrier choices elsewhere to be resolved.
+ * <P>
+ * Channel poisoning is not supported for these channels.
+ *
+ * @see Alternative
+ * @see One2OneChannelSymmetric
+ * @see BasicOne2OneChannelSymmetricInt
+ *
+ * @author P.H. Welch
+ */
 
-  private final AltingBarrier[] ab = AltingBarrier.create (2);
+class BasicOne2OneChannelSymmetric implements One2OneChannelSymmetric {
 
-  private final One2OneChannel c = Channel.one2one();
+  /** The monitor synchronising reader and writer on this channel */
+  private final Object rwMonitor = new Object ();
+
+  /** The (invisible-to-users) buffer used to store the data for the channel */
+  private Object hold;
+
+  /** Set while a writer has deposited <TT>hold</TT> and awaits its taking */
+  private boolean writerReady = false;
+
+  /** Set while a reader is committed and awaits (or is taking) the data */
+  private boolean readerReady = false;
+
+  /** The Alternative of an ALTing reader, while the input end is enabled */
+  private Alternative readerAlt;
+
+  /** The Alternative of an ALTing writer, while the output end is enabled */
+  private Alternative writerAlt;
+
+  /** Set when both ALTs have been paired on this channel */
+  private boolean paired = false;
+
+  private final AltingChannelInput in = new Input ();
+
+  private final AltingChannelOutput out = new Output ();
 
   public AltingChannelInput in () {
-    return new AltingChannelInputSymmetricImpl(ab[0], c.in());
+    return in;
+  }
+
+  public AltingChannelOutput out () {
+    return out;
+  }
+
+  private void write (Object value) {
+    synchronized (rwMonitor) {
+      hold = value;
+      writerReady = true;
+      if (readerReady) {
+        rwMonitor.notify ();
+      } else if (readerAlt != null) {
+        readerAlt.schedule ();
+      }
+      try {
+        while (writerReady) {
+          rwMonitor.wait ();
+        }
+      }
+      catch (InterruptedException e) {
+        throw new ProcessInterruptedException (
+          "*** Thrown from One2OneChannelSymmetric.write (Object)\n" + e.toString ()
+        );
+      }
+    }
+  }
+
+  private Object startRead () {
+    synchronized (rwMonitor) {
+      readerReady = true;
+      if (!writerReady && (writerAlt != null)) {
+        writerAlt.schedule ();
+      }
+      try {
+        while (!writerReady) {
+          rwMonitor.wait ();
+        }
+      }
+      catch (InterruptedException e) {
+        throw new ProcessInterruptedException (
+          "*** Thrown from One2OneChannelSymmetric.read ()\n" + e.toString ()
+        );
+      }
+      return hold;
+    }
+  }
+
+  private void endRead () {
+    synchronized (rwMonitor) {
+      hold = null;
+      writerReady = false;
+      readerReady = false;
+      paired = false;
+      rwMonitor.notify ();
+    }
+  }
+
+  private boolean enableInput (Alternative alt) {
+    synchronized (rwMonitor) {
+      if (writerReady || (writerAlt == null) || !Alternative.mustCoordinate (alt, writerAlt)) {
+        return pairInput (alt, false);
+      }
+    }
+    // The other ALT offers an AltingBarrier: take the coordinator (without
+    // holding our lock, as barrier disable sequences may need it) and retry.
+    AltingBarrierCoordinate.startEnable ();
+    synchronized (rwMonitor) {
+      return pairInput (alt, true);
+    }
+  }
+
+  private boolean pairInput (Alternative alt, boolean held) {
+    if (writerReady) {
+      if (held) {
+        AltingBarrierCoordinate.finishEnable ();
+      }
+      return true;
+    }
+    if (Alternative.claim (alt, writerAlt, held)) {
+      paired = true;
+      writerAlt.schedule ();
+      alt.setCommitTrigger ();
+      return true;
+    }
+    readerAlt = alt;
+    return false;
+  }
+
+  private boolean disableInput () {
+    synchronized (rwMonitor) {
+      final Alternative alt = readerAlt;
+      readerAlt = null;
+      if (paired) {
+        alt.setCommitTrigger ();
+        return true;
+      }
+      return writerReady;
+    }
   }
 
-  public AltingChannelOutput out (){
-    return new AltingChannelOutputSymmetricImpl (ab[1], c.out());
+  private boolean enableOutput (Alternative alt) {
+    synchronized (rwMonitor) {
+      if (readerReady || (readerAlt == null) || !Alternative.mustCoordinate (alt, readerAlt)) {
+        return pairOutput (alt, false);
+      }
+    }
+    // The other ALT offers an AltingBarrier: take the coordinator (without
+    // holding our lock, as barrier disable sequences may need it) and retry.
+    AltingBarrierCoordinate.startEnable ();
+    synchronized (rwMonitor) {
+      return pairOutput (alt, true);
+    }
+  }
+
+  private boolean pairOutput (Alternative alt, boolean held) {
+    if (readerReady) {
+      if (held) {
+        AltingBarrierCoordinate.finishEnable ();
+      }
+      return true;
+    }
+    if (Alternative.claim (alt, readerAlt, held)) {
+      paired = true;
+      readerAlt.schedule ();
+      alt.setCommitTrigger ();
+      return true;
+    }
+    writerAlt = alt;
+    return false;
+  }
+
+  private boolean disableOutput () {
+    synchronized (rwMonitor) {
+      final Alternative alt = writerAlt;
+      writerAlt = null;
+      if (paired) {
+        alt.setCommitTrigger ();
+        return true;
+      }
+      return readerReady;
+    }
+  }
+
+  private final class Input extends AltingChannelInput {
+
+    boolean enable (Alternative alt) {
+      return enableInput (alt);
+    }
+
+    boolean disable () {
+      return disableInput ();
+    }
+
+    public Object read () {
+      final Object value = BasicOne2OneChannelSymmetric.this.startRead ();
+      BasicOne2OneChannelSymmetric.this.endRead ();
+      return value;
+    }
+
+    public Object startRead () {
+      return BasicOne2OneChannelSymmetric.this.startRead ();
+    }
+
+    public void endRead () {
+      BasicOne2OneChannelSymmetric.this.endRead ();
+    }
+
+    public boolean pending () {
+      synchronized (rwMonitor) {
+        return writerReady;
+      }
+    }
+
+    public void poison (int strength) {
+    }
+
+  }
+
+  private final class Output extends AltingChannelOutput {
+
+    boolean enable (Alternative alt) {
+      return enableOutput (alt);
+    }
+
+    boolean disable () {
+      return disableOutput ();
+    }
+
+    public void write (Object value) {
+      BasicOne2OneChannelSymmetric.this.write (value);
+    }
+
+    public boolean pending () {
+      synchronized (rwMonitor) {
+        return readerReady;
+      }
+    }
+
+    public void poison (int strength) {
+    }
+
   }
 
 }
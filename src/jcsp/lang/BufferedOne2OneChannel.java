@@ -55,6 +55,12 @@ import jcsp.util.*;
 
 class BufferedOne2OneChannel implements One2OneChannel, ChannelInternals
 {
+    /** The input end of this channel */
+    private final AltingChannelInput inputEnd;
+
+    /** The output end of this channel */
+    private final ChannelOutput outputEnd;
+
     /** The ChannelDataStore used to store the data for the channel */
     private final ChannelDataStore data;
     
@@ -73,6 +79,8 @@ class BufferedOne2OneChannel implements One2OneChannel, ChannelInternals
             throw new IllegalArgumentException
                     ("Null ChannelDataStore given to channel constructor ...\n");
         this.data = (ChannelDataStore) data.clone();
+        inputEnd = new AltingChannelInputImpl(this,0);
+        outputEnd = new ChannelOutputImpl(this,0);
     }
 
     /**
@@ -253,7 +261,7 @@ class BufferedOne2OneChannel implements One2OneChannel, ChannelInternals
      */
     public AltingChannelInput in()
     {
-        return new AltingChannelInputImpl(this,0);
+        return inputEnd;
     }
 
     /**
@@ -267,7 +275,7 @@ class BufferedOne2OneChannel implements One2OneChannel, ChannelInternals
      */
     public ChannelOutput out()
     {
-        return new ChannelOutputImpl(this,0);
+        return outputEnd;
     }
     
 //  No poison in these channels:
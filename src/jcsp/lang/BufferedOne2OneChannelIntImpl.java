@@ -56,6 +56,12 @@ import jcsp.util.ints.*;
 
 class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt
 {
+  /** The input end of this channel */
+  private final AltingChannelInputInt inputEnd;
+
+  /** The output end of this channel */
+  private final ChannelOutputInt outputEnd;
+
   /** The monitor synchronising reader and writer on this channel */
   private Object rwMonitor = new Object();
 
@@ -79,7 +85,7 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      */
     public AltingChannelInputInt in()
     {
-        return new AltingChannelInputIntImpl(this,0);
+        return inputEnd;
     }
 
     /**
@@ -93,7 +99,7 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      */
     public ChannelOutputInt out()
     {
-    	return new ChannelOutputIntImpl(this,0);
+    	return outputEnd;
     }
 
     /**
@@ -107,6 +113,8 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
             throw new IllegalArgumentException
                     ("Null ChannelDataStoreInt given to channel constructor ...\n");
         this.data = (ChannelDataStoreInt) data.clone();
+        inputEnd = new AltingChannelInputIntImpl(this,0);
+        outputEnd = new ChannelOutputIntImpl(this,0);
     }
 
     /**
@@ -112,6 +112,23 @@ public class Channel
     	return new One2OneChannelImpl();
     }
     
+    /**
+     * This constructs an <i>Object carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time,
+     * whose reader and writer wait for each other according to the given strategy.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @param strategy the way in which the reader and writer wait (null for the
+     *                 {@link WaitStrategy#getDefault default}).
+     * @return the channel.
+     */
+    public static One2OneChannel one2one(WaitStrategy strategy)
+    {
+    	One2OneChannelImpl c = new One2OneChannelImpl();
+    	c.setWaitStrategy(strategy);
+    	return c;
+    }
+    
     /**
      * This constructs an <i>Object carrying</i> channel that
      * may only be connected to <i>one</i> writer at a time,
@@ -612,6 +629,23 @@ public class Channel
     	return new One2OneChannelIntImpl();
     }
     
+    /**
+     * This constructs an <i>integer carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time,
+     * whose reader and writer wait for each other according to the given strategy.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @param strategy the way in which the reader and writer wait (null for the
+     *                 {@link WaitStrategy#getDefault default}).
+     * @return the channel.
+     */
+    public static One2OneChannelInt one2oneInt(WaitStrategy strategy)
+    {
+    	One2OneChannelIntImpl c = new One2OneChannelIntImpl();
+    	c.setWaitStrategy(strategy);
+    	return c;
+    }
+    
     /**
      * This constructs an <i>integer carrying</i> channel that
      * may only be connected to <i>one</i> writer at a time,
@@ -22,8 +22,8 @@ package jcsp.lang;
 
     class ChannelOutputImpl implements ChannelOutput {
 	
-	private ChannelInternals channel;
-	private int immunity;
+	private final ChannelInternals channel;
+	private final int immunity;
 	
 	ChannelOutputImpl(ChannelInternals _channel, int _immunity) {
 		channel = _channel;
@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class ChannelOutputIntImpl implements ChannelOutputInt {
+    final class ChannelOutputIntImpl implements ChannelOutputInt {
 	
-	private ChannelInternalsInt channel;
-	private int immunity;
+	private final ChannelInternalsInt channel;
+	private final int immunity;
 	
 	ChannelOutputIntImpl(ChannelInternalsInt _channel, int _immunity) {
 		channel = _channel;
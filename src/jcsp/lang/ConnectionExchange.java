@@ -0,0 +1,343 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+/**
+ * This is the rendezvous shared by the client and server ends of the standard
+ * connections. A request or a reply is handed over directly under a single
+ * monitor, rather than being wrapped in a message object and passed through
+ * a buffered channel, so a request/reply pair costs two short synchronized
+ * blocks on each side.
+ * <p>
+ * Two <code>AltingChannelInput</code> views are provided so that the
+ * existing <code>AltingConnectionServer</code> and
+ * <code>AltingConnectionClient</code> guard code can be used unchanged:
+ * {@link #toServer()} is ready when a request is waiting and
+ * {@link #fromServer()} is ready when a reply is waiting.
+ * <p>
+ * Sharing of the client (or server) end between processes is arbitrated
+ * by the claim and release methods, which use their own monitors so that
+ * processes queueing for the connection do not contend with the exchange.
+ */
+final class ConnectionExchange
+{
+    /** The monitor synchronising the client and server */
+    private final Object monitor = new Object();
+
+    private Object request;
+
+    private boolean requestReady = false;
+
+    private Object reply;
+
+    private boolean replyOpen;
+
+    private boolean replyReady = false;
+
+    /** The open flag of the reply most recently taken by the client */
+    private boolean lastReplyOpen;
+
+    /** The Alternative of a server ALTing on the connection */
+    private Alternative serverAlt;
+
+    /** The Alternative of a client ALTing for its reply */
+    private Alternative clientAlt;
+
+    private final Object clientClaim = new Object();
+
+    private boolean clientOwned = false;
+
+    private final Object serverClaim = new Object();
+
+    private boolean serverOwned = false;
+
+    private final AltingChannelInput toServer = new ToServer();
+
+    private final AltingChannelInput fromServer = new FromServer();
+
+    /**
+     * Returns the guard view that is ready when a request is waiting.
+     */
+    AltingChannelInput toServer()
+    {
+        return toServer;
+    }
+
+    /**
+     * Returns the guard view that is ready when a reply is waiting.
+     */
+    AltingChannelInput fromServer()
+    {
+        return fromServer;
+    }
+
+    /**
+     * Passes a request to the server. This does not block.
+     */
+    void request(Object data)
+    {
+        synchronized (monitor)
+        {
+            request = data;
+            requestReady = true;
+            if (serverAlt != null)
+                serverAlt.schedule();
+            else
+                monitor.notify();
+        }
+    }
+
+    /**
+     * Waits for and takes the next request.
+     */
+    Object takeRequest()
+    {
+        synchronized (monitor)
+        {
+            try
+            {
+                while (!requestReady)
+                    monitor.wait();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ProcessInterruptedException("*** Thrown from ConnectionServer.request()\n" + e.toString());
+            }
+            Object data = request;
+            request = null;
+            requestReady = false;
+            return data;
+        }
+    }
+
+    /**
+     * Passes a reply to the client. This does not block.
+     */
+    void reply(Object data, boolean open)
+    {
+        synchronized (monitor)
+        {
+            reply = data;
+            replyOpen = open;
+            replyReady = true;
+            if (clientAlt != null)
+                clientAlt.schedule();
+            else
+                monitor.notify();
+        }
+    }
+
+    /**
+     * Waits for and takes the reply to the last request. Whether the server
+     * kept the connection open is then available from {@link #lastReplyOpen()}.
+     */
+    Object takeReply()
+    {
+        synchronized (monitor)
+        {
+            try
+            {
+                while (!replyReady)
+                    monitor.wait();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ProcessInterruptedException("*** Thrown from ConnectionClient.reply()\n" + e.toString());
+            }
+            Object data = reply;
+            reply = null;
+            replyReady = false;
+            lastReplyOpen = replyOpen;
+            return data;
+        }
+    }
+
+    /**
+     * Returns whether the server kept the connection open with the reply
+     * last taken. This must only be called by the client that took it.
+     */
+    boolean lastReplyOpen()
+    {
+        return lastReplyOpen;
+    }
+
+    /**
+     * Waits until no other process is using the client end, then takes it.
+     */
+    void claimClient()
+    {
+        synchronized (clientClaim)
+        {
+            try
+            {
+                while (clientOwned)
+                    clientClaim.wait();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ProcessInterruptedException("*** Thrown from SharedConnectionClient.request()\n" + e.toString());
+            }
+            clientOwned = true;
+        }
+    }
+
+    /**
+     * Releases the client end for another process.
+     */
+    void releaseClient()
+    {
+        synchronized (clientClaim)
+        {
+            clientOwned = false;
+            clientClaim.notify();
+        }
+    }
+
+    /**
+     * Waits until no other process is using the server end, then takes it.
+     */
+    void claimServer()
+    {
+        synchronized (serverClaim)
+        {
+            try
+            {
+                while (serverOwned)
+                    serverClaim.wait();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ProcessInterruptedException("*** Thrown from SharedConnectionServer.request()\n" + e.toString());
+            }
+            serverOwned = true;
+        }
+    }
+
+    /**
+     * Releases the server end for another process.
+     */
+    void releaseServer()
+    {
+        synchronized (serverClaim)
+        {
+            serverOwned = false;
+            serverClaim.notify();
+        }
+    }
+
+    private final class ToServer extends AltingChannelInput
+    {
+        boolean enable(Alternative alt)
+        {
+            synchronized (monitor)
+            {
+                if (requestReady)
+                    return true;
+                serverAlt = alt;
+                return false;
+            }
+        }
+
+        boolean disable()
+        {
+            synchronized (monitor)
+            {
+                serverAlt = null;
+                return requestReady;
+            }
+        }
+
+        public boolean pending()
+        {
+            synchronized (monitor)
+            {
+                return requestReady;
+            }
+        }
+
+        public Object read()
+        {
+            return takeRequest();
+        }
+
+        public Object startRead()
+        {
+            return takeRequest();
+        }
+
+        public void endRead()
+        {
+        }
+
+        public void poison(int strength)
+        {
+        }
+    }
+
+    private final class FromServer extends AltingChannelInput
+    {
+        boolean enable(Alternative alt)
+        {
+            synchronized (monitor)
+            {
+                if (replyReady)
+                    return true;
+                clientAlt = alt;
+                return false;
+            }
+        }
+
+        boolean disable()
+        {
+            synchronized (monitor)
+            {
+                clientAlt = null;
+                return replyReady;
+            }
+        }
+
+        public boolean pending()
+        {
+            synchronized (monitor)
+            {
+                return replyReady;
+            }
+        }
+
+        public Object read()
+        {
+            return takeReply();
+        }
+
+        public Object startRead()
+        {
+            return takeReply();
+        }
+
+        public void endRead()
+        {
+        }
+
+        public void poison(int strength)
+        {
+        }
+    }
+}
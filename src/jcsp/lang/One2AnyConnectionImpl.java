@@ -20,8 +20,6 @@
 
 package jcsp.lang;
 
-import jcsp.util.Buffer;
-
 /**
  * This class is an implementation of <code>One2AnyConnection</code>.
  * Each end is safe to be used by one thread at a time.
@@ -31,29 +29,22 @@ import jcsp.util.Buffer;
 class One2AnyConnectionImpl implements One2AnyConnection
 {
     private AltingConnectionClient client;
-    private One2OneChannel chanToServer;
-    private One2OneChannel chanFromServer;
-    private Any2OneChannel chanSynch;
+    private ConnectionExchange exchange;
 
     /**
      * Initializes all the attributes to necessary values.
-     * Channels are created using the static factory in the
-     * <code>ChannelServer</code> interface.
+     * Requests and replies are handed over directly through a single
+     * <code>ConnectionExchange</code> rather than through channels.
      *
      * Constructor for One2OneConnectionImpl.
      */
     public One2AnyConnectionImpl()
     {
         super();
-        chanToServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanFromServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        chanSynch = ConnectionServer.FACTORY.createAny2One(new Buffer(1));
+        exchange = new ConnectionExchange();
 
-        //create the client and server objects
-        client = new AltingConnectionClientImpl(chanFromServer.in(),
-                                                chanToServer.out(),
-                                                chanToServer.out(),
-                                                chanFromServer.out());
+        //create the client object - server objects created when accessed
+        client = new AltingConnectionClientImpl(exchange);
     }
 
     /**
@@ -80,8 +71,6 @@ class One2AnyConnectionImpl implements One2AnyConnection
      */
     public SharedConnectionServer server()
     {
-        return new SharedConnectionServerImpl(chanToServer.in(),
-                                              chanToServer.in(), chanSynch.in(),
-                                              chanSynch.out(), this);
+        return new SharedConnectionServerImpl(exchange, this);
     }
 }
@@ -21,6 +21,11 @@
 package jcsp.lang;
 
     class One2AnyImpl implements One2AnyChannel, ChannelInternals {
+	/** The input end of this channel */
+	private final SharedChannelInput inputEnd;
+
+	/** The output end of this channel */
+	private final ChannelOutput outputEnd;
 
 	private ChannelInternals channel;
 	/** The mutex on which readers must synchronize */
@@ -28,14 +33,16 @@ package jcsp.lang;
     
     One2AnyImpl(ChannelInternals _channel) {
 		channel = _channel;
+		inputEnd = new SharedChannelInputImpl(this,0);
+		outputEnd = new ChannelOutputImpl(channel,0);
 	}
 	
 	public SharedChannelInput in() {
-		return new SharedChannelInputImpl(this,0);
+		return inputEnd;
 	}
 
 	public ChannelOutput out() { 
-		return new ChannelOutputImpl(channel,0);
+		return outputEnd;
 	}
 
 	public void endRead() {
@@ -21,6 +21,11 @@
 package jcsp.lang;
 
     class One2AnyIntImpl implements One2AnyChannelInt, ChannelInternalsInt {
+	/** The input end of this channel */
+	private final SharedChannelInputInt inputEnd;
+
+	/** The output end of this channel */
+	private final ChannelOutputInt outputEnd;
 
 	private ChannelInternalsInt channel;
 	/** The mutex on which readers must synchronize */
@@ -28,14 +33,16 @@ package jcsp.lang;
     
     One2AnyIntImpl(ChannelInternalsInt _channel) {
 		channel = _channel;
+		inputEnd = new SharedChannelInputIntImpl(this,0);
+		outputEnd = new ChannelOutputIntImpl(channel,0);
 	}
 	
 	public SharedChannelInputInt in() {
-		return new SharedChannelInputIntImpl(this,0);
+		return inputEnd;
 	}
 
 	public ChannelOutputInt out() { 
-		return new ChannelOutputIntImpl(channel,0);
+		return outputEnd;
 	}
 
 	public void endRead() {
@@ -56,7 +56,7 @@ package jcsp.lang;
  * @author P.H. Welch
  */
 
-class One2OneChannelImpl implements One2OneChannel, ChannelInternals
+final class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 {
 	/** The monitor synchronising reader and writer on this channel */
 	  private Object rwMonitor = new Object ();
@@ -65,13 +65,36 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 	  private Object hold;
 
 	  /** The synchronisation flag */
-	  private boolean empty = true;
+	  private volatile boolean empty = true;
 
 	  /** The Alternative class that controls the selection */
 	  private Alternative alt;
 
 	  /** Flag to deal with a spurious wakeup during a write */
-	  private boolean spuriousWakeUp = true;      
+	  private volatile boolean spuriousWakeUp = true;
+
+	  /** The wait strategy for this channel - null for the default */
+	  private WaitStrategy waitStrategy = null;
+
+	  /** The input end of this channel (calls straight back into this class) */
+	  private final AltingChannelInput in = new Input ();
+
+	  /** The output end of this channel (calls straight back into this class) */
+	  private final ChannelOutput out = new Output ();
+
+	  /** A waiting reader is released when a writer makes it <I>empty</I> */
+	  private final WaitStrategy.Condition readerReleased = new WaitStrategy.Condition() {
+	    public boolean isReady() {
+	      return empty;
+	    }
+	  };
+
+	  /** A waiting writer is released when a reader clears <I>spuriousWakeUp</I> */
+	  private final WaitStrategy.Condition writerReleased = new WaitStrategy.Condition() {
+	    public boolean isReady() {
+	      return !spuriousWakeUp;
+	    }
+	  };      
       
 	  /*************Methods from One2OneChannel******************************/
 
@@ -86,7 +109,7 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
      */
     public AltingChannelInput in()
     {
-        return new AltingChannelInputImpl(this,0);
+        return in;
     }
 
     /**
@@ -100,7 +123,7 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
      */
     public ChannelOutput out()
     {
-        return new ChannelOutputImpl(this,0);
+        return out;
     }
 
     /*************Methods from ChannelOutput*******************************/
@@ -111,6 +134,11 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 	   * @param value the object to write to the channel.
 	   */
   public void write(Object value) {
+    final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+    if (strategy != WaitStrategy.BLOCKING) {
+      write (value, strategy);
+      return;
+    }
     synchronized (rwMonitor) {      
       hold = value;
       if (empty) {
@@ -146,6 +174,10 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 	   * @return the object read from the channel.
 	   */
 	  public Object read () {
+	    final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+	    if (strategy != WaitStrategy.BLOCKING) {
+	      return read (strategy, true);
+	    }
 	    synchronized (rwMonitor) {          
 	      if (empty) {
 	        empty = false;
@@ -172,6 +204,10 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 	  }
 	  
 	  public Object startRead() {
+		    final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+		    if (strategy != WaitStrategy.BLOCKING) {
+		      return read (strategy, false);
+		    }
 		    synchronized (rwMonitor) {              
 		      if (empty) {
 		        empty = false;
@@ -287,4 +323,136 @@ class One2OneChannelImpl implements One2OneChannel, ChannelInternals
 	  }
 	  public void readerPoison(int strength) {	  
 	  }
+
+  /**
+   * Sets the wait strategy for this channel (null for the default).
+   *
+   * @param strategy the wait strategy.
+   */
+  void setWaitStrategy (WaitStrategy strategy) {
+    waitStrategy = strategy;
+  }
+
+  /**
+   * Writes a value using a non-blocking wait strategy: the writer watches
+   * for its release outside the monitor, only waiting on the monitor
+   * if the strategy gives up.
+   */
+  private void write (Object value, WaitStrategy strategy) {
+    synchronized (rwMonitor) {
+      hold = value;
+      if (empty) {
+        empty = false;
+        if (alt != null) {
+          alt.schedule ();
+        }
+      } else {
+        empty = true;
+        rwMonitor.notify ();
+      }
+    }
+    if (!strategy.await (writerReleased)) {
+      synchronized (rwMonitor) {
+        try {
+          while (spuriousWakeUp) {
+            rwMonitor.wait ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from One2OneChannel.write (Object)\n" + e.toString ()
+          );
+        }
+      }
+    }
+    synchronized (rwMonitor) {
+      spuriousWakeUp = true;
+    }
+  }
+
+  /**
+   * Reads (or starts reading) a value using a non-blocking wait strategy:
+   * the reader watches for its release outside the monitor, only waiting
+   * on the monitor if the strategy gives up.
+   *
+   * @param release true to release the writer (a read), false to keep it
+   *                 waiting until endRead (a startRead).
+   */
+  private Object read (WaitStrategy strategy, boolean release) {
+    synchronized (rwMonitor) {
+      if (!empty) {
+        empty = true;
+        if (release) {
+          spuriousWakeUp = false;
+          rwMonitor.notify ();
+        }
+        return hold;
+      }
+      empty = false;
+    }
+    if (!strategy.await (readerReleased)) {
+      synchronized (rwMonitor) {
+        try {
+          while (!empty) {
+            rwMonitor.wait ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from One2OneChannel.read ()\n" + e.toString ()
+          );
+        }
+      }
+    }
+    synchronized (rwMonitor) {
+      if (release) {
+        spuriousWakeUp = false;
+        rwMonitor.notify ();
+      }
+      return hold;
+    }
+  }
+
+  private final class Input extends AltingChannelInput {
+
+    boolean enable (Alternative alt) {
+      return readerEnable (alt);
+    }
+
+    boolean disable () {
+      return readerDisable ();
+    }
+
+    public Object read () {
+      return One2OneChannelImpl.this.read ();
+    }
+
+    public Object startRead () {
+      return One2OneChannelImpl.this.startRead ();
+    }
+
+    public void endRead () {
+      One2OneChannelImpl.this.endRead ();
+    }
+
+    public boolean pending () {
+      return readerPending ();
+    }
+
+    public void poison (int strength) {
+    }
+
+  }
+
+  private final class Output implements ChannelOutput {
+
+    public void write (Object value) {
+      One2OneChannelImpl.this.write (value);
+    }
+
+    public void poison (int strength) {
+    }
+
+  }
+
 }
@@ -58,7 +58,7 @@ import jcsp.util.ints.ChannelDataStoreInt;
  * @author P.H. Welch
  */
 
-class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
+final class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
 {
     /** The monitor synchronising reader and writer on this channel */
     private Object rwMonitor = new Object();
@@ -67,13 +67,36 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
     private int hold;
 
     /** The synchronisation flag */
-    private boolean empty = true;
+    private volatile boolean empty = true;
 
     /** The Alternative class that controls the selection */
     private Alternative alt;
     
     /** Flag to deal with a spurious wakeup during a write */
-    private boolean spuriousWakeUp = true;
+    private volatile boolean spuriousWakeUp = true;
+
+    /** The wait strategy for this channel - null for the default */
+    private WaitStrategy waitStrategy = null;
+
+    /** The input end of this channel (calls straight back into this class) */
+    private final AltingChannelInputInt in = new Input ();
+
+    /** The output end of this channel (calls straight back into this class) */
+    private final ChannelOutputInt out = new Output ();
+
+    /** A waiting reader is released when a writer makes it <I>empty</I> */
+    private final WaitStrategy.Condition readerReleased = new WaitStrategy.Condition() {
+      public boolean isReady() {
+        return empty;
+      }
+    };
+
+    /** A waiting writer is released when a reader clears <I>spuriousWakeUp</I> */
+    private final WaitStrategy.Condition writerReleased = new WaitStrategy.Condition() {
+      public boolean isReady() {
+        return !spuriousWakeUp;
+      }
+    };
     
     /*************Methods from One2OneChannelInt******************************/
 
@@ -88,7 +111,7 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      */
     public AltingChannelInputInt in()
     {
-        return new AltingChannelInputIntImpl(this,0);
+        return in;
     }
 
     /**
@@ -102,7 +125,7 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      */
     public ChannelOutputInt out()
     {
-        return new ChannelOutputIntImpl(this,0);
+        return out;
     }
 
     /**********************************************************************/
@@ -113,6 +136,10 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      * @return the integer read from the channel.
      */
     public int read () {
+        final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+        if (strategy != WaitStrategy.BLOCKING) {
+          return read (strategy, true);
+        }
         synchronized (rwMonitor) {
           if (empty) {
             empty = false;
@@ -140,6 +167,10 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
       }
     
     public int startRead() {
+        final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+        if (strategy != WaitStrategy.BLOCKING) {
+          return read (strategy, false);
+        }
         synchronized (rwMonitor) {              
           if (empty) {
             empty = false;
@@ -177,6 +208,11 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      * @param value the integer to write to the channel.
      */
     public void write (int value) {
+        final WaitStrategy strategy = WaitStrategy.resolve (waitStrategy);
+        if (strategy != WaitStrategy.BLOCKING) {
+          write (value, strategy);
+          return;
+        }
         synchronized (rwMonitor) {
           hold = value;
           if (empty) {
@@ -336,4 +372,136 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
     
     
     
+
+  /**
+   * Sets the wait strategy for this channel (null for the default).
+   *
+   * @param strategy the wait strategy.
+   */
+  void setWaitStrategy (WaitStrategy strategy) {
+    waitStrategy = strategy;
+  }
+
+  /**
+   * Writes a value using a non-blocking wait strategy: the writer watches
+   * for its release outside the monitor, only waiting on the monitor
+   * if the strategy gives up.
+   */
+  private void write (int value, WaitStrategy strategy) {
+    synchronized (rwMonitor) {
+      hold = value;
+      if (empty) {
+        empty = false;
+        if (alt != null) {
+          alt.schedule ();
+        }
+      } else {
+        empty = true;
+        rwMonitor.notify ();
+      }
+    }
+    if (!strategy.await (writerReleased)) {
+      synchronized (rwMonitor) {
+        try {
+          while (spuriousWakeUp) {
+            rwMonitor.wait ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from One2OneChannelInt.write (int)\n" + e.toString ()
+          );
+        }
+      }
+    }
+    synchronized (rwMonitor) {
+      spuriousWakeUp = true;
+    }
+  }
+
+  /**
+   * Reads (or starts reading) a value using a non-blocking wait strategy:
+   * the reader watches for its release outside the monitor, only waiting
+   * on the monitor if the strategy gives up.
+   *
+   * @param release true to release the writer (a read), false to keep it
+   *                 waiting until endRead (a startRead).
+   */
+  private int read (WaitStrategy strategy, boolean release) {
+    synchronized (rwMonitor) {
+      if (!empty) {
+        empty = true;
+        if (release) {
+          spuriousWakeUp = false;
+          rwMonitor.notify ();
+        }
+        return hold;
+      }
+      empty = false;
+    }
+    if (!strategy.await (readerReleased)) {
+      synchronized (rwMonitor) {
+        try {
+          while (!empty) {
+            rwMonitor.wait ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from One2OneChannelInt.read ()\n" + e.toString ()
+          );
+        }
+      }
+    }
+    synchronized (rwMonitor) {
+      if (release) {
+        spuriousWakeUp = false;
+        rwMonitor.notify ();
+      }
+      return hold;
+    }
+  }
+
+  private final class Input extends AltingChannelInputInt {
+
+    boolean enable (Alternative alt) {
+      return readerEnable (alt);
+    }
+
+    boolean disable () {
+      return readerDisable ();
+    }
+
+    public int read () {
+      return One2OneChannelIntImpl.this.read ();
+    }
+
+    public int startRead () {
+      return One2OneChannelIntImpl.this.startRead ();
+    }
+
+    public void endRead () {
+      One2OneChannelIntImpl.this.endRead ();
+    }
+
+    public boolean pending () {
+      return readerPending ();
+    }
+
+    public void poison (int strength) {
+    }
+
+  }
+
+  private final class Output implements ChannelOutputInt {
+
+    public void write (int value) {
+      One2OneChannelIntImpl.this.write (value);
+    }
+
+    public void poison (int strength) {
+    }
+
+  }
+
 }
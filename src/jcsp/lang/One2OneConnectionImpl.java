@@ -20,8 +20,6 @@
 
 package jcsp.lang;
 
-import jcsp.util.Buffer;
-
 /**
  * This class is an implementation of <code>One2OneConnection</code>.
  * Each end is safe to be used by one thread at a time.
@@ -35,24 +33,19 @@ class One2OneConnectionImpl extends AbstractConnectionImpl implements One2OneCon
 
     /**
      * Initializes all the attributes to necessary values.
-     * Channels are created using the static factory in the
-     * <code>ChannelServer</code> inteface.
+     * Requests and replies are handed over directly through a single
+     * <code>ConnectionExchange</code> rather than through channels.
      *
      * Constructor for One2OneConnectionImpl.
      */
     public One2OneConnectionImpl()
     {
         super();
-        One2OneChannel chanToServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
-        One2OneChannel chanFromServer = ConnectionServer.FACTORY.createOne2One(new Buffer(1));
+        ConnectionExchange exchange = new ConnectionExchange();
 
         //create the client and server objects
-        client = new AltingConnectionClientImpl(chanFromServer.in(),
-                                                chanToServer.out(),
-                                                chanToServer.out(),
-                                                chanFromServer.out());
-        server = new AltingConnectionServerImpl(chanToServer.in(),
-                                                chanToServer.in());
+        client = new AltingConnectionClientImpl(exchange);
+        server = new AltingConnectionServerImpl(exchange);
     }
 
     /**
@@ -0,0 +1,140 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+import java.lang.invoke.VarHandle;
+
+    /**
+ * This is a {@link Crew} lock that also offers <I>optimistic</I> reads.
+ * <P>
+ * <A HREF="#constructor_summary">Shortcut to the Constructor and Method Summaries.</A>
+ *
+ * <H2>Description</H2>
+ * Every {@link Crew#startRead <TT>startRead</TT>}/{@link Crew#endRead <TT>endRead</TT>}
+ * pair on a <TT>Crew</TT> lock costs two communications with its server process,
+ * even when no writer is about.  For read-mostly resources shared by many processes
+ * (configuration or routing tables, for instance), that cost dominates the reads
+ * themselves.
+ * <P>
+ * An <TT>OptimisticCrew</TT> keeps a <I>version stamp</I> that every writer advances
+ * when it starts and again when it finishes.  A reader may take the current stamp
+ * ({@link #startOptimisticRead <TT>startOptimisticRead</TT>}), read the resource
+ * <I>without</I> registering with the server and then check
+ * ({@link #validate <TT>validate</TT>}) that no writer has been active in the
+ * meantime.  If the check fails, the values read may be inconsistent and must be
+ * discarded -- the usual response is to read again, this time under the ordinary
+ * (pessimistic) <TT>startRead</TT>/<TT>endRead</TT>:
+ * <PRE>
+ *   long stamp = crew.startOptimisticRead ();
+ *   ...  copy what is needed from the shared resource into local variables
+ *   if (!crew.validate (stamp)) {
+ *     crew.startRead ();
+ *     ...  copy what is needed from the shared resource into local variables
+ *     crew.endRead ();
+ *   }
+ *   ...  use the local copies
+ * </PRE>
+ * <P>
+ * Between taking and validating a stamp, a reader must only <I>copy</I> values from
+ * the resource.  It must not act on them (nor follow references out of them to
+ * objects that a writer might be changing) until they are validated, since they may
+ * be partially updated.
+ * <P>
+ * Writers use {@link #startWrite <TT>startWrite</TT>} and {@link #endWrite <TT>endWrite</TT>}
+ * exactly as for a <TT>Crew</TT>, and remain exclusive of each other and of
+ * pessimistic readers.  Optimistic readers never delay writers.
+ *
+ * @see Crew
+ */
+
+public class OptimisticCrew extends Crew
+{
+    /**
+     * The version stamp.  It is odd while a writer is active and is only changed by the
+     * (exclusive) writer.
+     */
+    private volatile long version = 2;
+
+    /**
+     * Construct a lock for CREW-guarded operations on a shared resource.
+     */
+    public OptimisticCrew()
+    {
+        super();
+    }
+
+    /**
+     * Construct a lock for CREW-guarded operations on a shared resource.
+     *
+     * @param shared the shared resource for which this lock is to be used (see
+     * {@link #getShared <TT>getShared</TT>}).
+     */
+    public OptimisticCrew(Object shared)
+    {
+        super(shared);
+    }
+
+    /**
+     * This returns a stamp to be {@link #validate validate}d after some optimistic
+     * read operations on the associated shared resource.  It never blocks.
+     * If a writer is active, the stamp returned will never validate.
+     *
+     * @return the stamp.
+     */
+    public long startOptimisticRead()
+    {
+        final long v = version;
+        return ((v & 1) == 0) ? v : 0;
+    }
+
+    /**
+     * This must be invoked <I>after</I> optimistic read operations on the associated
+     * shared resource, and before using what was read.
+     *
+     * @param stamp the stamp returned by {@link #startOptimisticRead startOptimisticRead}.
+     * @return true if no writer has been active since the stamp was taken, so that the
+     * reads were consistent.
+     */
+    public boolean validate(long stamp)
+    {
+        VarHandle.loadLoadFence(); // the reads must not be seen to happen after this
+        return (stamp != 0) && (stamp == version);
+    }
+
+    /**
+     * This must be invoked <I>before</I> any write operations on the associated shared resource.
+     */
+    public void startWrite()
+    {
+        super.startWrite();
+        version++;
+        VarHandle.storeStoreFence(); // the writes must not be seen to happen before this
+    }
+
+    /**
+     * This must be invoked <I>after</I> any write operations on the associated shared resource.
+     */
+    public void endWrite()
+    {
+        version++;
+        super.endWrite();
+    }
+}
@@ -28,12 +28,16 @@ package jcsp.lang;
  * A <TT>ParThread</TT> is a <TT>Thread</TT> used by {@link Parallel} to run
  * all but one of its given processes.
  * <P>
- * The <TT>CSProcess</TT> to be executed can be changed using the
- * <TT>setProcess</TT> method providing the <TT>ParThread</TT> is not active.
+ * <TT>ParThread</TT>s are not owned by any one <TT>Parallel</TT>: they are
+ * drawn from (and return to) the JVM-wide {@link ParThreadPool}, which is
+ * shared with {@link ProcessManager}.  Between processes, a <TT>ParThread</TT>
+ * waits in the pool; if it is not given another process within the pool's
+ * idle timeout, it terminates.
  *
  * @see CSProcess
  * @see jcsp.lang.ProcessManager
  * @see Parallel
+ * @see ParThreadPool
  *
  * @author P.D. Austin
  * @author P.H. Welch
@@ -48,54 +52,110 @@ class ParThread extends Thread
     /** the barrier at the end of a PAR */
     private Barrier barrier;
 
-    private boolean running = true;
+    /** the name under which uncaught exceptions are reported */
+    private String caller;
 
-    /** parking barrier for this thread */
-    private Barrier park = new Barrier(2);
+    /** the last process executed, whose name this thread carries */
+    private CSProcess named;
 
     /**
-     * Construct a new ParThread.
-     *
-     * @param process the process to be executed
-     * @param barrier the barrier for then end of the PAR
+     * Construct a new ParThread.  It will wait for a process to be given
+     * by {@link #execute execute}.
      */
-    public ParThread(CSProcess process, Barrier barrier)
+    ParThread()
     {
         setDaemon(true);
-        this.process = process;
-        this.barrier = barrier;
-        setName(process.toString());
     }
 
     /**
-     * reset the ParThread.
+     * Gives the ParThread a process to execute.  The ParThread must be
+     * idle (just constructed, or just taken from the {@link ParThreadPool}).
      *
      * @param process the process to be executed
-     * @param barrier the barrier for then end of the PAR
+     * @param barrier the barrier for the end of the PAR (resigned when the process terminates),
+     *                 or null
+     * @param priority the priority at which to run the process
+     * @param caller the name under which uncaught exceptions are reported
+     */
+    void execute(CSProcess process, Barrier barrier, int priority, String caller)
+    {
+        if (getPriority() != priority)
+            setPriority(priority);
+        if (process != named)
+        {
+            setName(process.toString());
+            named = process;
+        }
+        synchronized (this)
+        {
+            this.process = process;
+            this.barrier = barrier;
+            this.caller = caller;
+            notify();
+        }
+    }
+
+    /**
+     * Interrupts this thread, but only if it is still executing the given
+     * process (rather than idling, or executing some later process).
+     *
+     * @param process the process to be interrupted
      */
-    public void reset(CSProcess process, Barrier barrier)
+    synchronized void interrupt(CSProcess process)
     {
-        this.process = process;
-        this.barrier = barrier;
-        setName(process.toString());
+        if (this.process == process)
+            interrupt();
     }
 
     /**
-     * Sets the ParThread to terminate next time it's unparked.
+     * Sets the priority of this thread, but only if it is still executing
+     * the given process.
      *
+     * @param priority the new priority
+     * @param process the process whose priority is to be changed
+     */
+    synchronized void setPriority(int priority, CSProcess process)
+    {
+        if (this.process == process)
+            setPriority(priority);
+    }
+
+    /**
+     * @return true if this thread has no process to execute.
      */
-    public void terminate()
+    synchronized boolean isIdle()
     {
-        running = false;
-        park.sync();
+        return process == null;
     }
 
     /**
-     * Releases the ParThread to do some more work.
+     * Waits, for no longer than the pool's idle timeout, to be given a process.
+     *
+     * @return false if this thread has been retired from the pool.
      */
-    public void release()
+    private synchronized boolean awaitProcess()
     {
-        park.sync();
+        long timeout = ParThreadPool.getIdleTimeout();
+        long deadline = System.currentTimeMillis() + timeout;
+        while (process == null)
+        {
+            try
+            {
+                if (timeout > 0)
+                    wait(timeout);
+                else if (ParThreadPool.retire(this))
+                    return false;
+                else
+                    wait();             // a process is being handed over
+            }
+            catch (InterruptedException e)
+            {
+                if (ParThreadPool.retire(this))
+                    return false;
+            }
+            timeout = deadline - System.currentTimeMillis();
+        }
+        return true;
     }
 
     /**
@@ -107,18 +167,39 @@ class ParThread extends Thread
         try
         {
             Parallel.addToAllParThreads(this);
-            while (running)
+            while (awaitProcess())
             {
+                final CSProcess process;
+                final Barrier barrier;
+                final String caller;
+                synchronized (this)
+                {
+                    process = this.process;
+                    barrier = this.barrier;
+                    caller = this.caller;
+                }
                 try
                 {
                     process.run();
                 }
                 catch (Throwable e)
                 {
-                    Parallel.uncaughtException("jcsp.lang.Parallel", e);
+                    Parallel.uncaughtException(caller, e);
+                }
+                synchronized (this)
+                {
+                    this.process = null;
+                    this.barrier = null;
+                    this.caller = null;
+                    Thread.interrupted();       // not to be carried to the next process
                 }
-                barrier.resign();
-                park.sync();
+                // back to the pool before resigning, so that a Parallel run
+                // again at once finds this thread idle rather than making another
+                final boolean parked = ParThreadPool.park(this);
+                if (barrier != null)
+                    barrier.resign();
+                if (!parked)
+                    break;
             }
         }
         catch (Throwable t)
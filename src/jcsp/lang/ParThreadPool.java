@@ -0,0 +1,185 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+
+package jcsp.lang;
+
+    /**
+ * This is the JVM-wide pool of {@link ParThread}s from which {@link Parallel}
+ * and {@link ProcessManager} draw the threads to run their processes.
+ *
+ * <H2>Description</H2>
+ * A process is started on an idle <TT>ParThread</TT> if there is one; only
+ * otherwise is a new thread made.  When its process terminates, the
+ * <TT>ParThread</TT> returns to the pool.  Idle threads are kept on a stack,
+ * so that the most recently used are reused first and the rest stay idle
+ * long enough to time out; a thread idle for longer than the idle timeout
+ * (default 60 seconds) terminates.
+ * <P>
+ * So code that repeatedly builds and runs short-lived <TT>Parallel</TT>s
+ * (or <TT>ProcessManager</TT>s) pays for thread creation only as the
+ * peak number of concurrently running processes grows.
+ *
+ * @see Parallel
+ * @see ProcessManager
+ * @see ParThread
+ */
+
+final class ParThreadPool
+{
+    /** the monitor protecting the idle stack */
+    private static final Object lock = new Object();
+
+    /** the idle threads - the most recently parked on top */
+    private static ParThread[] idle = new ParThread[16];
+
+    private static int nIdle = 0;
+
+    // invariant : (0 <= nIdle <= idle.length)
+
+    /** milliseconds an idle thread waits for a process before terminating */
+    private static volatile long idleTimeout = 60000;
+
+    private ParThreadPool()
+    {
+    }
+
+    /**
+     * Runs a process on an idle (or, failing that, a new) ParThread.
+     *
+     * @param process the process to be executed
+     * @param barrier resigned by the thread when the process terminates (may be null)
+     * @param priority the priority at which to run the process
+     * @param caller the name under which uncaught exceptions are reported
+     * @return the thread running the process
+     */
+    static ParThread execute(CSProcess process, Barrier barrier, int priority, String caller)
+    {
+        ParThread thread = null;
+        synchronized (lock)
+        {
+            if (nIdle > 0)
+            {
+                nIdle--;
+                thread = idle[nIdle];
+                idle[nIdle] = null;
+            }
+        }
+        if (thread != null)
+        {
+            thread.execute(process, barrier, priority, caller);
+        }
+        else
+        {
+            thread = new ParThread();
+            thread.execute(process, barrier, priority, caller);
+            thread.start();
+        }
+        return thread;
+    }
+
+    /**
+     * Returns a ParThread, whose process has terminated, to the pool.
+     *
+     * @return false if the thread should terminate instead.
+     */
+    static boolean park(ParThread thread)
+    {
+        if (Parallel.isDestroyed())
+            return false;
+        synchronized (lock)
+        {
+            if (nIdle == idle.length)
+            {
+                final ParThread[] tmp = idle;
+                idle = new ParThread[2 * nIdle];
+                System.arraycopy(tmp, 0, idle, 0, nIdle);
+            }
+            idle[nIdle] = thread;
+            nIdle++;
+        }
+        return true;
+    }
+
+    /**
+     * Removes an idle ParThread from the pool.
+     *
+     * @return true if it was removed; false if it has just been given
+     *          a process (which it must now wait for).
+     */
+    static boolean retire(ParThread thread)
+    {
+        synchronized (lock)
+        {
+            for (int i = 0; i < nIdle; i++)
+            {
+                if (idle[i] == thread)
+                {
+                    nIdle--;
+                    System.arraycopy(idle, i + 1, idle, i, nIdle - i);
+                    idle[nIdle] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Starts new idle threads until at least <TT>n</TT> are idle.
+     */
+    static void prestart(int n)
+    {
+        while (true)
+        {
+            final ParThread thread;
+            synchronized (lock)
+            {
+                if (nIdle >= n)
+                    return;
+                thread = new ParThread();
+            }
+            if (!park(thread))
+                return;
+            thread.start();
+        }
+    }
+
+    /**
+     * Returns the number of idle threads in the pool.
+     */
+    static int getIdleCount()
+    {
+        synchronized (lock)
+        {
+            return nIdle;
+        }
+    }
+
+    static long getIdleTimeout()
+    {
+        return idleTimeout;
+    }
+
+    static void setIdleTimeout(long msecs)
+    {
+        idleTimeout = msecs;
+    }
+}
@@ -218,18 +218,22 @@ package jcsp.plugNplay.ints;
  * the <I>double-buffering</I>).
  * </P>
  * <H2>Implementation Note</H2>
- * The <TT>Parallel</TT> object creates new {@link Thread}s to run the first
- * <TT>(n - 1)</TT> of its processes, running the last one in its own thread of control.
- * After each <TT>run</TT> of the <TT>Parallel</TT> {@link CSProcess}, all those threads
- * are parked for reuse in the next <TT>run</TT>.  Thus in the above <I>low-level</I>
+ * The <TT>Parallel</TT> object runs the first <TT>(n - 1)</TT> of its processes on
+ * {@link Thread}s drawn from a JVM-wide pool, running the last one in its own thread
+ * of control.  The pool is shared by all <TT>Parallel</TT> and {@link ProcessManager}
+ * objects.  After each <TT>run</TT> of the <TT>Parallel</TT> {@link CSProcess}, all
+ * those threads return to the pool, where they may be reused by the next <TT>run</TT>
+ * &ndash; or by any other <TT>Parallel</TT>.  Thus in the above <I>low-level</I>
  * application, the overhead for Java thread creation for the internal concurrency
- * is only incurred on its first cycle.  All these implementation <TT>Thread</TT>s
- * are <I>daemons</I> and, so, will terminate if everything else terminates.
+ * is only incurred on its first cycle; and nor is it incurred by code that builds
+ * and runs new <TT>Parallel</TT> objects in a loop.  All these implementation
+ * <TT>Thread</TT>s are <I>daemons</I> and, so, will terminate if everything else
+ * terminates.
  * <P>
- * If a <TT>Parallel</TT> process has finished its <TT>run()</TT> and <I>is not</I> going
- * to be used again, its parked threads may be unparked and terminated by invoking
- * its {@link #releaseAllThreads <TT>releaseAllThreads</TT>} method.  This will release
- * the memory used by those threads.
+ * A pooled thread that is not given another process within the idle timeout
+ * (see {@link #setIdleThreadTimeout <TT>setIdleThreadTimeout</TT>}) terminates,
+ * releasing the memory it used.  Threads may be started ahead of need by
+ * {@link #prestartThreads <TT>prestartThreads</TT>}.
  *
  * @see CSProcess
  * @see ProcessManager
@@ -252,10 +256,10 @@ public class Parallel implements CSProcess
     /** The number of processes in this <TT>Parallel</TT> */
     private int nProcesses = 0;
 
-    /** A pool of ParThreads */
+    /** The ParThreads (from the shared pool) running the current run */
     private ParThread[] parThreads;
 
-    /** The number of threads created so far by this <TT>Parallel</TT> */
+    /** The number of threads running processes in the current run */
     private int nThreads = 0;
 
     // invariant : (0 <= nProcesses <= processes.length)
@@ -266,8 +270,6 @@ public class Parallel implements CSProcess
 
     private boolean priority;
 
-    private boolean processesChanged;
-
     /**
      * The threads created by <I>all</I> <TT>Parallel</TT> and {@link ProcessManager} objects.
      */
@@ -334,6 +336,17 @@ public class Parallel implements CSProcess
         }
     }
 
+    /**
+     * @return whether <TT>destroy</TT> has been called (and not cancelled).
+     */
+    static boolean isDestroyed()
+    {
+        synchronized (allParThreads)
+        {
+            return destroyCalled;
+        }
+    }
+
     /**
      * Cancels a call to <TT>destroy</TT> allowing the JCSP system to be reused. This is provided to that <TT>destroy</TT>
      * can be called from an Applet's termination method, but the Applet can be restarted later.
@@ -410,7 +423,6 @@ public class Parallel implements CSProcess
             this.processes = new CSProcess[0];
             parThreads = new ParThread[0];
         }
-        processesChanged = true;
         this.priority = false;
     }
 
@@ -437,7 +449,6 @@ public class Parallel implements CSProcess
             this.processes = new CSProcess[0];
             parThreads = new ParThread[0];
         }
-        processesChanged = true;
         this.priority = priority;
     }
 
@@ -462,7 +473,6 @@ public class Parallel implements CSProcess
                 }
                 processes[nProcesses] = process;
                 nProcesses = targetProcesses;
-                processesChanged = true;
             }
         }
     }
@@ -490,7 +500,6 @@ public class Parallel implements CSProcess
                 }
                 System.arraycopy(newProcesses, 0, processes, nProcesses, extra);
                 nProcesses = targetProcesses;
-                processesChanged = true;
             }
         }
     }
@@ -528,7 +537,6 @@ public class Parallel implements CSProcess
                 }
                 processes[index] = process;
                 nProcesses = targetProcesses;
-                processesChanged = true;
             }
         }
     }
@@ -552,7 +560,6 @@ public class Parallel implements CSProcess
                                          nProcesses - (i + 1));
                     nProcesses--;
                     processes[nProcesses] = null;
-                    processesChanged = true;
                     return;
                 }
             }
@@ -569,34 +576,59 @@ public class Parallel implements CSProcess
                 processes[i] = null;
             }
             nProcesses = 0;
-            processesChanged = true;
         }
     }
 
     /**
-     * System finalizer. When this object falls out of scope it will release all of the threads that it
-     * has allocated.
+     * Release all threads saved by the <TT>Parallel</TT> object for future runs.
+     * <P>
+     * <I>Implementation note: threads are no longer held by individual </I>Parallel<I>
+     * objects, but return to a shared pool at the end of each </I>run<I> and terminate
+     * after the idle timeout (see {@link #setIdleThreadTimeout setIdleThreadTimeout}).
+     * So there is nothing to release and this method does nothing.</I>
      */
-    protected void finalize() throws Throwable {
-        releaseAllThreads();
+    public void releaseAllThreads() {
     }
 
     /**
-     * Release all threads saved by the <TT>Parallel</TT> object for future runs -
-     * the threads all terminate and release their associated workspaces.
-     * This should only be executed when the <TT>Parallel</TT> object is not running.
-     * If this <TT>Parallel</TT> object is run again, the necessary threads will be
-     * recreated.
+     * Sets how long a pooled thread, whose process has terminated, waits to be given
+     * another process (by any <TT>Parallel</TT> or {@link ProcessManager}) before it
+     * terminates.  The default is 60 seconds.  A value of zero means threads terminate
+     * as soon as their processes do.
+     *
+     * @param msecs the idle timeout in milliseconds.
      */
-    public void releaseAllThreads() {
-        synchronized (sync) {
-            for (int i = 0; i < nThreads; i++) {
-                parThreads[i].terminate();
-                parThreads[i] = null;
-            }
-            nThreads = 0;
-            processesChanged = true;
-        }
+    public static void setIdleThreadTimeout(final long msecs) {
+        ParThreadPool.setIdleTimeout(msecs);
+    }
+
+    /**
+     * @return the idle timeout of pooled threads in milliseconds.
+     */
+    public static long getIdleThreadTimeout() {
+        return ParThreadPool.getIdleTimeout();
+    }
+
+    /**
+     * Starts pooled threads, if necessary, so that at least <TT>n</TT> are idle.
+     * This takes thread creation off the critical path of the next processes to be
+     * started (within the idle timeout).
+     *
+     * @param n the number of idle threads wanted.
+     */
+    public static void prestartThreads(final int n) {
+        ParThreadPool.prestart(n);
+    }
+
+    /**
+     * Tests whether a thread is one of the pooled threads used to run processes (by any
+     * <TT>Parallel</TT> or {@link ProcessManager}) and is idle, waiting to be given another.
+     *
+     * @param thread the thread to test.
+     * @return true if and only if the thread is an idle pooled thread.
+     */
+    public static boolean isIdlePooledThread(final Thread thread) {
+        return (thread instanceof ParThread) && ((ParThread) thread).isIdle();
     }
 
     /**
@@ -615,11 +647,10 @@ public class Parallel implements CSProcess
      * <TT>Parallel</TT> object.  It terminates when, and only when, all its component
      * processes terminate.
      * </P>
-     * <P><I>Implementation note: In its first </I>run<I>, only
-     * (numProcesses - 1) Threads are created to run the processes --
-     * the last process is executed in the invoking Thread.
-     * Sunsequent </I>run<I>s reuse these Threads (so the overhead
-     * of thread creation happens only once).</I></P>
+     * <P><I>Implementation note: only (numProcesses - 1) Threads are
+     * needed to run the processes -- the last process is executed in the
+     * invoking Thread.  These are taken from the shared pool, which only
+     * creates Threads when none are idle.</I></P>
      */
     public void run() {
 
@@ -633,12 +664,11 @@ public class Parallel implements CSProcess
 
                 emptyRun = false;
 
-                int currentPriority = 0;
+                Thread thread = Thread.currentThread();
+                int currentPriority = thread.getPriority();
                 int maxPriority = 0;
                 if (priority)
                 {
-                    Thread thread = Thread.currentThread();
-                    currentPriority = thread.getPriority();
                     maxPriority = Math.min(
                         currentPriority + nProcesses - 1,
                         Math.min(Thread.MAX_PRIORITY,
@@ -649,50 +679,16 @@ public class Parallel implements CSProcess
 
                 barrier.reset(nProcesses);
                 myProcess = processes[nProcesses - 1];
-                if (processesChanged) {
-                    if (nThreads < nProcesses - 1) {
-                        if (parThreads.length < nProcesses - 1) {
-                            final ParThread[] tmp = parThreads;
-                            parThreads = new ParThread[processes.length];
-                            System.arraycopy(tmp, 0, parThreads, 0, nThreads);
-                        }
-                        for (int i = 0; i < nThreads; i++) {
-                            parThreads[i].reset(processes[i], barrier);
-                            if (priority) {
-                                parThreads[i].setPriority(Math.max(
-                                        currentPriority, maxPriority - i));
-                            }
-                            parThreads[i].release();
-                        }
-                        for (int i = nThreads; i < nProcesses - 1; i++) {
-                            parThreads[i] = new ParThread(processes[i], barrier);
-                            if (priority) {
-                                parThreads[i].setPriority(Math.max(
-                                        currentPriority, maxPriority - i));
-                            }
-                            parThreads[i].start();
-                        }
-                        nThreads = nProcesses - 1;
-                    } else {
-                        for (int i = 0; i < nProcesses - 1; i++) {
-                            parThreads[i].reset(processes[i], barrier);
-                            if (priority) {
-                                parThreads[i].setPriority(Math.max(
-                                        currentPriority, maxPriority - i));
-                            }
-                            parThreads[i].release();
-                        }
-                    }
-                    processesChanged = false;
-                } else {
-                    for (int i = 0; i < nProcesses - 1; i++) {
-                        if (priority) {
-                            parThreads[i].setPriority(Math.max(currentPriority,
-                                    maxPriority - i));
-                        }
-                        parThreads[i].release();
-                    }
+                if (parThreads.length < nProcesses - 1) {
+                    parThreads = new ParThread[processes.length];
+                }
+                for (int i = 0; i < nProcesses - 1; i++) {
+                    final int threadPriority =
+                        priority ? Math.max(currentPriority, maxPriority - i) : currentPriority;
+                    parThreads[i] = ParThreadPool.execute(processes[i], barrier,
+                                                          threadPriority, "jcsp.lang.Parallel");
                 }
+                nThreads = nProcesses - 1;
             }
 
         }   // end synchronized block
@@ -708,7 +704,7 @@ public class Parallel implements CSProcess
                 synchronized (sync) {     // PHW: why synchronize?
                     for (int i = 0; i < nThreads; i++) {
                         try {
-                            parThreads[i].interrupt();
+                            parThreads[i].interrupt(processes[i]);
                         } catch (Throwable t) {
                             System.out.println(
                                     "*** jcsp.lang.Parallel: couldn't stop thread "
@@ -723,6 +719,13 @@ public class Parallel implements CSProcess
 
             barrier.sync();
 
+            synchronized (sync) {
+                for (int i = 0; i < nThreads; i++) {
+                    parThreads[i] = null;
+                }
+                nThreads = 0;
+            }
+
         }
     }
 
@@ -0,0 +1,261 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+    /**
+ * This is a {@link CSProcess} that runs a body for every index in a range,
+ * with the iterations shared out dynamically between processors.
+ *
+ * <H2>Description</H2>
+ * A <TT>ParallelFor</TT> is a data-parallel loop: its <TT>run</TT> invokes
+ * its {@link Body}'s <TT>run (i)</TT> once for each <TT>i</TT> from
+ * <TT>from</TT> (inclusive) to <TT>to</TT> (exclusive), in no particular
+ * order and in parallel, and terminates when, and only when, they have all
+ * completed.
+ * <P>
+ * Where hand-written code would construct <TT>N</TT> worker processes, each
+ * with a fixed slice of the index range, in a {@link Parallel} (and so runs
+ * only as fast as the slowest slice), the range here is split recursively in
+ * halves down to a <I>grain</I> size and the pieces are run on a
+ * <TT>ForkJoinPool</TT>.  Idle processors steal work from busy ones, so
+ * irregular iterations are balanced across cores automatically.
+ * <P>
+ * Because it is a <TT>CSProcess</TT>, a <TT>ParallelFor</TT> may be a
+ * component of a <TT>Parallel</TT> or <TT>Sequence</TT>, or be run by a
+ * {@link ProcessManager}, just like any other process.  It may be run many
+ * times (and its range changed between runs by {@link #setRange setRange}).
+ * <P>
+ * The body must be safe to run concurrently for different indices and must
+ * <I>not</I> communicate or synchronise with other processes: the pool threads
+ * are shared and must not block.  If a body throws an unchecked exception,
+ * the <TT>run</TT> throws it on, but only once every iteration already started
+ * has finished; iterations not yet started may then be skipped.
+ *
+ * <H2>Example</H2>
+ * <PRE>
+ * final double[] a = ...;
+ * final double[] b = new double[a.length];
+ * <I></I>
+ * new ParallelFor (0, a.length, new ParallelFor.Body () {
+ *   public void run (int i) {
+ *     b[i] = Math.sqrt (a[i]);
+ *   }
+ * }).run ();
+ * </PRE>
+ *
+ * @see ParallelMap
+ * @see Parallel
+ */
+
+public class ParallelFor implements CSProcess
+{
+    /**
+     * The body of a {@link ParallelFor} loop.
+     */
+    public interface Body
+    {
+        /**
+         * Runs one iteration.
+         *
+         * @param i the index of the iteration.
+         */
+        public void run(int i);
+    }
+
+    /** Pieces are split until there are about this many per processor */
+    private static final int PIECES_PER_PROCESSOR = 8;
+
+    private final Body body;
+
+    private final ForkJoinPool pool;
+
+    private int from;
+
+    private int to;
+
+    /** The grain size - zero to choose one for each run */
+    private final int grain;
+
+    /**
+     * Construct a loop over <TT>from</TT> (inclusive) to <TT>to</TT> (exclusive),
+     * with a grain size chosen for the range and number of processors.
+     *
+     * @param from the first index.
+     * @param to one beyond the last index.
+     * @param body the body to run for each index.
+     */
+    public ParallelFor(int from, int to, Body body)
+    {
+        this(from, to, 0, body, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construct a loop over <TT>from</TT> (inclusive) to <TT>to</TT> (exclusive).
+     *
+     * @param from the first index.
+     * @param to one beyond the last index.
+     * @param grain the largest number of iterations run as one piece (a positive
+     *               number, or zero to choose one for the range and number of processors).
+     * @param body the body to run for each index.
+     */
+    public ParallelFor(int from, int to, int grain, Body body)
+    {
+        this(from, to, grain, body, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construct a loop over <TT>from</TT> (inclusive) to <TT>to</TT> (exclusive),
+     * run on a given pool.
+     *
+     * @param from the first index.
+     * @param to one beyond the last index.
+     * @param grain the largest number of iterations run as one piece (a positive
+     *               number, or zero to choose one for the range and number of processors).
+     * @param body the body to run for each index.
+     * @param pool the pool on which to run the iterations (by default, the JVM's
+     *              common <TT>ForkJoinPool</TT>).
+     */
+    public ParallelFor(int from, int to, int grain, Body body, ForkJoinPool pool)
+    {
+        if (grain < 0)
+            throw new IllegalArgumentException("*** ParallelFor: grain must not be negative: " + grain);
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.body = body;
+        this.pool = pool;
+    }
+
+    /**
+     * Changes the range for subsequent runs.  This must not be called while
+     * the loop is running.
+     *
+     * @param from the first index.
+     * @param to one beyond the last index.
+     */
+    public void setRange(int from, int to)
+    {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Runs the body for every index in the range, terminating when all have completed.
+     */
+    public void run()
+    {
+        // a long, as the width of a range of ints may not fit in an int
+        final long n = (long) to - from;
+        if (n <= 0)
+            return;
+        int g = grain;
+        if (g == 0)
+        {
+            g = (int) Math.min(n / (PIECES_PER_PROCESSOR * pool.getParallelism()), Integer.MAX_VALUE);
+            if (g < 1)
+                g = 1;
+        }
+        if (n <= g)
+        {
+            for (int i = from; i < to; i++)
+                body.run(i);
+        }
+        else
+            pool.invoke(new Piece(body, from, to, g));
+    }
+
+    /**
+     * A part of the range, run by a pool thread and split in halves while
+     * it is larger than the grain.
+     */
+    private static final class Piece extends RecursiveAction
+    {
+        private final Body body;
+
+        private final int from;
+
+        private final int to;
+
+        private final int grain;
+
+        /** The next piece forked by the same parent */
+        private Piece next;
+
+        Piece(Body body, int from, int to, int grain)
+        {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        protected void compute()
+        {
+            int to = this.to;
+            Piece forked = null;
+            // fork off the upper halves, keeping the lowest piece to run here
+            while ((long) to - from > grain)
+            {
+                final int mid = (int) (from + (((long) to - from) >>> 1));
+                final Piece upper = new Piece(body, mid, to, grain);
+                upper.fork();
+                upper.next = forked;
+                forked = upper;
+                to = mid;
+            }
+            Throwable failure = null;
+            try
+            {
+                for (int i = from; i < to; i++)
+                    body.run(i);
+            }
+            catch (Throwable e)
+            {
+                failure = e;
+            }
+            // join every forked half, running any not yet stolen ourselves (or, after
+            // a failure, dropping them), so that no iteration outlives this piece
+            while (forked != null)
+            {
+                if ((failure == null) || !forked.tryUnfork())
+                {
+                    try
+                    {
+                        forked.join();
+                    }
+                    catch (Throwable e)
+                    {
+                        if (failure == null)
+                            failure = e;
+                    }
+                }
+                forked = forked.next;
+            }
+            if (failure instanceof Error)
+                throw (Error) failure;
+            if (failure != null)
+                throw (RuntimeException) failure;
+        }
+    }
+}
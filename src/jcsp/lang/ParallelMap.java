@@ -0,0 +1,136 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+import java.util.concurrent.ForkJoinPool;
+
+    /**
+ * This is a {@link CSProcess} that applies a function to every element of
+ * an array, with the elements shared out dynamically between processors.
+ *
+ * <H2>Description</H2>
+ * Each <TT>run</TT> of a <TT>ParallelMap</TT> sets <TT>out[i]</TT> to
+ * <TT>function.apply (in[i])</TT> for every index of <TT>in</TT>, in
+ * parallel, and terminates when, and only when, all have been set.
+ * <TT>out</TT> must be at least as long as <TT>in</TT>; it may be the
+ * same array (for an in-place map).
+ * <P>
+ * It is a {@link ParallelFor} over the array indices, so the same
+ * work-stealing load balancing applies, and so do the same rules: the function
+ * must be safe to apply concurrently and must not communicate or synchronise
+ * with other processes.
+ * <P>
+ * A typical use is a stage of a process network that reads an array, maps it
+ * in parallel and writes it on:
+ * <PRE>
+ * final Object[] data = (Object[]) in.read ();
+ * new ParallelMap (data, data, f).run ();
+ * out.write (data);
+ * </PRE>
+ * For repeated use, construct the <TT>ParallelMap</TT> once and change its
+ * arrays between runs by {@link #setArrays setArrays}.
+ *
+ * @see ParallelFor
+ */
+
+public class ParallelMap implements CSProcess
+{
+    /**
+     * The function applied by a {@link ParallelMap}.
+     */
+    public interface Function
+    {
+        /**
+         * @param x an element of the input array.
+         * @return the corresponding element of the output array.
+         */
+        public Object apply(Object x);
+    }
+
+    private final Function function;
+
+    private Object[] in;
+
+    private Object[] out;
+
+    private final ParallelFor loop;
+
+    /**
+     * Construct a map from <TT>in</TT> to <TT>out</TT>, run on the JVM's
+     * common <TT>ForkJoinPool</TT>.
+     *
+     * @param in the input array.
+     * @param out the output array (at least as long as <TT>in</TT>; may be <TT>in</TT>).
+     * @param function the function to apply to each element.
+     */
+    public ParallelMap(Object[] in, Object[] out, Function function)
+    {
+        this(in, out, 0, function, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construct a map from <TT>in</TT> to <TT>out</TT>.
+     *
+     * @param in the input array.
+     * @param out the output array (at least as long as <TT>in</TT>; may be <TT>in</TT>).
+     * @param grain the largest number of elements mapped as one piece
+     *               (see {@link ParallelFor}), or zero to choose one.
+     * @param function the function to apply to each element.
+     * @param pool the pool on which to run the function.
+     */
+    public ParallelMap(Object[] in, Object[] out, int grain, Function function, ForkJoinPool pool)
+    {
+        this.function = function;
+        loop = new ParallelFor(0, 0, grain, new ParallelFor.Body()
+        {
+            public void run(int i)
+            {
+                ParallelMap.this.out[i] = ParallelMap.this.function.apply(ParallelMap.this.in[i]);
+            }
+        }, pool);
+        setArrays(in, out);
+    }
+
+    /**
+     * Changes the arrays for subsequent runs.  This must not be called while
+     * the map is running.
+     *
+     * @param in the input array.
+     * @param out the output array (at least as long as <TT>in</TT>; may be <TT>in</TT>).
+     */
+    public void setArrays(Object[] in, Object[] out)
+    {
+        if (out.length < in.length)
+            throw new IllegalArgumentException("*** ParallelMap: output array shorter than input: " +
+                                               out.length + " < " + in.length);
+        this.in = in;
+        this.out = out;
+        loop.setRange(0, in.length);
+    }
+
+    /**
+     * Maps every element, terminating when all have been mapped.
+     */
+    public void run()
+    {
+        loop.run();
+    }
+}
@@ -20,9 +20,9 @@
 
 package jcsp.lang;
 
-    class PoisonableAny2AnyChannelIntImpl extends Any2AnyIntImpl
+    class PoisonableAny2AnyChannelIntImpl extends Any2AnyChannelIntImpl
 {
 	PoisonableAny2AnyChannelIntImpl(int _immunity) {
-		super(new PoisonableOne2OneChannelIntImpl(_immunity));
+		super(_immunity);
 	}
 }
@@ -55,6 +55,12 @@ import jcsp.util.*;
 
 class PoisonableBufferedOne2OneChannel implements One2OneChannel, ChannelInternals
 {
+/** The input end of this channel */
+private final AltingChannelInput inputEnd;
+
+/** The output end of this channel */
+private final ChannelOutput outputEnd;
+
 /** The ChannelDataStore used to store the data for the channel */
 private final ChannelDataStore data;
 
@@ -79,6 +85,8 @@ public PoisonableBufferedOne2OneChannel(ChannelDataStore data, int _immunity)
                 ("Null ChannelDataStore given to channel constructor ...\n");
     this.data = (ChannelDataStore) data.clone();
     immunity = _immunity;
+    inputEnd = new AltingChannelInputImpl(this,immunity);
+    outputEnd = new ChannelOutputImpl(this,immunity);
 }
 
 private boolean isPoisoned() {
@@ -297,7 +305,7 @@ public boolean readerPending () {
  */
 public AltingChannelInput in()
 {
-    return new AltingChannelInputImpl(this,immunity);
+    return inputEnd;
 }
 
 /**
@@ -311,7 +319,7 @@ public AltingChannelInput in()
  */
 public ChannelOutput out()
 {
-    return new ChannelOutputImpl(this,immunity);
+    return outputEnd;
 }
 
 public void writerPoison(int strength) {
@@ -23,6 +23,11 @@ package jcsp.lang;
 import jcsp.util.ints.ChannelDataStoreInt;
 
 class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelInternalsInt {
+    /** The input end of this channel */
+    private final AltingChannelInputInt inputEnd;
+
+    /** The output end of this channel */
+    private final ChannelOutputInt outputEnd;
 
     /** The ChannelDataStore used to store the data for the channel */
     private final ChannelDataStoreInt data;
@@ -48,6 +53,8 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
                     ("Null ChannelDataStore given to channel constructor ...\n");
         this.data = (ChannelDataStoreInt) data.clone();
         immunity = _immunity;
+        inputEnd = new AltingChannelInputIntImpl(this,immunity);
+        outputEnd = new ChannelOutputIntImpl(this,immunity);
     }
     
     private boolean isPoisoned() {
@@ -266,7 +273,7 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      */
     public AltingChannelInputInt in()
     {
-        return new AltingChannelInputIntImpl(this,immunity);
+        return inputEnd;
     }
     
     /**
@@ -280,7 +287,7 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      */
     public ChannelOutputInt out()
     {
-        return new ChannelOutputIntImpl(this,immunity);
+        return outputEnd;
     }
     
     public void writerPoison(int strength) {
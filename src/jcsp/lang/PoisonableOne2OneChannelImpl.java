@@ -60,6 +60,12 @@ import java.io.Serializable;
 
 class PoisonableOne2OneChannelImpl implements One2OneChannel, Serializable, ChannelInternals
 {
+	/** The input end of this channel */
+	private final transient AltingChannelInput inputEnd;
+
+	/** The output end of this channel */
+	private final transient ChannelOutput outputEnd;
+
 	/** The monitor synchronising reader and writer on this channel */
 	  private Object rwMonitor = new Object ();
 
@@ -100,6 +106,8 @@ class PoisonableOne2OneChannelImpl implements One2OneChannel, Serializable, Chan
 	  
 	  PoisonableOne2OneChannelImpl(int _immunity) {
 		  immunity = _immunity;
+		  inputEnd = new AltingChannelInputImpl(this,immunity);
+		  outputEnd = new ChannelOutputImpl(this,immunity);
 	  }
 	  
 	  /*************Methods from One2OneChannel******************************/
@@ -115,7 +123,7 @@ class PoisonableOne2OneChannelImpl implements One2OneChannel, Serializable, Chan
      */
     public AltingChannelInput in()
     {
-        return new AltingChannelInputImpl(this,immunity);
+        return inputEnd;
     }
 
     /**
@@ -129,7 +137,7 @@ class PoisonableOne2OneChannelImpl implements One2OneChannel, Serializable, Chan
      */
     public ChannelOutput out()
     {
-        return new ChannelOutputImpl(this,immunity);
+        return outputEnd;
     }
 
     /*************Methods from ChannelOutput*******************************/
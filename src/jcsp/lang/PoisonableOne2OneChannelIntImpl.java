@@ -22,6 +22,12 @@ package jcsp.lang;
 
     class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt
 {
+	/** The input end of this channel */
+	private final AltingChannelInputInt inputEnd;
+
+	/** The output end of this channel */
+	private final ChannelOutputInt outputEnd;
+
 	/** The monitor synchronising reader and writer on this channel */
 	  private Object rwMonitor = new Object ();
 
@@ -62,6 +68,8 @@ package jcsp.lang;
 	  
 	  PoisonableOne2OneChannelIntImpl(int _immunity) {
 		  immunity = _immunity;
+		  inputEnd = new AltingChannelInputIntImpl(this,immunity);
+		  outputEnd = new ChannelOutputIntImpl(this,immunity);
 	  }
 	  
 	  /*************Methods from One2OneChannel******************************/
@@ -77,7 +85,7 @@ package jcsp.lang;
      */
     public AltingChannelInputInt in()
     {
-        return new AltingChannelInputIntImpl(this,immunity);
+        return inputEnd;
     }
 
     /**
@@ -91,7 +99,7 @@ package jcsp.lang;
      */
     public ChannelOutputInt out()
     {
-        return new ChannelOutputIntImpl(this,immunity);
+        return outputEnd;
     }
 
     /*************Methods from ChannelOutput*******************************/
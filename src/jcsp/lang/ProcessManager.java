@@ -165,35 +165,53 @@ public class ProcessManager implements CSProcess
     /** The CSProcess to be executed by this ProcessManager */
     private final CSProcess process;
 
-    /** The thread supporting the CSProcess being executed by this ProcessManager */
-    private Thread thread;
-
     /**
-     * @param proc the {@link CSProcess} to be executed by this ProcessManager
+     * The thread (from the pool shared with {@link Parallel}) supporting the CSProcess
+     * being executed by this ProcessManager - null until started
      */
-    public ProcessManager(CSProcess proc)
+    private ParThread thread = null;
+
+    /** The monitor for the start, termination and priority of the process */
+    private final Object sync = new Object();
+
+    /** Set when the process has terminated */
+    private boolean finished = false;
+
+    /** Runs the process and then releases any joins */
+    private final CSProcess runner = new CSProcess()
     {
-        this.process = proc;
-        thread = new Thread()
+        public void run()
         {
-            public void run()
+            try
             {
-                try
-                {
-                    Parallel.addToAllParThreads(this);
-                    process.run();
-                }
-                catch (Throwable e)
-                {
-                    Parallel.uncaughtException("jcsp.lang.ProcessManager", e);
-                }
-                finally
+                process.run();
+            }
+            finally
+            {
+                synchronized (sync)
                 {
-                    Parallel.removeFromAllParThreads(this);
+                    finished = true;
+                    sync.notifyAll();
                 }
             }
-        };
-        thread.setDaemon(true);
+        }
+
+        public String toString()
+        {
+            return process.toString();
+        }
+    };
+
+    /** The priority at which the process will be run */
+    private int priority;
+
+    /**
+     * @param proc the {@link CSProcess} to be executed by this ProcessManager
+     */
+    public ProcessManager(CSProcess proc)
+    {
+        this.process = proc;
+        this.priority = Thread.currentThread().getPriority();
     }
 
     //}}}
@@ -204,7 +222,12 @@ public class ProcessManager implements CSProcess
      */
     public void start()
     {
-        thread.start();
+        synchronized (sync)
+        {
+            if (thread != null)
+                throw new IllegalThreadStateException("ProcessManager already started");
+            thread = ParThreadPool.execute(runner, null, priority, "jcsp.lang.ProcessManager");
+        }
     }
 
     /**
@@ -221,7 +244,7 @@ public class ProcessManager implements CSProcess
      */
     public void start(int priority)
     {
-        thread.setPriority(priority);
+        setPriority(priority);
         start();
     }
 
@@ -243,7 +266,13 @@ public class ProcessManager implements CSProcess
      */
     public void interrupt()
     {
-        thread.interrupt();
+        final ParThread thread;
+        synchronized (sync)
+        {
+            thread = this.thread;
+        }
+        if (thread != null)
+            thread.interrupt(runner);
     }
 
     /**
@@ -251,13 +280,19 @@ public class ProcessManager implements CSProcess
      */
     public void join()
     {
-        try
+        synchronized (sync)
         {
-            thread.join();
-        }
-        catch (InterruptedException e)
-        {
-            throw new ProcessInterruptedException("Joining process " + process);
+            if (thread == null)
+                return;
+            try
+            {
+                while (!finished)
+                    sync.wait();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ProcessInterruptedException("Joining process " + process);
+            }
         }
     }
 
@@ -277,7 +312,7 @@ public class ProcessManager implements CSProcess
     public void run()
     {
         int oldPriority = Thread.currentThread().getPriority();
-        Thread.currentThread().setPriority(thread.getPriority());
+        Thread.currentThread().setPriority(getPriority());
         process.run();
         Thread.currentThread().setPriority(oldPriority);
     }
@@ -296,7 +331,12 @@ public class ProcessManager implements CSProcess
      */
     public void setPriority(int priority)
     {
-        thread.setPriority(priority);
+        synchronized (sync)
+        {
+            this.priority = priority;
+            if (thread != null)
+                thread.setPriority(priority, runner);
+        }
     }
 
     /**
@@ -310,6 +350,9 @@ public class ProcessManager implements CSProcess
      */
     public int getPriority()
     {
-        return thread.getPriority();
+        synchronized (sync)
+        {
+            return priority;
+        }
     }
 }
@@ -44,6 +44,7 @@ public class SharedAltingConnectionClient
     private ChannelInput synchIn;
     private ChannelOutput synchOut;
     private ConnectionWithSharedAltingClient parent;
+    private ConnectionExchange exchange = null;
 
     protected SharedAltingConnectionClient(AltingChannelInput fromServer,
                                            ChannelInput synchIn,
@@ -60,14 +61,32 @@ public class SharedAltingConnectionClient
         this.parent = parent;
     }
 
+    /**
+     * Constructs a new shared client over a direct exchange. Processes
+     * sharing the client queue on the exchange's client claim.
+     */
+    SharedAltingConnectionClient(ConnectionExchange exchange,
+                                 ConnectionWithSharedAltingClient parent)
+    {
+        super(exchange);
+        this.exchange = exchange;
+        this.parent = parent;
+    }
+
     protected final void claim()
     {
-        synchOut.write(null);
+        if (exchange != null)
+            exchange.claimClient();
+        else
+            synchOut.write(null);
     }
 
     protected final void release()
     {
-        synchIn.read();
+        if (exchange != null)
+            exchange.releaseClient();
+        else
+            synchIn.read();
     }
 
     /**
@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class SharedChannelInputImpl implements SharedChannelInput {
+    final class SharedChannelInputImpl implements SharedChannelInput {
 
-	private ChannelInternals channel;
-	private int immunity;
+	private final ChannelInternals channel;
+	private final int immunity;
 	
 	SharedChannelInputImpl(ChannelInternals _channel, int _immunity) {
 		channel = _channel;
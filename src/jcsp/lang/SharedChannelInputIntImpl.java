@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class SharedChannelInputIntImpl implements SharedChannelInputInt {
+    final class SharedChannelInputIntImpl implements SharedChannelInputInt {
 
-	private ChannelInternalsInt channel;
-	private int immunity;
+	private final ChannelInternalsInt channel;
+	private final int immunity;
 	
 	SharedChannelInputIntImpl(ChannelInternalsInt _channel, int _immunity) {
 		channel = _channel;
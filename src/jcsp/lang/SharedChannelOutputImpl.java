@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class SharedChannelOutputImpl implements SharedChannelOutput {
+    final class SharedChannelOutputImpl implements SharedChannelOutput {
 	
-	private ChannelInternals channel;
-	private int immunity;
+	private final ChannelInternals channel;
+	private final int immunity;
 	
 	SharedChannelOutputImpl(ChannelInternals _channel, int _immunity) {
 		channel = _channel;
@@ -20,10 +20,10 @@
 
 package jcsp.lang;
 
-    class SharedChannelOutputIntImpl implements SharedChannelOutputInt {
+    final class SharedChannelOutputIntImpl implements SharedChannelOutputInt {
 	
-	private ChannelInternalsInt channel;
-	private int immunity;
+	private final ChannelInternalsInt channel;
+	private final int immunity;
 	
 	SharedChannelOutputIntImpl(ChannelInternalsInt _channel, int _immunity) {
 		channel = _channel;
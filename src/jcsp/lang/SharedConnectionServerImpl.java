@@ -33,6 +33,7 @@ public class SharedConnectionServerImpl implements SharedConnectionServer
     private ChannelInput synchIn;
     private ChannelOutput synchOut;
     private ConnectionWithSharedAltingServer parent;
+    private ConnectionExchange exchange = null;
 
     protected SharedConnectionServerImpl(AltingChannelInput openIn,
                                          AltingChannelInput requestIn,
@@ -46,10 +47,27 @@ public class SharedConnectionServerImpl implements SharedConnectionServer
         this.parent = parent;
     }
 
+    /**
+     * Constructs a new shared server over a direct exchange. Processes
+     * sharing the server queue on the exchange's server claim.
+     */
+    SharedConnectionServerImpl(ConnectionExchange exchange,
+                               ConnectionWithSharedAltingServer parent)
+    {
+        connectionServerToUse = new AltingConnectionServerImpl(exchange);
+        this.exchange = exchange;
+        this.parent = parent;
+    }
+
     public Object request()
     {
         if (connectionServerToUse.getServerState() == AltingConnectionServerImpl.SERVER_STATE_CLOSED)
-            synchOut.write(null);
+        {
+            if (exchange != null)
+                exchange.claimServer();
+            else
+                synchOut.write(null);
+        }
         return connectionServerToUse.request();
     }
 
@@ -62,7 +80,12 @@ public class SharedConnectionServerImpl implements SharedConnectionServer
     {
         connectionServerToUse.reply(data, close);
         if (connectionServerToUse.getServerState() == AltingConnectionServerImpl.SERVER_STATE_CLOSED)
-            synchIn.read();
+        {
+            if (exchange != null)
+                exchange.releaseServer();
+            else
+                synchIn.read();
+        }
     }
 
     public void replyAndClose(Object data)
@@ -0,0 +1,230 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.lang;
+
+    /**
+ * This defines how a process waits at a blocking point of a channel,
+ * barrier or alternation.
+ *
+ * <H2>Description</H2>
+ * By default, a process that must wait for another (a reader for its writer,
+ * a barrier process for the last to sync, an <TT>ALT</TT>ing process for one
+ * of its guards) gives up its processor with <TT>Object.wait</TT> and is woken
+ * by <TT>Object.notify</TT>.  That costs a few microseconds at each hand-off,
+ * but uses no processor while waiting.
+ * <P>
+ * A <TT>WaitStrategy</TT> may instead have the process watch for its release
+ * before (or instead of) blocking:
+ * <UL>
+ *   <LI>{@link #BLOCKING}: wait at once (the default);
+ *   <LI>{@link #spinThenBlock spinThenBlock}: busy-spin, then yield, for a
+ *       bounded number of checks before waiting ({@link #HYBRID} is a
+ *       reasonable setting);
+ *   <LI>{@link #YIELDING}: yield the processor between checks, never blocking;
+ *   <LI>{@link #BUSY_SPIN}: check continuously, never blocking.
+ * </UL>
+ * The non-blocking strategies trade processor time for hand-off latency and
+ * only make sense when there are more processors than runnable processes
+ * &ndash; for example, a latency-critical pipeline pinned to dedicated cores.
+ * <P>
+ * The strategy used by {@link One2OneChannel}s (and so by the unbuffered
+ * {@link Any2OneChannel}s and {@link One2AnyChannel}s built on them),
+ * {@link Barrier}s and {@link Alternative}s can be set
+ * globally by {@link #setDefault setDefault}, or for one object (see, for
+ * example, {@link Channel#one2one(WaitStrategy)}, {@link Barrier#setWaitStrategy}
+ * and {@link Alternative#setWaitStrategy}).  The unbuffered {@link Any2AnyChannel}s
+ * and {@link Any2AnyChannelInt}s (which pair their readers and writers on a stack
+ * of waiting processes, rather than through a <TT>One2OneChannel</TT>), the buffered channels,
+ * {@link Bucket}s and other primitives always block.
+ * <P>
+ * Whatever the strategy, waiting processes are still woken in the usual way,
+ * so a process that stops spinning and blocks is never missed.  A spinning
+ * process gives up spinning (and so blocks, and is interrupted) if its thread
+ * is interrupted.  An <TT>ALT</TT> with a timeout guard always blocks.
+ * <P>
+ * New strategies may be defined by extending this class.
+ *
+ * @see One2OneChannel
+ * @see Barrier
+ * @see Alternative
+ */
+
+public abstract class WaitStrategy
+{
+    /**
+     * A state that a waiting process watches for.  It is read without
+     * holding any lock, so the state it reads must be <TT>volatile</TT>.
+     */
+    public interface Condition
+    {
+        /**
+         * @return true if and only if the waiting process has been released.
+         */
+        public boolean isReady();
+    }
+
+    /**
+     * Waits, without holding any lock, for the condition to become ready.
+     *
+     * @param condition the state to be watched.
+     * @return true if the condition became ready; false if the caller should now
+     *          block (on the relevant monitor) until it does.
+     */
+    public abstract boolean await(Condition condition);
+
+    /**
+     * Block at once.
+     */
+    public static final WaitStrategy BLOCKING = new WaitStrategy()
+    {
+        public boolean await(Condition condition)
+        {
+            return false;
+        }
+
+        public String toString()
+        {
+            return "BLOCKING";
+        }
+    };
+
+    /**
+     * Yield the processor between checks, never blocking.
+     */
+    public static final WaitStrategy YIELDING = new WaitStrategy()
+    {
+        public boolean await(Condition condition)
+        {
+            final Thread thread = Thread.currentThread();
+            while (!condition.isReady())
+            {
+                if (thread.isInterrupted())
+                    return false;
+                Thread.yield();
+            }
+            return true;
+        }
+
+        public String toString()
+        {
+            return "YIELDING";
+        }
+    };
+
+    /**
+     * Check continuously, never blocking.
+     */
+    public static final WaitStrategy BUSY_SPIN = new WaitStrategy()
+    {
+        public boolean await(Condition condition)
+        {
+            final Thread thread = Thread.currentThread();
+            int n = 0;
+            while (!condition.isReady())
+            {
+                if ((++n & 0x3FF) == 0 && thread.isInterrupted())
+                    return false;
+                Thread.onSpinWait();
+            }
+            return true;
+        }
+
+        public String toString()
+        {
+            return "BUSY_SPIN";
+        }
+    };
+
+    /**
+     * Spin for up to 1000 checks, then yield for up to 100, then block.
+     */
+    public static final WaitStrategy HYBRID = spinThenBlock(1000, 100);
+
+    /**
+     * Returns a strategy that busy-spins for up to <TT>spins</TT> checks,
+     * then yields the processor for up to <TT>yields</TT> checks, then blocks.
+     *
+     * @param spins the number of busy checks (may be zero).
+     * @param yields the number of checks with a yield between them (may be zero).
+     * @return the strategy.
+     */
+    public static WaitStrategy spinThenBlock(final int spins, final int yields)
+    {
+        if ((spins < 0) || (yields < 0))
+            throw new IllegalArgumentException("*** WaitStrategy: negative spin or yield count");
+        return new WaitStrategy()
+        {
+            public boolean await(Condition condition)
+            {
+                for (int i = 0; i < spins; i++)
+                {
+                    if (condition.isReady())
+                        return true;
+                    Thread.onSpinWait();
+                }
+                for (int i = 0; i < yields; i++)
+                {
+                    if (condition.isReady())
+                        return true;
+                    Thread.yield();
+                }
+                return condition.isReady();
+            }
+
+            public String toString()
+            {
+                return "spinThenBlock(" + spins + ", " + yields + ")";
+            }
+        };
+    }
+
+    /** The strategy used by objects not given one of their own */
+    private static volatile WaitStrategy defaultStrategy = BLOCKING;
+
+    /**
+     * Sets the strategy used by all channels, barriers and alternations that
+     * have not been given one of their own.  It applies from their next wait.
+     *
+     * @param strategy the default strategy.
+     */
+    public static void setDefault(WaitStrategy strategy)
+    {
+        if (strategy == null)
+            throw new IllegalArgumentException("*** WaitStrategy: null default");
+        defaultStrategy = strategy;
+    }
+
+    /**
+     * @return the strategy used by objects not given one of their own.
+     */
+    public static WaitStrategy getDefault()
+    {
+        return defaultStrategy;
+    }
+
+    /**
+     * Returns the given strategy, or the default if it is null.
+     */
+    static WaitStrategy resolve(WaitStrategy strategy)
+    {
+        return (strategy == null) ? defaultStrategy : strategy;
+    }
+}
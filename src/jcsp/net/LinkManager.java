@@ -28,6 +28,13 @@ import java.util.*;
  * This class manages the list of open links.  It ensures that there is
  * only ever one link between two given JCSP servers.  <p>
  *
+ * Requests for links are serviced by the <code>LinkManager</code> process.
+ * However, links that have been established and have no specified
+ * facilities are also published in a table that can be read directly, so
+ * that looking up an existing link does not involve the manager process.
+ * Links to many Nodes can be established concurrently in advance using
+ * <code>prewarm</code>. <p>
+ *
  * @deprecated please use package net2 instead
  * @author Quickstone Technologies Limited.
  */
@@ -58,6 +65,14 @@ class LinkManager implements CSProcess
     */
    private Hashtable linkHolders = new Hashtable();
    
+   /**
+    * The established links with no specified facilities.  This is a
+    * hashtable where the key is a NodeID and the value is a Link.  It is
+    * only updated by the manager process (and by a Link reporting that it
+    * has been lost), but may be read directly by any process.
+    */
+   private final Hashtable defaultLinks = new Hashtable();
+   
    /**
     * This maps Link objects to a channel that is used to receive notification
     * that the link has been established.  This is necessary for when
@@ -165,6 +180,7 @@ class LinkManager implements CSProcess
                   Link linkLost = (Link) lostLinkChan.in().read();
                   LinksToNodeHolder lostLH = (LinksToNodeHolder)linkHolders.get(linkLost.getRemoteNodeID());
                   lostLH.removeLink(linkLost);
+                  publishDefaultLink(lostLH);
                   //send the NodeID of the link that has been lost to the
                   //event channel
                   sendEvent.out().write(linkLost.getRemoteNodeID());
@@ -227,7 +243,10 @@ class LinkManager implements CSProcess
                   if (!success) 
                      registerServer.replyAndClose(Boolean.FALSE);
                   if (success)
+                  {
+                     publishDefaultLink((LinksToNodeHolder) linkHolders.get(id));
                      Node.info.log(this, "Link established to " + id);
+                  }
                   break;
                }
                case ALT_REQ_LINK:
@@ -294,6 +313,24 @@ class LinkManager implements CSProcess
       }
    }
    
+   /**
+    * Updates the table of directly readable links from a link holder.
+    * Only called by the manager process.
+    *
+    * @param lh the holder of the links to a Node.
+    */
+   private void publishDefaultLink(LinksToNodeHolder lh)
+   {
+      Link link = lh.getLink(null);
+      synchronized (defaultLinks)
+      {
+         if (link != null)
+            defaultLinks.put(lh.getTarget(), link);
+         else
+            defaultLinks.remove(lh.getTarget());
+      }
+   }
+   
    /**
     * Starts this instance of the <CODE>LinkManager</CODE> and returns.
     */
@@ -393,6 +430,13 @@ class LinkManager implements CSProcess
       if(Node.getInstance().isThisNode(target))
          //attempt to get a link to the local Node - return the LoopbackLink
          return loopbackLink;
+      if(linkProfile == null)
+      {
+         //an established link needs no involvement of the manager process
+         Link link = (Link) defaultLinks.get(target);
+         if(link != null)
+            return link;
+      }
       One2OneChannel channel = Channel.one2one(new InfiniteBuffer());
      
       requestLink.out().write(new LinkRequest(channel.out(), target, linkProfile));
@@ -415,6 +459,12 @@ class LinkManager implements CSProcess
     */
    int lostLink(Link conn)
    {
+      //stop handing out the link straight away
+      synchronized (defaultLinks)
+      {
+         if (defaultLinks.get(conn.getRemoteNodeID()) == conn)
+            defaultLinks.remove(conn.getRemoteNodeID());
+      }
       lostLinkChan.out().write(conn);
       return IndexManager.getInstance().broadcastLinkLost(new LinkLost(conn));
    }
@@ -431,12 +481,104 @@ class LinkManager implements CSProcess
    boolean linkExists(NodeID otherNode)
    {
       Node.getInstance().checkInitialized();
+      if (defaultLinks.containsKey(otherNode))
+         return true;
       
       One2OneChannel channel = Channel.one2one(new InfiniteBuffer());
       checkForLink.out().write(new LinkCheck(channel.out(), otherNode));
       return (channel.in().read() != null);
    }
    
+   /**
+    * Establishes links to a number of Nodes concurrently.  At most
+    * <code>parallelism</code> links are being established at any one time.
+    * Returns when every attempt has succeeded or failed.
+    *
+    * @param targets the Nodes to establish links to.
+    * @param parallelism the maximum number of links to establish at once.
+    * @return the number of links that are now established.
+    */
+   int prewarm(NodeID[] targets, int parallelism)
+   {
+      return prewarm((Object[]) targets, parallelism);
+   }
+   
+   /**
+    * Establishes links to a number of Nodes, given by address, concurrently.
+    * At most <code>parallelism</code> links are being established at any
+    * one time.  Returns when every attempt has succeeded or failed.
+    *
+    * @param targets the addresses of the Nodes to establish links to.
+    * @param parallelism the maximum number of links to establish at once.
+    * @return the number of links that are now established.
+    */
+   int prewarm(NodeAddressID[] targets, int parallelism)
+   {
+      return prewarm((Object[]) targets, parallelism);
+   }
+   
+   /**
+    * A farm of <code>parallelism</code> workers take targets (NodeIDs or
+    * NodeAddressIDs) from a shared channel and establish a link to each.
+    */
+   private int prewarm(final Object[] targets, int parallelism)
+   {
+      Node.getInstance().checkInitialized();
+      if (parallelism < 1)
+         throw new IllegalArgumentException("parallelism must be at least 1");
+      final int workers = Math.min(parallelism, targets.length);
+      if (workers == 0)
+         return 0;
+      final One2AnyChannel work = Channel.one2any();
+      final int[] established = new int[workers];
+      CSProcess[] procs = new CSProcess[workers + 1];
+      procs[0] = new CSProcess()
+      {
+         public void run()
+         {
+            for (int i = 0; i < targets.length; i++)
+               work.out().write(targets[i]);
+            for (int i = 0; i < workers; i++)
+               work.out().write(null);
+         }
+      };
+      for (int i = 0; i < workers; i++)
+      {
+         final int index = i;
+         procs[i + 1] = new CSProcess()
+         {
+            public void run()
+            {
+               Object target = work.in().read();
+               while (target != null)
+               {
+                  try
+                  {
+                     if (target instanceof NodeID)
+                        getLink((NodeID) target, null);
+                     else if (getTxChannel((NodeAddressID) target) == null)
+                        target = null;
+                     if (target != null)
+                        established[index]++;
+                  }
+                  catch (RuntimeException e)
+                  {
+                     Node.info.log(this, "Unable to prewarm link to " + target + ": " + e);
+                  }
+                  target = work.in().read();
+               }
+            }
+         };
+      }
+      Parallel par = new Parallel(procs);
+      par.run();
+      par.releaseAllThreads();
+      int count = 0;
+      for (int i = 0; i < workers; i++)
+         count += established[i];
+      return count;
+   }
+   
    AltingChannelInput getLinkLostEventChannel()
    {
       Node.getInstance().checkInitialized();
@@ -615,6 +757,19 @@ class LinkManager implements CSProcess
       public void removeLink(Link conn)
       {
          links.remove(conn);
+         if (linkWithNoSpecifiedFacilities == conn)
+         {
+            //promote another suitable link, if there is one
+            linkWithNoSpecifiedFacilities = null;
+            Iterator it = links.iterator();
+            while (it.hasNext() && linkWithNoSpecifiedFacilities == null)
+            {
+               Link l = (Link) it.next();
+               Specification[] specs = l.getSpecifications();
+               if (specs == null || specs.length == 0 || l.getProtocolID().getPosition() == 0)
+                  linkWithNoSpecifiedFacilities = l;
+            }
+         }
       }
       
       /**
@@ -38,6 +38,12 @@ import jcsp.lang.ChannelOutput;
 // package-private
 abstract class Message implements Serializable
 {
+   /**
+    * The value computed for this class before <code>createBounce</code> was added, so that older nodes can still
+    * read the messages of newer ones.
+    */
+   private static final long serialVersionUID = 982430742887266449L;
+   
    public Message()
    {
    }
@@ -89,6 +95,23 @@ abstract class Message implements Serializable
    // package-private
    transient ChannelOutput txReplyChannel;
    
+   /**
+    * Creates a bounce message with the given header fields.
+    *
+    * @param destIndex the destination channel index.
+    * @param sourceIndex the source channel index.
+    * @param destVCNLabel the destination label or <code>null</code>.
+    * @return the new message.
+    */
+   static BounceMessage createBounce(long destIndex, long sourceIndex, String destVCNLabel)
+   {
+      BounceMessage msg = new BounceMessage();
+      msg.destIndex = destIndex;
+      msg.sourceIndex = sourceIndex;
+      msg.destVCNLabel = destVCNLabel;
+      return msg;
+   }
+   
    public static class BounceMessage extends Message
    {
       private BounceMessage()
@@ -0,0 +1,237 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net;
+
+import java.io.*;
+
+/**
+ * <p>For use by the infrastructure only.</p>
+ *
+ * <p>Encodes messages sent between nodes in a framed binary form. The header fields of a message and
+ * the control messages (acknowledgements, rejections, bounces and pings) are written as primitive values,
+ * and Java serialization is only used for the user data carried by a channel message and for any message
+ * type that has no framed form. This avoids paying for full serialization of every small message.</p>
+ *
+ * <p>The framed form is negotiated so that nodes still interoperate with older nodes. Once a link is up
+ * each side sends an <i>offer</i> in the ordinary serialized form. This is a ping message carrying a label,
+ * which older nodes answer, without complaint, as an ordinary ping. A node receiving an offer answers it in the
+ * same way, so every offer draws exactly one ping reply, which its sender drops. The receiver of an offer
+ * also knows its peer can read framed messages, so it sends a <i>switch</i> marker and writes every
+ * subsequent message framed. The peer reads framed messages from the point at which it receives the switch
+ * marker. Each direction of a link switches independently.</p>
+ *
+ * <p>The framed form is written to the same object streams as the serialized form, so the two may be
+ * freely mixed on the stream.</p>
+ *
+ * @deprecated please use package net2 instead
+ */
+public final class MessageFraming
+{
+   /** Label carried by the offer marker. */
+   private static final String OFFER = "jcsp.net.framing/1.offer";
+   
+   /** Label carried by the switch marker. */
+   private static final String SWITCH = "jcsp.net.framing/1.switch";
+   
+   /** A message with no framed form follows as a serialized object. */
+   private static final int OBJECT = 0;
+   
+   /** A channel data message. The user data follows as a serialized object. */
+   private static final int DATA = 1;
+   
+   /** A channel acknowledgement. */
+   private static final int ACK = 2;
+   
+   /** A channel write rejection. */
+   private static final int WRITE_REJECTED = 3;
+   
+   /** A bounced message. */
+   private static final int BOUNCE = 4;
+   
+   /** A link ping. */
+   private static final int PING = 5;
+   
+   /** A link ping reply. */
+   private static final int PING_REPLY = 6;
+   
+   /** Static methods only. */
+   private MessageFraming()
+   {
+   }
+   
+   /**
+    * Creates the offer marker to be sent in serialized form when a link starts. The peer, old or new, answers
+    * it with a ping reply.
+    *
+    * @return the offer marker.
+    */
+   public static Object createOffer()
+   {
+      Message offer = new Message.PingMessage();
+      offer.destVCNLabel = OFFER;
+      return offer;
+   }
+   
+   /**
+    * Creates the switch marker to be sent in serialized form immediately before the first framed message.
+    *
+    * @return the switch marker.
+    */
+   public static Object createSwitch()
+   {
+      return Message.createBounce(IndexManager.getInvalidVCN(), -1, SWITCH);
+   }
+   
+   /**
+    * Tests whether a received object is an offer marker.
+    *
+    * @param obj the object received.
+    * @return <code>true</code> if the peer is offering to read framed messages.
+    */
+   public static boolean isOffer(Object obj)
+   {
+      return isMarker(obj, OFFER);
+   }
+   
+   /**
+    * Tests whether a received object is a switch marker.
+    *
+    * @param obj the object received.
+    * @return <code>true</code> if the peer's subsequent messages are framed.
+    */
+   public static boolean isSwitch(Object obj)
+   {
+      return isMarker(obj, SWITCH);
+   }
+   
+   /**
+    * Tests whether a received object is a ping reply. The first one received after sending an offer is the
+    * peer's answer to the offer, and should be dropped.
+    *
+    * @param obj the object received.
+    * @return <code>true</code> if the object is a ping reply.
+    */
+   public static boolean isOfferReply(Object obj)
+   {
+      return obj instanceof Message.PingReplyMessage;
+   }
+   
+   private static boolean isMarker(Object obj, String label)
+   {
+      return (obj instanceof Message) && label.equals(((Message)obj).destVCNLabel);
+   }
+   
+   /**
+    * Writes a message in framed form. The stream is reset if any object had to be serialized, in the same way
+    * as after each serialized message. The stream is not flushed.
+    *
+    * @param out the stream to write to.
+    * @param obj the message.
+    * @throws IOException if the stream cannot be written.
+    */
+   public static void writeFramed(ObjectOutputStream out, Object obj) throws IOException
+   {
+      int type = OBJECT;
+      if (obj instanceof ChannelMessage.Data)
+         type = DATA;
+      else if (obj instanceof Message && ((Message)obj).destVCNLabel == null)
+      {
+         if (obj instanceof ChannelMessage.Ack)
+            type = ACK;
+         else if (obj instanceof ChannelMessage.WriteRejected)
+            type = WRITE_REJECTED;
+         else if (obj instanceof Message.BounceMessage)
+            type = BOUNCE;
+         else if (obj instanceof Message.PingMessage)
+            type = PING;
+         else if (obj instanceof Message.PingReplyMessage)
+            type = PING_REPLY;
+      }
+      out.writeByte(type);
+      if (type == OBJECT)
+      {
+         out.writeObject(obj);
+         out.reset();
+         return;
+      }
+      Message msg = (Message)obj;
+      out.writeLong(msg.destIndex);
+      out.writeLong(msg.sourceIndex);
+      if (type == DATA)
+      {
+         ChannelMessage.Data data = (ChannelMessage.Data)msg;
+         out.writeBoolean(data.acknowledged);
+         out.writeBoolean(msg.destVCNLabel != null);
+         if (msg.destVCNLabel != null)
+            out.writeUTF(msg.destVCNLabel);
+         out.writeObject(data.data);
+         out.reset();
+      }
+   }
+   
+   /**
+    * Reads a message written by <code>writeFramed</code>.
+    *
+    * @param in the stream to read from.
+    * @return the message.
+    * @throws IOException if the stream cannot be read or is corrupt.
+    * @throws ClassNotFoundException if the class of serialized data is not available.
+    */
+   public static Object readFramed(ObjectInputStream in) throws IOException, ClassNotFoundException
+   {
+      int type = in.readByte();
+      if (type == OBJECT)
+         return in.readObject();
+      long destIndex = in.readLong();
+      long sourceIndex = in.readLong();
+      Message msg;
+      switch (type)
+      {
+         case DATA :
+            ChannelMessage.Data data = new ChannelMessage.Data();
+            data.acknowledged = in.readBoolean();
+            if (in.readBoolean())
+               data.destVCNLabel = in.readUTF();
+            data.data = in.readObject();
+            msg = data;
+            break;
+         case ACK :
+            msg = new ChannelMessage.Ack();
+            break;
+         case WRITE_REJECTED :
+            msg = new ChannelMessage.WriteRejected();
+            break;
+         case BOUNCE :
+            msg = Message.createBounce(destIndex, sourceIndex, null);
+            break;
+         case PING :
+            msg = new Message.PingMessage();
+            break;
+         case PING_REPLY :
+            msg = new Message.PingReplyMessage();
+            break;
+         default :
+            throw new StreamCorruptedException("Unknown framed message type " + type);
+      }
+      msg.destIndex = destIndex;
+      msg.sourceIndex = sourceIndex;
+      return msg;
+   }
+}
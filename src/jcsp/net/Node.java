@@ -561,6 +561,41 @@ public class Node
       return LinkManager.getInstance().linkExists(otherNode);
    }
    
+   /**
+    * <p>
+    * Establishes links to a number of remote Nodes concurrently, so that
+    * they are ready before the application needs them. At most
+    * <code>parallelism</code> links are being established at any one time.
+    * This method returns when every link has either been established or
+    * has failed.
+    * </p>
+    *
+    * @param  targets      the <code>NodeID</code>s of the remote Nodes.
+    * @param  parallelism  the maximum number of links to establish at once.
+    * @return the number of links that were established.
+    */
+   public int prewarmLinks(NodeID[] targets, int parallelism)
+   {
+      return LinkManager.getInstance().prewarm(targets, parallelism);
+   }
+   
+   /**
+    * <p>
+    * Establishes links to a number of remote Nodes, given by address,
+    * concurrently. At most <code>parallelism</code> links are being
+    * established at any one time. This method returns when every link has
+    * either been established or has failed.
+    * </p>
+    *
+    * @param  targets      the addresses of the remote Nodes.
+    * @param  parallelism  the maximum number of links to establish at once.
+    * @return the number of links that were established.
+    */
+   public int prewarmLinks(NodeAddressID[] targets, int parallelism)
+   {
+      return LinkManager.getInstance().prewarm(targets, parallelism);
+   }
+   
    /**
     * <p>
     * This method allows users to obtain notification of link failure.
@@ -21,6 +21,7 @@
 package jcsp.net.remote;
 
 import java.io.*;
+import java.util.*;
 import jcsp.lang.*;
 import jcsp.net.*;
 
@@ -38,11 +39,29 @@ import jcsp.net.*;
  *
  * <p>If the process raises an exception, this will be forwarded to the caller if possible.</p>
  *
+ * <p>If the first argument is <code>-worker</code> the JVM is a pooled worker for a <code>SpawnerService</code>.
+ * The temporary file then gives the location of a channel back to the service. The node is initialized once
+ * with the default factory and processes are then received over a channel and run one after another until
+ * the service sends <code>null</code>. After each process the worker reports whether that process left any
+ * threads running; if it did, the service retires the worker rather than run another process on it.</p>
+ *
  * @deprecated please use package net2 instead
  * @author Quickstone Technologies Limited
  */
 public class ChildProcess
 {
+   /** The command line flag that starts a pooled worker. */
+   static final String WORKER = "-worker";
+   
+   /**
+    * The line a pooled worker writes to its standard output and error streams after each process, so that the
+    * service knows when all of the process's output has been forwarded.
+    */
+   static final String END_OF_JOB = "\u0000jcsp-pooled-worker-end-of-job\u0000";
+   
+   /** The time, in milliseconds, a pooled worker allows threads left by a process to finish. */
+   private static final long LEFTOVER_GRACE = 500;
+   
    /**
     * Program entry point. An argument will give the name of a temporary file that contains serialized
     * representations of the process and other information required to locate the originating host.
@@ -51,6 +70,11 @@ public class ChildProcess
     */
    public static void main(String[] args)
    {
+      if (args.length == 2 && WORKER.equals(args[0]))
+      {
+         runWorker(args[1]);
+         return;
+      }
       Throwable eToThrow = null;
       NetChannelLocation ncl = null;
       try
@@ -104,4 +128,107 @@ public class ChildProcess
          System.exit(1);
       }
    }
-}
\ No newline at end of file
+   
+   /**
+    * Tests whether a process has left threads running, allowing them a short time to finish. Any such thread
+    * (a <code>ProcessManager</code>, a daemon, or one the infrastructure started for the process) could go on to
+    * write output or change state during the next process, so the worker is not reused. Idle threads of the
+    * pool used by <code>Parallel</code> are not counted.
+    *
+    * @param before the threads that were alive before the process was run.
+    * @return <code>true</code> if a thread started while the process ran is still running.
+    */
+   private static boolean threadsLeftOver(Set before)
+   {
+      long deadline = System.currentTimeMillis() + LEFTOVER_GRACE;
+      while (true)
+      {
+         boolean found = false;
+         Iterator it = Thread.getAllStackTraces().keySet().iterator();
+         while (it.hasNext() && !found)
+         {
+            Thread t = (Thread)it.next();
+            found = t.isAlive() && !before.contains(t) && !Parallel.isIdlePooledThread(t);
+         }
+         if (!found)
+            return false;
+         if (System.currentTimeMillis() >= deadline)
+            return true;
+         try
+         {
+            Thread.sleep(10);
+         }
+         catch (InterruptedException e)
+         {
+            return true;
+         }
+      }
+   }
+   
+   /**
+    * Runs a pooled worker. The location of the service's channel is read from the given file, and the
+    * worker's own channel location is sent along it. Each process received is run, with the exception it
+    * raised (or <code>null</code>) being sent back to the service, followed by whether the worker may be reused.
+    *
+    * @param file the name of the temporary file giving the service's channel location.
+    */
+   private static void runWorker(String file)
+   {
+      try
+      {
+         NetChannelLocation ncl = null;
+         File f = new File(file);
+         try
+         {
+            ObjectInputStream os = new ObjectInputStream(new FileInputStream(f));
+            ncl = (NetChannelLocation)os.readObject();
+            os.close();
+         }
+         finally
+         {
+            f.delete();
+         }
+         
+         Node.getInstance().init();
+         NetChannelInput in = NetChannelEnd.createNet2One();
+         NetChannelOutput out = NetChannelEnd.createOne2Net(ncl);
+         out.write(in.getChannelLocation());
+         
+         byte[] job = (byte[])in.read();
+         while (job != null)
+         {
+            Throwable eToThrow = null;
+            Set before = new HashSet(Thread.getAllStackTraces().keySet());
+            try
+            {
+               ObjectInputStream os = new ObjectInputStream(new ByteArrayInputStream(job));
+               CSProcess p = (CSProcess)os.readObject();
+               RemoteProcess.applicationID = (ApplicationID)os.readObject();
+               os.close();
+               p.run();
+            }
+            catch (Throwable e)
+            {
+               eToThrow = e;
+            }
+            boolean reusable = !threadsLeftOver(before);
+            System.out.flush();
+            System.err.flush();
+            System.out.println(END_OF_JOB);
+            System.out.flush();
+            System.err.println(END_OF_JOB);
+            System.err.flush();
+            out.write(eToThrow);
+            out.write(Boolean.valueOf(reusable));
+            job = (byte[])in.read();
+         }
+         System.exit(0);
+      }
+      catch (Throwable e)
+      {
+         System.err.println("Pooled worker failed");
+         e.printStackTrace();
+         System.exit(1);
+      }
+   }
+}
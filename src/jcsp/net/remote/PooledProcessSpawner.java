@@ -0,0 +1,130 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net.remote;
+
+import java.io.*;
+import jcsp.lang.*;
+import jcsp.net.*;
+
+/**
+ * Runs a process received by a spawner on a pre-started worker JVM from a <code>WorkerPool</code>. The
+ * process is serialized and sent to the worker over a channel. Output from the worker is routed to the
+ * requesting host while the process runs, and the outcome is reported in the same way as by
+ * <code>ProcessSpawner</code>.
+ *
+ * @deprecated please use package net2 instead
+ */
+class PooledProcessSpawner implements CSProcess
+{
+   /** The pool the worker was claimed from. */
+   private final WorkerPool pool;
+   /** The worker to run the process on. */
+   private final WorkerPool.Worker worker;
+   /** The process that needs to be started. */
+   private final CSProcess process;
+   /** For sending data back to the calling JVM who is running the <code>RemoteProcess</code> proxy. */
+   private final NetChannelOutput caller;
+   /** The application identifier of the caller that the worker should adopt. */
+   private final ApplicationID applicationID;
+   
+   /**
+    * Constructs a new spawner.
+    *
+    * @param pool the pool the worker was claimed from.
+    * @param worker the worker to run the process on.
+    * @param process the process that should be run.
+    * @param caller for sending data back to the caller.
+    * @param applicationID caller's application ID that the worker should adopt.
+    */
+   public PooledProcessSpawner(WorkerPool pool, WorkerPool.Worker worker, CSProcess process, 
+                               NetChannelOutput caller, ApplicationID applicationID)
+   {
+      this.pool = pool;
+      this.worker = worker;
+      this.process = process;
+      this.caller = caller;
+      this.applicationID = applicationID;
+   }
+   
+   /**
+    * Main process loop.
+    */
+   public void run()
+   {
+      Throwable eToThrow = null;
+      boolean healthy = true;
+      boolean reusable = false;
+      try
+      {
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         ObjectOutputStream os = new ObjectOutputStream(bytes);
+         os.writeObject(process);
+         os.writeObject(applicationID);
+         os.close();
+         
+         worker.setCaller(caller);
+         worker.toWorker.write(bytes.toByteArray());
+         
+         // Wait for the outcome to be sent from the worker, or the worker to die
+         CSTimer tim = new CSTimer();
+         Alternative alt = new Alternative(new Guard[] { worker.fromWorker, tim });
+         while (true)
+         {
+            tim.setAlarm(tim.read() + 2000);
+            if (alt.priSelect() == 0)
+            {
+               eToThrow = (Throwable)worker.fromWorker.read();
+               reusable = ((Boolean)worker.fromWorker.read()).booleanValue();
+               break;
+            }
+            else if (!worker.isAlive())
+            {
+               healthy = false;
+               eToThrow = new RemoteProcessFailedException(worker.child.exitValue(), process);
+               break;
+            }
+         }
+      }
+      catch (Exception e)
+      {
+         healthy = false;
+         eToThrow = e;
+      }
+      // Make sure the caller has all of the process's output before it is told the outcome
+      if (healthy)
+         worker.awaitEndOfJob();
+      worker.setCaller(null);
+      pool.release(worker, healthy && reusable);
+      try
+      {
+         if (eToThrow != null)
+         {
+            caller.write(new Integer(ProcessSpawner.MSG_FAIL));
+            caller.write(eToThrow);
+         }
+         else
+            caller.write(new Integer(ProcessSpawner.MSG_OK));
+      }
+      finally
+      {
+         caller.destroyWriter();
+      }
+   }
+}
@@ -35,25 +35,56 @@ import jcsp.util.filter.*;
  * initialize the local node. Alternatively it can be started programmatically and the caller must
  * take responsibility for initializing the node.</p>
  *
+ * <p>A pool of pre-started worker JVMs may be kept by giving a pool size. Requests that use the default
+ * node initialization and class path are then run on a warm worker, avoiding the cost of starting and
+ * initializing a JVM for each process. From the command line the pool size may be given as the second
+ * parameter, and the number of processes each worker may run before it is replaced as the third (by
+ * default <code>DEFAULT_MAX_JOBS</code>; zero gives no limit).</p>
+ *
+ * <p>A worker runs its processes one after another in the same JVM, so they are not isolated from each
+ * other as they would be in fresh JVMs. Static state &ndash; CNS registrations, the local
+ * <code>Node</code>, singletons in user classes &ndash; carries over from one process to the next. A worker
+ * is replaced if a process leaves threads running, so their output cannot reach the next caller, but
+ * processes that rely on a clean JVM should not be sent to a pooled service.</p>
+ *
  * @deprecated please use package net2 instead
  * @author Quickstone Technologies Limited
  */
 public class SpawnerService implements CSProcess
 {
+   /** The number of processes a pooled worker runs before it is replaced, when started from the command line. */
+   public static final int DEFAULT_MAX_JOBS = 10;
+   
    /** The node key. */
    private final NodeKey nodeKey;
    
    /** Termination channel. */
    private final One2OneChannel terminate = Channel.one2one();
    
+   /** The pool of warm worker JVMs or <code>null</code> if every process gets a new JVM. */
+   private final WorkerPool pool;
+   
    /**
     * Constructs a new service.
     *
     * @param nodeKey the local node key.
     */
    public SpawnerService(NodeKey nodeKey)
+   {
+      this(nodeKey, 0, 0);
+   }
+   
+   /**
+    * Constructs a new service that keeps a pool of pre-started worker JVMs.
+    *
+    * @param nodeKey the local node key.
+    * @param poolSize the number of worker JVMs to keep started. Zero gives no pool.
+    * @param maxJobs the number of processes a worker may run before it is replaced. Zero gives no limit.
+    */
+   public SpawnerService(NodeKey nodeKey, int poolSize, int maxJobs)
    {
       this.nodeKey = nodeKey;
+      this.pool = (poolSize > 0) ? new WorkerPool(poolSize, maxJobs) : null;
    }
    
    /** Runs the service. */
@@ -77,6 +108,10 @@ public class SpawnerService implements CSProcess
      
       int unique = 0;
       
+      // Warm up the worker pool
+      if (pool != null)
+         pool.start();
+      
       // Service requests
       Alternative alt = new Alternative(new Guard[] { terminate.in(), in });
       while (true)
@@ -86,6 +121,8 @@ public class SpawnerService implements CSProcess
             if (alt.priSelect() == 0)
             {
                terminate.in().read();
+               if (pool != null)
+                  pool.stop();
                return;
             }
             else
@@ -94,7 +131,14 @@ public class SpawnerService implements CSProcess
                if (msg != null)
                {
                   NetChannelOutput out = NetChannelEnd.createOne2Net(msg.caller);
-                  new ProcessManager(new ProcessSpawner(this, msg.process, out, msg.factory, msg.applicationID, unique++, msg.classPath)).start();
+                  // Only requests for the default node set up can use a pooled worker
+                  WorkerPool.Worker worker = null;
+                  if (pool != null && msg.factory == null && msg.classPath == null)
+                     worker = pool.claim();
+                  if (worker != null)
+                     new ProcessManager(new PooledProcessSpawner(pool, worker, msg.process, out, msg.applicationID)).start();
+                  else
+                     new ProcessManager(new ProcessSpawner(this, msg.process, out, msg.factory, msg.applicationID, unique++, msg.classPath)).start();
                }
             }
          }
@@ -113,6 +157,24 @@ public class SpawnerService implements CSProcess
    public static SpawnerService construct(String[] args)
    {
       NodeKey nodeKey = null;
+      int poolSize = 0;
+      int maxJobs = DEFAULT_MAX_JOBS;
+      try
+      {
+         if (args.length > 1)
+            poolSize = Integer.parseInt(args[1]);
+         if (args.length > 2)
+            maxJobs = Integer.parseInt(args[2]);
+      }
+      catch (NumberFormatException e)
+      {
+         poolSize = -1;
+      }
+      if (poolSize < 0 || maxJobs < 0)
+      {
+         System.err.println("Invalid worker pool size or process limit - aborting");
+         System.exit(1);
+      }
       // Initialize the node
       try
       {
@@ -131,14 +193,15 @@ public class SpawnerService implements CSProcess
          System.err.println("Unable to initialize node - aborting");
          System.exit(1);
       }
-      return new SpawnerService(nodeKey);
+      return new SpawnerService(nodeKey, poolSize, maxJobs);
    }
    
    /**
     * Program entry point.
     *
     * @param args the command line arguments. The first one may be the name of an XML file for
-    *             initializing the local node.
+    *             initializing the local node. The second may be the size of the worker pool, and the
+    *             third the number of processes a worker may run before it is replaced.
     */
    public static void main(String[] args)
    {
@@ -0,0 +1,358 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net.remote;
+
+import java.io.*;
+import java.util.*;
+import jcsp.lang.*;
+import jcsp.net.*;
+
+/**
+ * <p>For use by the infrastructure only.</p>
+ *
+ * <p>Maintains a pool of pre-started child JVMs for a <code>SpawnerService</code>. Each child runs
+ * <code>ChildProcess</code> in worker mode; it initializes its node once and then runs processes sent to
+ * it over a channel, one at a time. A process spawned onto a warm worker therefore pays neither JVM start-up
+ * nor node initialization.</p>
+ *
+ * <p>Workers are returned to the pool after each process. A worker is retired, and a replacement
+ * started, once it has run the configured number of processes, if it fails, or if the process left any
+ * threads running when it finished. If no worker is idle when a request arrives the caller falls back to
+ * starting a fresh JVM.</p>
+ *
+ * <p>Running a process on a reused worker is not the same as running it in a fresh JVM. Static state
+ * is kept from one process to the next: channel names registered with the CNS, the state of the local
+ * <code>Node</code>, and any static fields or singletons of the processes' own classes. Only processes that
+ * do not depend on, or leave behind, such state should be spawned onto a pooled service; the limit on the
+ * number of processes per worker bounds how far any leak can build up.</p>
+ *
+ * <p>The pool is a passive object shared between the spawners. Its methods are synchronized and never
+ * block for long.</p>
+ *
+ * @deprecated please use package net2 instead
+ */
+class WorkerPool
+{
+   /** The number of workers to keep started. */
+   private final int size;
+   
+   /** The number of processes a worker may run before it is retired, or zero for no limit. */
+   private final int maxJobs;
+   
+   /** Workers waiting for a process. */
+   private final LinkedList idle = new LinkedList();
+   
+   /** The number of workers currently starting up. */
+   private int starting = 0;
+   
+   /** Set once the pool has been shut down. */
+   private boolean stopped = false;
+   
+   /**
+    * Constructs a new pool. No workers are started until <code>start</code> is called.
+    *
+    * @param size the number of workers to keep started.
+    * @param maxJobs the number of processes a worker may run before being replaced, or zero for no limit.
+    */
+   WorkerPool(int size, int maxJobs)
+   {
+      this.size = size;
+      this.maxJobs = maxJobs;
+   }
+   
+   /**
+    * Starts enough workers to fill the pool.
+    */
+   synchronized void start()
+   {
+      while (!stopped && idle.size() + starting < size)
+      {
+         starting++;
+         new ProcessManager(new WorkerStarter()).start();
+      }
+   }
+   
+   /**
+    * Claims an idle worker.
+    *
+    * @return the worker, or <code>null</code> if none is idle.
+    */
+   synchronized Worker claim()
+   {
+      if (idle.isEmpty())
+         return null;
+      return (Worker)idle.removeFirst();
+   }
+   
+   /**
+    * Returns a worker to the pool after it has run a process. The worker is retired if it has failed, if
+    * the process left threads running on it, or if it has reached its limit of processes.
+    *
+    * @param worker the worker.
+    * @param reusable <code>false</code> if the worker failed, or may not run another process.
+    */
+   synchronized void release(Worker worker, boolean reusable)
+   {
+      worker.jobs++;
+      if (!reusable || stopped || (maxJobs > 0 && worker.jobs >= maxJobs))
+      {
+         worker.retire();
+         start();
+      }
+      else
+         idle.addLast(worker);
+   }
+   
+   /**
+    * Retires all idle workers and stops replacing workers.
+    */
+   synchronized void stop()
+   {
+      stopped = true;
+      while (!idle.isEmpty())
+         ((Worker)idle.removeFirst()).retire();
+   }
+   
+   /**
+    * Called by a starter when its worker has registered, or has failed to start.
+    */
+   private synchronized void started(Worker worker)
+   {
+      starting--;
+      if (worker == null)
+         return;
+      if (stopped)
+         worker.retire();
+      else
+         idle.addLast(worker);
+   }
+   
+   /**
+    * Launches a child JVM in worker mode and waits for it to register its work channel.
+    */
+   private class WorkerStarter implements CSProcess
+   {
+      public void run()
+      {
+         Worker worker = null;
+         try
+         {
+            NetAltingChannelInput fromWorker = NetChannelEnd.createNet2One();
+            File f = File.createTempFile("jcspworker", "bin");
+            ObjectOutputStream os = new ObjectOutputStream(new FileOutputStream(f));
+            os.writeObject(fromWorker.getChannelLocation());
+            os.close();
+            Node.info.log(this, "Starting pooled worker " + f.getAbsolutePath());
+            Process child = Runtime.getRuntime().exec(new String[] 
+                                                     {"java", ChildProcess.class.getName(), ChildProcess.WORKER, f.getAbsolutePath()});
+            worker = new Worker(child, fromWorker);
+            // Wait for the worker's channel location or for the worker to die
+            CSTimer tim = new CSTimer();
+            Alternative alt = new Alternative(new Guard[] { fromWorker, tim });
+            while (true)
+            {
+               tim.setAlarm(tim.read() + 2000);
+               if (alt.priSelect() == 0)
+               {
+                  worker.toWorker = NetChannelEnd.createOne2Net((NetChannelLocation)fromWorker.read());
+                  Node.info.log(this, "Pooled worker " + f.getAbsolutePath() + " ready");
+                  break;
+               }
+               else if (!worker.isAlive())
+               {
+                  Node.err.log(this, "Pooled worker " + f.getAbsolutePath() + " failed to start");
+                  worker.retire();
+                  worker = null;
+                  break;
+               }
+            }
+         }
+         catch (Exception e)
+         {
+            Node.err.log(this, e);
+            if (worker != null)
+               worker.retire();
+            worker = null;
+         }
+         started(worker);
+      }
+   }
+   
+   /**
+    * A pre-started child JVM. The output of the child is passed to the caller of the process it is
+    * currently running, or logged if it is idle.
+    */
+   static class Worker
+   {
+      /** The child JVM. */
+      final Process child;
+      
+      /** The channel the worker sends its location and results on. */
+      final NetAltingChannelInput fromWorker;
+      
+      /** The channel processes are sent to the worker on. */
+      NetChannelOutput toWorker;
+      
+      /** The number of processes this worker has run. */
+      int jobs = 0;
+      
+      /** The caller of the process currently being run, or <code>null</code> if idle. */
+      private NetChannelOutput caller = null;
+      
+      /** The number of the child's streams that have reached the end of the current process's output. */
+      private int streamsDone = 0;
+      
+      /**
+       * Constructs a worker for a started child JVM and starts forwarding its output.
+       */
+      Worker(Process child, NetAltingChannelInput fromWorker)
+      {
+         this.child = child;
+         this.fromWorker = fromWorker;
+         new ProcessManager(new OutputForwarder(child.getInputStream(), ProcessSpawner.MSG_STDOUT)).start();
+         new ProcessManager(new OutputForwarder(child.getErrorStream(), ProcessSpawner.MSG_STDERR)).start();
+      }
+      
+      /**
+       * Sets the caller that output is to be forwarded to.
+       */
+      synchronized void setCaller(NetChannelOutput caller)
+      {
+         this.caller = caller;
+         streamsDone = 0;
+      }
+      
+      /**
+       * Waits until the output of the current process has been forwarded from both of the child's streams, or
+       * until the child dies. The child marks the end of a process's output on each stream once it has flushed it.
+       */
+      synchronized void awaitEndOfJob()
+      {
+         while (streamsDone < 2 && isAlive())
+         {
+            try
+            {
+               wait(2000);
+            }
+            catch (InterruptedException e)
+            {
+               return;
+            }
+         }
+      }
+      
+      /**
+       * Forwards a line of output from the child.
+       */
+      private synchronized void forward(int type, String line)
+      {
+         if (ChildProcess.END_OF_JOB.equals(line))
+         {
+            streamsDone++;
+            notifyAll();
+            return;
+         }
+         if (caller != null)
+         {
+            try
+            {
+               caller.write(new Integer(type));
+               caller.write(line);
+               return;
+            }
+            catch (Exception e)
+            {
+               caller = null;
+            }
+         }
+         Node.info.log(this, line);
+      }
+      
+      /**
+       * Tests whether the child JVM is still running.
+       */
+      boolean isAlive()
+      {
+         try
+         {
+            child.exitValue();
+            return false;
+         }
+         catch (IllegalThreadStateException e)
+         {
+            return true;
+         }
+      }
+      
+      /**
+       * Asks the child to exit, destroying it if it cannot be asked.
+       */
+      void retire()
+      {
+         try
+         {
+            if (toWorker != null && isAlive())
+            {
+               toWorker.write(null);
+               toWorker.destroyWriter();
+               return;
+            }
+         }
+         catch (Exception e)
+         {
+         }
+         child.destroy();
+      }
+      
+      /**
+       * Copies lines from one of the child's streams.
+       */
+      private class OutputForwarder implements CSProcess
+      {
+         private final InputStream in;
+         
+         private final int type;
+         
+         OutputForwarder(InputStream in, int type)
+         {
+            this.in = in;
+            this.type = type;
+         }
+         
+         public void run()
+         {
+            try
+            {
+               BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+               String line = reader.readLine();
+               while (line != null)
+               {
+                  forward(type, line);
+                  line = reader.readLine();
+               }
+               reader.close();
+            }
+            catch (IOException e)
+            {
+            }
+         }
+      }
+   }
+}
@@ -367,6 +367,14 @@ class TCPIPLink extends Link
     */
    private ObjectOutputStream txStream;
    
+   /**
+    * Whether this node offers its peers the framed binary message protocol. This can be turned off by
+    * setting the <code>jcsp.net.tcpip.framing</code> system property to <code>false</code>.
+    *
+    * @see MessageFraming
+    */
+   private static final boolean FRAMING = !"false".equals(System.getProperty("jcsp.net.tcpip.framing"));
+   
    /**
     * Handshaking string.
     */
@@ -547,12 +555,36 @@ class TCPIPLink extends Link
          ChannelInput in = txChannel.in();
          try
          {
-            Object obj = in.read();
-            while (!(obj instanceof TxLoopPoison))
+            // Tell the peer we can read framed messages. Older nodes answer this as a ping.
+            if (FRAMING)
             {
-               txStream.writeObject(obj);
+               txStream.writeObject(MessageFraming.createOffer());
                txStream.flush();
                txStream.reset();
+            }
+            boolean framed = false;
+            Object obj = in.read();
+            while (!(obj instanceof TxLoopPoison))
+            {
+               if (obj instanceof SwitchToFramed)
+               {
+                  // The peer can read framed messages. Everything after the marker is framed.
+                  txStream.writeObject(MessageFraming.createSwitch());
+                  txStream.flush();
+                  txStream.reset();
+                  framed = true;
+               }
+               else if (framed)
+               {
+                  MessageFraming.writeFramed(txStream, obj);
+                  txStream.flush();
+               }
+               else
+               {
+                  txStream.writeObject(obj);
+                  txStream.flush();
+                  txStream.reset();
+               }
                obj = in.read();
             }
             closeTx();
@@ -597,8 +629,26 @@ class TCPIPLink extends Link
          try
          {
             // Now enter demux loop
+            boolean framed = false;
+            // TxLoop sends our offer first, so the first ping reply is the peer's answer to it
+            boolean offerReplyPending = FRAMING;
             while (true)
-               deliverReceivedObject(rxStream.readObject());
+            {
+               Object obj = framed ? MessageFraming.readFramed(rxStream) : rxStream.readObject();
+               if (offerReplyPending && MessageFraming.isOfferReply(obj))
+                  offerReplyPending = false;
+               else if (!framed && MessageFraming.isOffer(obj))
+               {
+                  // Ask TxLoop to switch to framed messages, and answer the offer as a ping
+                  if (FRAMING)
+                     txChannel.out().write(new SwitchToFramed());
+                  deliverReceivedObject(obj);
+               }
+               else if (!framed && MessageFraming.isSwitch(obj))
+                  framed = true;
+               else
+                  deliverReceivedObject(obj);
+            }
          }
          catch (Exception ex)
          {
@@ -629,4 +679,12 @@ class TCPIPLink extends Link
    private class TxLoopPoison
    {
    }
-}
\ No newline at end of file
+   
+   /**
+    * An object of this type is used by RxLoop to tell TxLoop that the peer has offered to read framed
+    * messages.
+    */
+   private class SwitchToFramed
+   {
+   }
+}
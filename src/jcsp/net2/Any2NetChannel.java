@@ -20,12 +20,20 @@
 
 package jcsp.net2;
 
+import java.util.ArrayList;
+
 import jcsp.lang.PoisonException;
 import jcsp.net2.NetworkMessageFilter.FilterTx;
 
 /***********************************************************************************************************************
  * An outputting network channel (TX) that can be safely shared amongst multiple writers (Any2Net). This is the concrete
  * implementation of the construct. For information on the user level interface, see NetSharedChannelOutput
+ * <p>
+ * Writers encode their object before entering the critical section that protects the underlying channel, so that
+ * several writers can encode at the same time and only the hand off to the Link is serialized. The standard filters
+ * are either stateless or cheap to create, so each concurrent writer is given its own encoder from a pool. Other
+ * filters cannot be copied, and are used one writer at a time, although still outside of the critical section.
+ * </p>
  * 
  * @see jcsp.net2.NetSharedChannelOutput
  * @author Kevin Chalmers (updated from Quickstone Technologies Limited)
@@ -40,6 +48,16 @@ final class Any2NetChannel
      */
     private final One2NetChannel chan;
 
+    /**
+     * Encoders not currently in use by a writer. Used as a stack.
+     */
+    private final ArrayList idleEncoders = new ArrayList();
+
+    /**
+     * Lock used when the encoder cannot be copied and must be shared between writers.
+     */
+    private final Object encoderLock = new Object();
+
     /**
      * Static factory method used to create an Any2NetChannel
      * 
@@ -108,9 +126,10 @@ final class Any2NetChannel
     public void write(Object object)
         throws JCSPNetworkException, PoisonException
     {
+        byte[] bytes = this.encode(object);
         synchronized (this)
         {
-            this.chan.write(object);
+            this.chan.writeEncoded(bytes);
         }
     }
 
@@ -127,9 +146,10 @@ final class Any2NetChannel
     public void asyncWrite(Object object)
         throws JCSPNetworkException, PoisonException
     {
+        byte[] bytes = this.encode(object);
         synchronized (this)
         {
-            this.chan.asyncWrite(object);
+            this.chan.asyncWriteEncoded(bytes);
         }
     }
 
@@ -155,7 +175,73 @@ final class Any2NetChannel
         synchronized (this)
         {
             this.chan.setEncoder(encoder);
+            synchronized (this.idleEncoders)
+            {
+                this.idleEncoders.clear();
+            }
+        }
+    }
+
+    /**
+     * Encodes an object outside of the critical section, using an encoder private to this writer if possible.
+     * 
+     * @param object
+     *            The object to encode
+     * @return The encoded object
+     * @throws JCSPNetworkException
+     *             Thrown if the object cannot be encoded
+     */
+    private byte[] encode(Object object)
+        throws JCSPNetworkException
+    {
+        FilterTx prototype = this.chan.getEncoder();
+        FilterTx encoder = null;
+        synchronized (this.idleEncoders)
+        {
+            if (!this.idleEncoders.isEmpty())
+                encoder = (FilterTx)this.idleEncoders.remove(this.idleEncoders.size() - 1);
+        }
+        if (encoder == null)
+            encoder = Any2NetChannel.copy(prototype);
+
+        // The encoder cannot be copied. Writers must take turns with it.
+        if (encoder == null)
+        {
+            synchronized (this.encoderLock)
+            {
+                return One2NetChannel.encode(prototype, object);
+            }
+        }
+
+        try
+        {
+            return One2NetChannel.encode(encoder, object);
         }
+        finally
+        {
+            // Only return the encoder if the channel's encoder has not been changed in the meantime
+            synchronized (this.idleEncoders)
+            {
+                if (encoder.getClass() == this.chan.getEncoder().getClass())
+                    this.idleEncoders.add(encoder);
+            }
+        }
+    }
+
+    /**
+     * Creates an encoder equivalent to the given one for use by a single writer
+     * 
+     * @param prototype
+     *            The encoder of the underlying channel
+     * @return A new encoder, or null if the encoder cannot be copied
+     */
+    private static FilterTx copy(FilterTx prototype)
+    {
+        if (prototype instanceof ObjectNetworkMessageFilter.FilterTX)
+            return new ObjectNetworkMessageFilter.FilterTX();
+        if (prototype instanceof RawNetworkMessageFilter.FilterTX)
+            return prototype;
+        return null;
     }
 
 }
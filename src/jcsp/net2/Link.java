@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.zip.Deflater;
 
 import jcsp.lang.Any2OneChannel;
 import jcsp.lang.CSProcess;
@@ -88,6 +89,36 @@ public abstract class Link
      */
     protected int priority = Link.LINK_PRIORITY;
 
+    /**
+     * Whether Links may compress the data part of outgoing messages. Compression only takes place if the remote Node
+     * also supports it, and then only when the Link bandwidth rather than the CPU is the bottleneck. This is a publicly
+     * accessible value that can be set by a user. Default is false (off).
+     */
+    public static boolean COMPRESSION = false;
+
+    /**
+     * The size in bytes below which the data part of a message is never compressed. This is a publicly accessible value
+     * that can be set by a user.
+     */
+    public static int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The Deflater level used when compressing. This is a publicly accessible value that can be set by a user.
+     */
+    public static int COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+    /**
+     * Whether this Link may compress outgoing data. This is exposed to child classes to allow specific Link types to
+     * turn compression on or off, and must be set before the Link is run.
+     */
+    protected boolean compression = Link.COMPRESSION;
+
+    /**
+     * The compression threshold for this Link. This is exposed to child classes to allow specific Link types to use a
+     * different threshold, and must be set before the Link is run.
+     */
+    protected int compressionThreshold = Link.COMPRESSION_THRESHOLD;
+
     /**
      * This Hashtable is used to keep track of the current output channels that are connected to this Link. In the
      * outcome of a connection failure to the remote Node, the Link uses this table to notify all registered output
@@ -344,15 +375,18 @@ public abstract class Link
             }
         }
 
-        // Create and start Tx and Rx loops.
-        TxLoop txLoop = new TxLoop(this.txChannel.in(), this.txStream);
-        RxLoop rxLoop = new RxLoop(this.txChannel.out(), this.rxStream);
+        // Create the compression stage and the Tx and Rx loops.
+        LinkCompressor compressor = new LinkCompressor(this.compression, this.compressionThreshold,
+                Link.COMPRESSION_LEVEL);
+        TxLoop txLoop = new TxLoop(this.txChannel.in(), this.txStream, compressor);
+        RxLoop rxLoop = new RxLoop(this.txChannel.out(), this.rxStream, compressor);
         ProcessManager txProc = new ProcessManager(txLoop);
         ProcessManager rxProc = new ProcessManager(rxLoop);
         txProc.setPriority(this.priority);
         rxProc.setPriority(this.priority);
         CSProcess[] processes = { txProc, rxProc };
         new Parallel(processes).run();
+        compressor.end();
 
         // At this point the Link has gone down. Should we be accepting messages? This should have really been
         // handled during the destroy resources stage. But just in case we send LINK_LOST messages appropriately.
@@ -398,6 +432,11 @@ public abstract class Link
          */
         private final DataOutputStream outputStream;
 
+        /**
+         * The compression stage shared with the RX process
+         */
+        private final LinkCompressor compressor;
+
         /**
          * Constructor to create the TX part of the Link
          * 
@@ -405,11 +444,14 @@ public abstract class Link
          *            The channel connecting into the Link TX from the various channels and barriers
          * @param stream
          *            The output stream connected to the remote node
+         * @param comp
+         *            The compression stage of the Link
          */
-        TxLoop(ChannelInput in, DataOutputStream stream)
+        TxLoop(ChannelInput in, DataOutputStream stream, LinkCompressor comp)
         {
             this.input = in;
             this.outputStream = stream;
+            this.compressor = comp;
         }
 
         /**
@@ -419,28 +461,59 @@ public abstract class Link
         {
             try
             {
+                // Announce to the remote node that we can accept compressed data
+                this.outputStream.writeByte(NetworkProtocol.COMPRESSION);
+                this.outputStream.writeInt(1);
+                this.outputStream.writeInt(-1);
+                this.outputStream.flush();
+
                 // Loop forever.
                 while (true)
                 {
                     // Read in next message
                     NetworkMessage msg = (NetworkMessage)this.input.read();
 
-                    // Write message to the stream.
-                    this.outputStream.writeByte(msg.type);
-                    this.outputStream.writeInt(msg.attr1);
-                    this.outputStream.writeInt(msg.attr2);
-
                     // Check if message has data element
                     if (msg.type == NetworkProtocol.SEND || msg.type == NetworkProtocol.ARRIVED
                         || msg.type == NetworkProtocol.ASYNC_SEND)
                     {
-                        // Write data element
-                        this.outputStream.writeInt(msg.data.length);
-                        this.outputStream.write(msg.data);
+                        // Pass the data through the compression stage. Null means send uncompressed.
+                        byte[] compressed = this.compressor.compress(msg.data);
+                        long start = System.nanoTime();
+                        if (compressed == null)
+                        {
+                            // Write message and data element
+                            this.outputStream.writeByte(msg.type);
+                            this.outputStream.writeInt(msg.attr1);
+                            this.outputStream.writeInt(msg.attr2);
+                            this.outputStream.writeInt(msg.data.length);
+                            this.outputStream.write(msg.data);
+                            this.outputStream.flush();
+                            this.compressor.recordWrite(msg.data.length, System.nanoTime() - start);
+                        }
+                        else
+                        {
+                            // Write message flagged as compressed, then compressed size, original size and data
+                            this.outputStream.writeByte(msg.type | NetworkProtocol.COMPRESSED);
+                            this.outputStream.writeInt(msg.attr1);
+                            this.outputStream.writeInt(msg.attr2);
+                            this.outputStream.writeInt(compressed.length);
+                            this.outputStream.writeInt(msg.data.length);
+                            this.outputStream.write(compressed);
+                            this.outputStream.flush();
+                            this.compressor.recordWrite(compressed.length, System.nanoTime() - start);
+                        }
                     }
+                    else
+                    {
+                        // Write message to the stream.
+                        this.outputStream.writeByte(msg.type);
+                        this.outputStream.writeInt(msg.attr1);
+                        this.outputStream.writeInt(msg.attr2);
 
-                    // Flush the stream.
-                    this.outputStream.flush();
+                        // Flush the stream.
+                        this.outputStream.flush();
+                    }
                 }
             }
             catch (IOException ioe)
@@ -477,6 +550,11 @@ public abstract class Link
          */
         private final ArrayList incomingEnrolledBarriers = new ArrayList();
 
+        /**
+         * The compression stage shared with the TX process
+         */
+        private final LinkCompressor compressor;
+
         /**
          * Constructor for the RX part of the Link
          * 
@@ -484,11 +562,14 @@ public abstract class Link
          *            The Channel connected to the TX part of the Link
          * @param stream
          *            The input stream used to receive messages upon
+         * @param comp
+         *            The compression stage of the Link
          */
-        RxLoop(ChannelOutput out, DataInputStream stream)
+        RxLoop(ChannelOutput out, DataInputStream stream, LinkCompressor comp)
         {
             this.toTxProcess = out;
             this.inputStream = stream;
+            this.compressor = comp;
         }
 
         /**
@@ -518,6 +599,17 @@ public abstract class Link
                     msg.attr1 = attr1;
                     msg.attr2 = attr2;
 
+                    // If the data part has been compressed, read and inflate it now
+                    if ((type & NetworkProtocol.COMPRESSED) != 0)
+                    {
+                        msg.type = (byte)(type & ~NetworkProtocol.COMPRESSED);
+                        int compressedSize = this.inputStream.readInt();
+                        int originalSize = this.inputStream.readInt();
+                        byte[] compressed = new byte[compressedSize];
+                        this.inputStream.readFully(compressed);
+                        msg.data = this.compressor.decompress(compressed, originalSize);
+                    }
+
                     // Now operate on the message
                     switch (msg.type)
                     {
@@ -529,21 +621,23 @@ public abstract class Link
                         case NetworkProtocol.SEND:
                         case NetworkProtocol.ASYNC_SEND:
 
-                            // First also read the data portion of the message
-
-                            // Read the size
-                            int size = this.inputStream.readInt();
+                            // First also read the data portion of the message, unless it has already been inflated
+                            if (msg.data == null)
+                            {
+                                // Read the size
+                                int size = this.inputStream.readInt();
 
-                            // Declare a buffer of the correct size
-                            byte[] bytes = new byte[size];
+                                // Declare a buffer of the correct size
+                                byte[] bytes = new byte[size];
 
-                            // Now keeping reading from the stream until the buffer is filled
-                            int read = 0;
-                            while (read < size)
-                                read += this.inputStream.read(bytes, read, size - read);
+                                // Now keeping reading from the stream until the buffer is filled
+                                int read = 0;
+                                while (read < size)
+                                    read += this.inputStream.read(bytes, read, size - read);
 
-                            // Set the data part of the message to the buffer
-                            msg.data = bytes;
+                                // Set the data part of the message to the buffer
+                                msg.data = bytes;
+                            }
 
                             // Attach the channel to allow the acknowledge message to be sent later.
                             msg.toLink = this.toTxProcess;
@@ -966,6 +1060,14 @@ public abstract class Link
                             // Barrier doesn't exist, ignore message.
                             break;
 
+                        // ------------------------------------------------------------------------
+                        // *** COMPRESSION ***
+                        // ------------------------------------------------------------------------
+                        // The remote node can inflate compressed data. Let the TX process know.
+                        case NetworkProtocol.COMPRESSION:
+                            this.compressor.peerAccepts();
+                            break;
+
                         // ------------------------------------------------------------------------
                         // *** MOVED ***
                         // ------------------------------------------------------------------------
@@ -0,0 +1,252 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net2;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compression stage of a Link. This operates on the already encoded data part of a NetworkMessage, and therefore
+ * sits below the NetworkMessageFilter used by the channel ends. A single Deflater and Inflater are created per Link and
+ * reset between messages, so no compression context is allocated on the message path.
+ * <p>
+ * Compression is negotiated. Each Link announces to its peer that it is able to inflate compressed data, and a Link
+ * will only compress if it has been enabled locally and the peer has made such an announcement. Older Nodes ignore the
+ * announcement, and therefore never receive compressed data.
+ * </p>
+ * <p>
+ * Compression is also adaptive. The Link Tx process reports how long it takes to put bytes onto the stream, and the
+ * compressor records how long it takes to deflate bytes and how well the data compresses. A message is only compressed
+ * when the estimated cost of compressing it and sending the smaller result is less than the cost of sending it raw. In
+ * other words, data is compressed when the bandwidth of the Link is the bottleneck, and is not compressed when the CPU
+ * is. A sample of messages is always compressed so that the estimates follow changes in the Link and the data.
+ * </p>
+ * 
+ * @see Link
+ */
+final class LinkCompressor
+{
+    /**
+     * The number of eligible messages between compression probes made regardless of the current estimates.
+     */
+    private static final int PROBE_INTERVAL = 32;
+
+    /**
+     * The weight given to a new sample when updating the running estimates, as a shift value (1/8).
+     */
+    private static final int SAMPLE_SHIFT = 3;
+
+    /**
+     * The minimum size of a message's data part before compression is considered
+     */
+    private final int threshold;
+
+    /**
+     * Whether compression of outgoing data has been enabled locally
+     */
+    private final boolean enabled;
+
+    /**
+     * Whether the remote Node has announced that it can inflate compressed data. Set by the Link Rx process, read by
+     * the Link Tx process.
+     */
+    private volatile boolean peerAccepts = false;
+
+    /**
+     * The deflater used for all outgoing messages on the Link
+     */
+    private final Deflater deflater;
+
+    /**
+     * The inflater used for all incoming messages on the Link
+     */
+    private final Inflater inflater = new Inflater();
+
+    /**
+     * Buffer used to receive deflated data. Grown as required.
+     */
+    private byte[] deflateBuffer = new byte[0];
+
+    /**
+     * Estimated time in nanoseconds to write 1024 bytes to the Link. Zero until the first sample.
+     */
+    private long writeCost = 0;
+
+    /**
+     * Estimated time in nanoseconds to deflate 1024 bytes. Zero until the first sample.
+     */
+    private long deflateCost = 0;
+
+    /**
+     * Estimated compressed size of 1024 bytes of data
+     */
+    private long ratio = 1024;
+
+    /**
+     * Count of eligible messages since the last probe
+     */
+    private int sinceProbe = 0;
+
+    /**
+     * Creates a new LinkCompressor
+     * 
+     * @param enabled
+     *            Whether outgoing data may be compressed
+     * @param threshold
+     *            The minimum data size to consider compressing
+     * @param level
+     *            The Deflater compression level to use
+     */
+    LinkCompressor(boolean enabled, int threshold, int level)
+    {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.deflater = new Deflater(level);
+    }
+
+    /**
+     * Called by the Link Rx when the remote Node announces that it can inflate compressed data
+     */
+    void peerAccepts()
+    {
+        this.peerAccepts = true;
+    }
+
+    /**
+     * Attempts to compress the given data. Called only by the Link Tx process.
+     * 
+     * @param data
+     *            The data part of an outgoing message
+     * @return The compressed data, or null if the data should be sent uncompressed
+     */
+    byte[] compress(byte[] data)
+    {
+        if (!this.enabled || !this.peerAccepts || data.length < this.threshold)
+            return null;
+
+        // Decide whether to compress. We always do so if we have no estimates yet, or if it is time to probe.
+        boolean probe = ++this.sinceProbe >= LinkCompressor.PROBE_INTERVAL || this.writeCost == 0
+                        || this.deflateCost == 0;
+        if (!probe && this.deflateCost + ((this.ratio * this.writeCost) >> 10) >= this.writeCost)
+            return null;
+        this.sinceProbe = 0;
+
+        // Compress the data
+        long start = System.nanoTime();
+        this.deflater.reset();
+        this.deflater.setInput(data);
+        this.deflater.finish();
+        if (this.deflateBuffer.length < data.length)
+            this.deflateBuffer = new byte[data.length];
+        int size = 0;
+        while (!this.deflater.finished() && size < this.deflateBuffer.length)
+            size += this.deflater.deflate(this.deflateBuffer, size, this.deflateBuffer.length - size);
+        this.deflateCost = update(this.deflateCost, ((System.nanoTime() - start) << 10) / data.length);
+
+        // If the data did not shrink then it is incompressible. Record this and send it raw.
+        if (!this.deflater.finished() || size >= data.length)
+        {
+            this.ratio = update(this.ratio, 1024);
+            return null;
+        }
+        this.ratio = update(this.ratio, ((long)size << 10) / data.length);
+        byte[] toReturn = new byte[size];
+        System.arraycopy(this.deflateBuffer, 0, toReturn, 0, size);
+        return toReturn;
+    }
+
+    /**
+     * Records the time taken by the Link Tx to write a number of bytes to the stream
+     * 
+     * @param bytes
+     *            The number of bytes written
+     * @param nanos
+     *            The time taken to write and flush them
+     */
+    void recordWrite(int bytes, long nanos)
+    {
+        if (bytes >= this.threshold)
+            this.writeCost = update(this.writeCost, (nanos << 10) / bytes);
+    }
+
+    /**
+     * Inflates compressed data received from the remote Node. Called only by the Link Rx process.
+     * 
+     * @param data
+     *            The compressed data
+     * @param size
+     *            The original size of the data
+     * @return The inflated data
+     * @throws IOException
+     *             Thrown if the data cannot be inflated
+     */
+    byte[] decompress(byte[] data, int size)
+        throws IOException
+    {
+        byte[] toReturn = new byte[size];
+        this.inflater.reset();
+        this.inflater.setInput(data);
+        try
+        {
+            int read = 0;
+            while (read < size && !this.inflater.finished())
+            {
+                int n = this.inflater.inflate(toReturn, read, size - read);
+                if (n == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary()))
+                    break;
+                read += n;
+            }
+            if (read != size)
+                throw new IOException("Compressed message did not inflate to expected size");
+        }
+        catch (DataFormatException dfe)
+        {
+            throw new IOException("Corrupt compressed message received: " + dfe.getMessage());
+        }
+        return toReturn;
+    }
+
+    /**
+     * Releases the compression contexts
+     */
+    void end()
+    {
+        this.deflater.end();
+        this.inflater.end();
+    }
+
+    /**
+     * Updates a running estimate with a new sample
+     * 
+     * @param estimate
+     *            The current estimate, or zero if there is none
+     * @param sample
+     *            The new sample
+     * @return The new estimate
+     */
+    private static long update(long estimate, long sample)
+    {
+        if (estimate == 0)
+            return Math.max(sample, 1);
+        return Math.max(estimate + ((sample - estimate) >> LinkCompressor.SAMPLE_SHIFT), 1);
+    }
+}
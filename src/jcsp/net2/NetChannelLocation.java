@@ -109,6 +109,31 @@ public final class NetChannelLocation
         return this.vcn;
     }
 
+    /**
+     * Checks if the given object is a NetChannelLocation referring to the same channel as this one
+     *
+     * @param obj
+     *            The object to compare against
+     * @return True if the object has the same NodeID and VCN, false otherwise
+     */
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof NetChannelLocation))
+            return false;
+        NetChannelLocation other = (NetChannelLocation)obj;
+        return this.vcn == other.vcn && this.nodeID.equals(other.nodeID);
+    }
+
+    /**
+     * Returns the hashCode for this object
+     *
+     * @return Hashcode for the NetChannelLocation
+     */
+    public int hashCode()
+    {
+        return this.nodeID.hashCode() ^ this.vcn;
+    }
+
     /**
      * Converts the NetChannelLocation object into a string representation of the form ncl://[NodeID]/[VCN]
      * 
@@ -156,4 +156,16 @@ final class NetworkProtocol
      * Rejects a message from a networked connection
      */
     final static byte REJECT_CONNECTION = 24;
+
+    /**
+     * Announces that the sending Link is able to inflate compressed data. Sent once when a Link starts. Nodes that do
+     * not understand the message ignore it.
+     */
+    final static byte COMPRESSION = 25;
+
+    /**
+     * Flag combined with the type of a message to indicate that its data part has been compressed. Such a message is
+     * followed by the compressed size, the original size, and the compressed data.
+     */
+    final static byte COMPRESSED = 0x40;
 }
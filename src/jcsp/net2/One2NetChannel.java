@@ -289,6 +289,61 @@ final class One2NetChannel
      */
     public void write(Object object)
         throws JCSPNetworkException, PoisonException
+    {
+        this.writeEncoded(One2NetChannel.encode(this.messageFilter, object));
+    }
+
+    /**
+     * Converts an object into bytes for sending using the given filter. This is separated from the sending of the
+     * message so that shared output ends can encode outside of their critical section.
+     * 
+     * @param filter
+     *            The filter used to encode the object
+     * @param object
+     *            The object to encode
+     * @return The byte array representation of the object
+     * @throws JCSPNetworkException
+     *             Thrown if the filter fails to encode the object
+     */
+    static byte[] encode(FilterTx filter, Object object)
+        throws JCSPNetworkException
+    {
+        try
+        {
+            // Pass the message through the filter to convert it into bytes for transfer. Standard method is to convert
+            // an object into a byte array via object serialization, but implementation specific methods can be
+            // developed.
+            // See NetworkMessageFilter and ObjectNetworkMessageFilter.
+            return filter.filterTX(object);
+        }
+        catch (IOException ioe)
+        {
+            throw new JCSPNetworkException("Error when trying to convert the message for sending");
+        }
+    }
+
+    /**
+     * Gets the filter used to encode objects sent on this channel
+     * 
+     * @return The current encoding filter
+     */
+    FilterTx getEncoder()
+    {
+        return this.messageFilter;
+    }
+
+    /**
+     * Sends an already encoded object to the input end, waiting for the acknowledgement
+     * 
+     * @param bytes
+     *            The encoded object
+     * @throws JCSPNetworkException
+     *             Thrown if something goes wrong in the network architecture
+     * @throws PoisonException
+     *             Thrown if the channel has been poisoned
+     */
+    void writeEncoded(byte[] bytes)
+        throws JCSPNetworkException, PoisonException
     {
         // First we do a state check, and throw an exception if necessary
         if (this.data.state == ChannelDataState.DESTROYED)
@@ -356,63 +411,53 @@ final class One2NetChannel
         msg.attr1 = this.remoteLocation.getVCN();
         msg.attr2 = this.data.vcn;
 
-        try
-        {
-            // Pass the message through the filter to convert it into bytes for transfer. Standard method is to convert
-            // an object into a byte array via object serialization, but implementation specific methods can be
-            // developed.
-            // See NetworkMessageFilter and ObjectNetworkMessageFilter.
-            msg.data = this.messageFilter.filterTX(object);
+        // Attach the already encoded object
+        msg.data = bytes;
 
-            // Now we must determine how to send the message. If it is to a remote Node, simply write to the Link.
-            if (!this.isLocal)
-            {
-                this.toLinkTx.write(msg);
-            }
+        // Now we must determine how to send the message. If it is to a remote Node, simply write to the Link.
+        if (!this.isLocal)
+        {
+            this.toLinkTx.write(msg);
+        }
 
-            // If the input end is actually on this Node, then we attached our ackChannel to the message so the input
-            // channel can send the ACK directly to us
-            else
+        // If the input end is actually on this Node, then we attached our ackChannel to the message so the input
+        // channel can send the ACK directly to us
+        else
+        {
+            // Acquire lock on the input ends data structure
+            synchronized (this.localChannel)
             {
-                // Acquire lock on the input ends data structure
-                synchronized (this.localChannel)
+                // Now check the local channels state and behave accordingly
+                switch (this.localChannel.state)
                 {
-                    // Now check the local channels state and behave accordingly
-                    switch (this.localChannel.state)
-                    {
-                        case ChannelDataState.OK_INPUT:
-                            // We have an input end. Send message
-                            msg.toLink = this.data.toChannel;
-                            this.toLinkTx.write(msg);
-                            break;
+                    case ChannelDataState.OK_INPUT:
+                        // We have an input end. Send message
+                        msg.toLink = this.data.toChannel;
+                        this.toLinkTx.write(msg);
+                        break;
 
-                        case ChannelDataState.POISONED:
-                            // The input end has been poisoned. Set our state and throw exception.
+                    case ChannelDataState.POISONED:
+                        // The input end has been poisoned. Set our state and throw exception.
 
-                            // We don't need to acquire a lock. Only we can be operating on the channel
-                            this.data.state = ChannelDataState.POISONED;
-                            this.data.poisonLevel = this.localChannel.poisonLevel;
+                        // We don't need to acquire a lock. Only we can be operating on the channel
+                        this.data.state = ChannelDataState.POISONED;
+                        this.data.poisonLevel = this.localChannel.poisonLevel;
 
-                            throw new NetworkPoisonException(this.localChannel.poisonLevel);
+                        throw new NetworkPoisonException(this.localChannel.poisonLevel);
 
-                        default:
-                            // In all other circumstances, we cause a network exception. Set state to broken
+                    default:
+                        // In all other circumstances, we cause a network exception. Set state to broken
 
-                            // We do not need to acquire a lock. Only we can be operating on the channel
-                            this.data.state = ChannelDataState.BROKEN;
+                        // We do not need to acquire a lock. Only we can be operating on the channel
+                        this.data.state = ChannelDataState.BROKEN;
 
-                            // Remove ourselves from the ChannelManager
-                            ChannelManager.getInstance().removeChannel(this.data);
+                        // Remove ourselves from the ChannelManager
+                        ChannelManager.getInstance().removeChannel(this.data);
 
-                            throw new JCSPNetworkException("Channel rejected during send");
-                    }
+                        throw new JCSPNetworkException("Channel rejected during send");
                 }
             }
         }
-        catch (IOException ioe)
-        {
-            throw new JCSPNetworkException("Error when trying to convert the message for sending");
-        }
 
         // Now we wait for a reply on our ackChannel
         NetworkMessage reply = (NetworkMessage)this.theAckChannel.read();
@@ -474,6 +519,22 @@ final class One2NetChannel
      */
     public void asyncWrite(Object object)
         throws JCSPNetworkException, PoisonException
+    {
+        this.asyncWriteEncoded(One2NetChannel.encode(this.messageFilter, object));
+    }
+
+    /**
+     * Asynchronously sends an already encoded object to the input end
+     * 
+     * @param bytes
+     *            The encoded object
+     * @throws JCSPNetworkException
+     *             Thrown when something goes wrong in the network architecture
+     * @throws PoisonException
+     *             Thrown if the channel is poisoned
+     */
+    void asyncWriteEncoded(byte[] bytes)
+        throws JCSPNetworkException, PoisonException
     {
         // First we do a state check, and throw an exception if necessary
         if (this.data.state == ChannelDataState.DESTROYED)
@@ -553,63 +614,53 @@ final class One2NetChannel
         msg.attr1 = this.remoteLocation.getVCN();
         msg.attr2 = this.data.vcn;
 
-        try
-        {
-            // Pass the message through the filter to convert it into bytes for transfer. Standard method is to convert
-            // an object into a byte array via object serialization, but implementation specific methods can be
-            // developed.
-            // See NetworkMessageFilter and ObjectNetworkMessageFilter.
-            msg.data = this.messageFilter.filterTX(object);
+        // Attach the already encoded object
+        msg.data = bytes;
 
-            // Now we must determine how to send the message. If it is to a remote Node, simply write to the Link.
-            if (!this.isLocal)
-            {
-                this.toLinkTx.write(msg);
-            }
+        // Now we must determine how to send the message. If it is to a remote Node, simply write to the Link.
+        if (!this.isLocal)
+        {
+            this.toLinkTx.write(msg);
+        }
 
-            // If the input end is actually on this Node, then we attached our ackChannel to the message so the input
-            // channel can send the ACK directly to us
-            else
+        // If the input end is actually on this Node, then we attached our ackChannel to the message so the input
+        // channel can send the ACK directly to us
+        else
+        {
+            // Acquire lock on the input ends data structure
+            synchronized (this.localChannel)
             {
-                // Acquire lock on the input ends data structure
-                synchronized (this.localChannel)
+                // Now check the local channels state and behave accordingly
+                switch (this.localChannel.state)
                 {
-                    // Now check the local channels state and behave accordingly
-                    switch (this.localChannel.state)
-                    {
-                        case ChannelDataState.OK_INPUT:
-                            // We have an input end. Send message
-                            msg.toLink = this.data.toChannel;
-                            this.toLinkTx.write(msg);
-                            break;
+                    case ChannelDataState.OK_INPUT:
+                        // We have an input end. Send message
+                        msg.toLink = this.data.toChannel;
+                        this.toLinkTx.write(msg);
+                        break;
 
-                        case ChannelDataState.POISONED:
-                            // The input end has been poisoned. Set our state and throw exception.
+                    case ChannelDataState.POISONED:
+                        // The input end has been poisoned. Set our state and throw exception.
 
-                            // We don't need to acquire a lock. Only we can be operating on the channel
-                            this.data.state = ChannelDataState.POISONED;
-                            this.data.poisonLevel = this.localChannel.poisonLevel;
+                        // We don't need to acquire a lock. Only we can be operating on the channel
+                        this.data.state = ChannelDataState.POISONED;
+                        this.data.poisonLevel = this.localChannel.poisonLevel;
 
-                            throw new NetworkPoisonException(this.localChannel.poisonLevel);
+                        throw new NetworkPoisonException(this.localChannel.poisonLevel);
 
-                        default:
-                            // In all other circumstances, we cause a network exception. Set state to broken
+                    default:
+                        // In all other circumstances, we cause a network exception. Set state to broken
 
-                            // We do not need to acquire a lock. Only we can be operating on the channel
-                            this.data.state = ChannelDataState.BROKEN;
+                        // We do not need to acquire a lock. Only we can be operating on the channel
+                        this.data.state = ChannelDataState.BROKEN;
 
-                            // Remove ourselves from the ChannelManager
-                            ChannelManager.getInstance().removeChannel(this.data);
+                        // Remove ourselves from the ChannelManager
+                        ChannelManager.getInstance().removeChannel(this.data);
 
-                            throw new JCSPNetworkException("Channel rejected during send");
-                    }
+                        throw new JCSPNetworkException("Channel rejected during send");
                 }
             }
         }
-        catch (IOException ioe)
-        {
-            throw new JCSPNetworkException("Error when trying to convert the message for sending");
-        }
         // We are asynchronous, so we simply return.
     }
 
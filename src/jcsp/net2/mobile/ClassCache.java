@@ -0,0 +1,168 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net2.mobile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * A content addressed, on disk cache of class files received for mobile code. Each class is stored under the SHA-1
+ * digest of its bytes. When a mobile process arrives, the originating Node sends the digests of the classes it needs,
+ * and only the classes not already in the cache are transferred. As the cache survives restarts of the JVM, a Node that
+ * has received a mobile process before can start it again without transferring any class files.
+ * <p>
+ * The cache directory is taken from the <code>jcsp.net2.mobile.classcache</code> system property, defaulting to a
+ * directory in the system temporary directory. Set <code>ENABLED</code> to false to turn the cache off.
+ * </p>
+ */
+public final class ClassCache
+{
+    /**
+     * Whether classes are stored to and loaded from the cache. This is a publicly accessible value that can be set by a
+     * user.
+     */
+    public static boolean ENABLED = true;
+
+    /**
+     * The directory the cache is stored in. This is a publicly accessible value that can be set by a user.
+     */
+    public static File DIRECTORY = new File(System.getProperty("jcsp.net2.mobile.classcache",
+            System.getProperty("java.io.tmpdir") + File.separator + "jcsp-class-cache"));
+
+    private ClassCache()
+    {
+        // Static methods only
+    }
+
+    /**
+     * Calculates the digest used to store the given class bytes
+     * 
+     * @param bytes
+     *            The class file
+     * @return The SHA-1 digest of the bytes
+     */
+    static byte[] digest(byte[] bytes)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        }
+        catch (NoSuchAlgorithmException nsae)
+        {
+            throw new RuntimeException("SHA-1 is not available: " + nsae.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves a class from the cache. The bytes are checked against the digest before they are returned.
+     * 
+     * @param digest
+     *            The digest of the required class
+     * @return The class bytes, or null if the class is not in the cache
+     */
+    static byte[] get(byte[] digest)
+    {
+        if (!ClassCache.ENABLED)
+            return null;
+        File file = ClassCache.file(digest);
+        if (!file.isFile())
+            return null;
+        try
+        {
+            FileInputStream in = new FileInputStream(file);
+            try
+            {
+                byte[] bytes = new byte[(int)file.length()];
+                int read = 0;
+                while (read < bytes.length)
+                {
+                    int n = in.read(bytes, read, bytes.length - read);
+                    if (n == -1)
+                        return null;
+                    read += n;
+                }
+                return Arrays.equals(digest, ClassCache.digest(bytes)) ? bytes : null;
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (IOException ioe)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Stores a class in the cache. Failures are ignored, as the cache is only an optimisation.
+     * 
+     * @param digest
+     *            The digest of the class
+     * @param bytes
+     *            The class bytes
+     */
+    static void put(byte[] digest, byte[] bytes)
+    {
+        if (!ClassCache.ENABLED)
+            return;
+        File file = ClassCache.file(digest);
+        if (file.isFile())
+            return;
+        try
+        {
+            ClassCache.DIRECTORY.mkdirs();
+            // Write to a temporary file and rename, so that a partially written class is never seen
+            File temp = File.createTempFile("class", ".tmp", ClassCache.DIRECTORY);
+            FileOutputStream out = new FileOutputStream(temp);
+            try
+            {
+                out.write(bytes);
+            }
+            finally
+            {
+                out.close();
+            }
+            if (!temp.renameTo(file))
+                temp.delete();
+        }
+        catch (IOException ioe)
+        {
+            // Ignore. The class is still held in memory.
+        }
+    }
+
+    private static File file(byte[] digest)
+    {
+        StringBuffer name = new StringBuffer(digest.length * 2 + 6);
+        for (int i = 0; i < digest.length; i++)
+        {
+            name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+            name.append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        name.append(".class");
+        return new File(ClassCache.DIRECTORY, name.toString());
+    }
+}
@@ -17,7 +17,6 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.Serializable;
@@ -28,12 +27,41 @@ import java.io.Serializable;
 final class ClassData
     implements Serializable
 {
+    /**
+     * The SUID of the original single-class reply, so that replies can pass between older and newer Nodes. An older
+     * Node's reply to a manifest request is a single class, with no class names.
+     */
+    private static final long serialVersionUID = -198537069394376658L;
+
     final String className;
     final byte[] bytes;
 
+    /**
+     * The class names of a manifest or batch reply
+     */
+    final String[] classNames;
+
+    /**
+     * The SHA-1 digests of the classes in a manifest reply
+     */
+    final byte[][] digests;
+
+    /**
+     * The class bytes of a batch reply. An entry is null if the class could not be found.
+     */
+    final byte[][] classBytes;
+
     ClassData(String name, byte[] classBytes)
+    {
+        this(name, classBytes, null, null, null);
+    }
+
+    ClassData(String name, byte[] bytes, String[] names, byte[][] digestList, byte[][] bytesList)
     {
         this.className = name;
-        this.bytes = classBytes;
+        this.bytes = bytes;
+        this.classNames = names;
+        this.digests = digestList;
+        this.classBytes = bytesList;
     }
 }
@@ -0,0 +1,151 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net2.mobile;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Reads the names of the classes a class file refers to from its constant pool. This is used to work out the
+ * dependency closure of a class so that it can be sent in one batch rather than one class at a time.
+ */
+final class ClassDependencies
+{
+    private ClassDependencies()
+    {
+        // Static methods only
+    }
+
+    /**
+     * Gets the names (in dotted form) of the classes referenced by a class file. This includes the superclass,
+     * interfaces, and any class named in a field or method reference. Classes that the platform class loader can
+     * provide (the java, javax, jdk and sun packages, and so on) are not included, since every Node has its own.
+     * 
+     * @param bytes
+     *            The class file
+     * @return A list of class names
+     * @throws IOException
+     *             Thrown if the class file is malformed
+     */
+    static ArrayList getDependencies(byte[] bytes)
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != 0xCAFEBABE)
+            throw new IOException("Not a class file");
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classIndexes = new int[count];
+        int classes = 0;
+        int[] descriptorIndexes = new int[count];
+        int descriptors = 0;
+        for (int i = 1; i < count; i++)
+        {
+            int tag = in.readUnsignedByte();
+            switch (tag)
+            {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classIndexes[classes++] = in.readUnsignedShort();
+                    break;
+                case 12: // NameAndType
+                    in.readUnsignedShort();
+                    descriptorIndexes[descriptors++] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.readUnsignedShort();
+                    break;
+                case 15: // MethodHandle
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.readInt();
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.readLong();
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        ArrayList toReturn = new ArrayList();
+        for (int i = 0; i < classes; i++)
+        {
+            String name = utf8[classIndexes[i]];
+            if (name.charAt(0) == '[')
+                addDescriptor(name, toReturn);
+            else
+                add(name, toReturn);
+        }
+        for (int i = 0; i < descriptors; i++)
+            addDescriptor(utf8[descriptorIndexes[i]], toReturn);
+        return toReturn;
+    }
+
+    private static void addDescriptor(String descriptor, ArrayList names)
+    {
+        int start = descriptor.indexOf('L');
+        while (start != -1)
+        {
+            int end = descriptor.indexOf(';', start);
+            if (end == -1)
+                return;
+            add(descriptor.substring(start + 1, end), names);
+            start = descriptor.indexOf('L', end);
+        }
+    }
+
+    private static void add(String internalName, ArrayList names)
+    {
+        if (internalName.startsWith("java/") || isPlatformClass(internalName))
+            return;
+        String name = internalName.replace('/', '.');
+        if (!names.contains(name))
+            names.add(name);
+    }
+
+    /**
+     * Tests whether a class comes with the Java platform rather than from the application class path. The receiving
+     * Node's own loaders will always find such a class, so it need never be sent.
+     */
+    private static boolean isPlatformClass(String internalName)
+    {
+        return ClassLoader.getPlatformClassLoader().getResource(internalName + ".class") != null;
+    }
+}
@@ -17,17 +17,19 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Hashtable;
 
 import jcsp.lang.CSProcess;
 import jcsp.net2.JCSPNetworkException;
 import jcsp.net2.NetChannel;
 import jcsp.net2.NetChannelInput;
+import jcsp.net2.NetChannelLocation;
 import jcsp.net2.NetChannelOutput;
 import jcsp.net2.Node;
 
@@ -37,10 +39,30 @@ import jcsp.net2.Node;
 final class ClassManager
     implements CSProcess
 {
+    /**
+     * The maximum number of classes returned in a single manifest
+     */
+    static final int MAX_CLOSURE = 4096;
+
     static Hashtable classLoaders = new Hashtable();
 
     static NetChannelInput in = NetChannel.numberedNet2One(10);
 
+    /**
+     * Reply channels to requesting class loaders, kept so that a channel is not created for every reply
+     */
+    private final Hashtable replyChannels = new Hashtable();
+
+    /**
+     * Class files of this Node that have already been read from the class path
+     */
+    private final Hashtable localClasses = new Hashtable();
+
+    /**
+     * Manifests of this Node's classes that have already been built, keyed on the name of the root class
+     */
+    private final Hashtable manifests = new Hashtable();
+
     public void run()
     {
         while (true)
@@ -48,70 +70,25 @@ final class ClassManager
             try
             {
                 ClassRequest req = (ClassRequest)in.read();
-                if (req.originatingNode.equals(Node.getInstance().getNodeID()))
+                ClassData resp;
+                switch (req.type)
                 {
-                    String className = req.className.replace('.', '/') + ".class";
-                    InputStream is = ClassLoader.getSystemResourceAsStream(className);
-                    try
-                    {
-                        if (is != null)
-                        {
-                            int read = 0;
-                            byte[] bytes = new byte[is.available()];
-                            while (read < bytes.length)
-                                read += is.read(bytes, read, bytes.length - read);
-                            ClassData resp = new ClassData(req.className, bytes);
-                            NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                            out.asyncWrite(resp);
-                            out.destroy();
-                            out = null;
-                        }
-                        else
-                        {
-                            ClassData resp = new ClassData(req.className, null);
-                            NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                            out.asyncWrite(resp);
-                            out.destroy();
-                            out = null;
-                        }
-                    }
-                    catch (IOException ioe)
-                    {
-                        ClassData resp = new ClassData(req.className, null);
-                        NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                        out.asyncWrite(resp);
-                        out.destroy();
-                    }
-                }
-                else
-                {
-                    DynamicClassLoader loader = (DynamicClassLoader)ClassManager.classLoaders.get(req.originatingNode);
-                    if (loader == null)
-                    {
-                        ClassData resp = new ClassData(req.className, null);
-                        NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                        out.asyncWrite(resp);
-                        out.destroy();
-                    }
-                    else
-                    {
-                        try
-                        {
-                            byte[] bytes = loader.requestClass(req.className);
-                            ClassData resp = new ClassData(req.className, bytes);
-                            NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                            out.asyncWrite(resp);
-                            out.destroy();
-                        }
-                        catch (ClassNotFoundException cnf)
-                        {
-                            ClassData resp = new ClassData(req.className, null);
-                            NetChannelOutput out = NetChannel.one2net(req.returnLocation);
-                            out.asyncWrite(resp);
-                            out.destroy();
-                        }
-                    }
+                    case ClassRequest.MANIFEST:
+                        resp = this.manifest(req);
+                        break;
+
+                    case ClassRequest.BATCH:
+                        byte[][] bytes = new byte[req.classNames.length][];
+                        for (int i = 0; i < bytes.length; i++)
+                            bytes[i] = this.getClassBytes(req, req.classNames[i]);
+                        resp = new ClassData(req.className, null, req.classNames, null, bytes);
+                        break;
+
+                    default:
+                        resp = new ClassData(req.className, this.getClassBytes(req, req.className));
+                        break;
                 }
+                this.reply(req.returnLocation, resp);
             }
             catch (JCSPNetworkException jne)
             {
@@ -119,4 +96,149 @@ final class ClassManager
             }
         }
     }
+
+    private void reply(NetChannelLocation loc, ClassData resp)
+    {
+        NetChannelOutput out = (NetChannelOutput)this.replyChannels.get(loc);
+        if (out == null)
+        {
+            out = NetChannel.one2net(loc);
+            this.replyChannels.put(loc, out);
+        }
+        try
+        {
+            out.asyncWrite(resp);
+        }
+        catch (JCSPNetworkException jne)
+        {
+            // The requesting loader has gone. Forget the channel.
+            this.replyChannels.remove(loc);
+            out.destroy();
+        }
+    }
+
+    /**
+     * Gets the bytes of a class, either from this Node's class path if the request is for our classes, or from the
+     * class loader of the originating Node if we are passing on classes we received from elsewhere.
+     */
+    private byte[] getClassBytes(ClassRequest req, String className)
+    {
+        if (req.originatingNode.equals(Node.getInstance().getNodeID()))
+        {
+            return this.getLocalClass(className);
+        }
+        DynamicClassLoader loader = (DynamicClassLoader)ClassManager.classLoaders.get(req.originatingNode);
+        if (loader == null)
+        {
+            return null;
+        }
+        try
+        {
+            return loader.requestClass(className);
+        }
+        catch (ClassNotFoundException cnf)
+        {
+            return null;
+        }
+    }
+
+    private byte[] getLocalClass(String className)
+    {
+        byte[] bytes = (byte[])this.localClasses.get(className);
+        if (bytes != null)
+        {
+            return bytes;
+        }
+        InputStream is = ClassLoader.getSystemResourceAsStream(className.replace('.', '/') + ".class");
+        if (is == null)
+        {
+            return null;
+        }
+        try
+        {
+            try
+            {
+                int read = 0;
+                bytes = new byte[is.available()];
+                while (read < bytes.length)
+                    read += is.read(bytes, read, bytes.length - read);
+            }
+            finally
+            {
+                is.close();
+            }
+            this.localClasses.put(className, bytes);
+            return bytes;
+        }
+        catch (IOException ioe)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the manifest of a class and the classes it depends upon, giving the name and digest of each. Only classes
+     * that can be provided by this Node, and are not part of the Java platform, are included. A manifest of our own
+     * classes is built once and then kept, as are the class files it is built from.
+     */
+    private ClassData manifest(ClassRequest req)
+    {
+        if (!req.originatingNode.equals(Node.getInstance().getNodeID()))
+        {
+            // We are passing on another Node's classes. Get the manifest from there.
+            DynamicClassLoader loader = (DynamicClassLoader)ClassManager.classLoaders.get(req.originatingNode);
+            if (loader != null)
+            {
+                try
+                {
+                    ClassData manifest = loader.requestManifest(req.className);
+                    if (manifest != null)
+                        return manifest;
+                }
+                catch (JCSPNetworkException jne)
+                {
+                    // Fall through and return an empty manifest
+                }
+            }
+            return new ClassData(req.className, null);
+        }
+
+        ClassData manifest = (ClassData)this.manifests.get(req.className);
+        if (manifest != null)
+            return manifest;
+
+        // Work through the dependencies breadth first
+        ArrayList names = new ArrayList();
+        ArrayList digests = new ArrayList();
+        ArrayList toVisit = new ArrayList();
+        HashSet seen = new HashSet();
+        toVisit.add(req.className);
+        seen.add(req.className);
+        for (int i = 0; i < toVisit.size() && names.size() < ClassManager.MAX_CLOSURE; i++)
+        {
+            String name = (String)toVisit.get(i);
+            byte[] bytes = this.getLocalClass(name);
+            if (bytes == null)
+                continue;
+            names.add(name);
+            digests.add(ClassCache.digest(bytes));
+            try
+            {
+                ArrayList dependencies = ClassDependencies.getDependencies(bytes);
+                for (int j = 0; j < dependencies.size(); j++)
+                {
+                    if (seen.add(dependencies.get(j)))
+                        toVisit.add(dependencies.get(j));
+                }
+            }
+            catch (IOException ioe)
+            {
+                // Cannot read the dependencies. They will be requested individually if needed.
+            }
+        }
+        manifest = new ClassData(req.className, null, (String[])names.toArray(new String[names.size()]),
+                (byte[][])digests.toArray(new byte[digests.size()][]), null);
+        this.manifests.put(req.className, manifest);
+        return manifest;
+    }
 }
@@ -17,7 +17,6 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.Serializable;
@@ -31,14 +30,45 @@ import jcsp.net2.NodeID;
 final class ClassRequest
     implements Serializable
 {
+    /**
+     * The SUID of the original single-class request, so that older Nodes can still read requests (ignoring the new
+     * fields, and so answering any request as a single one) and send them to us (with a type of zero, i.e. a single
+     * request)
+     */
+    private static final long serialVersionUID = 6314929181723569368L;
+
+    /**
+     * Request for the bytes of a single class
+     */
+    static final int SINGLE = 1;
+
+    /**
+     * Request for the names and digests of a class and all the classes it depends upon
+     */
+    static final int MANIFEST = 2;
+
+    /**
+     * Request for the bytes of a number of classes at once
+     */
+    static final int BATCH = 3;
+
+    final int type;
     final NodeID originatingNode;
     final String className;
+    final String[] classNames;
     final NetChannelLocation returnLocation;
 
     ClassRequest(NodeID originator, String name, NetChannelLocation response)
     {
+        this(ClassRequest.SINGLE, originator, name, null, response);
+    }
+
+    ClassRequest(int requestType, NodeID originator, String name, String[] names, NetChannelLocation response)
+    {
+        this.type = requestType;
         this.originatingNode = originator;
         this.className = name;
+        this.classNames = names;
         this.returnLocation = response;
     }
 }
@@ -17,9 +17,10 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
 
 import jcsp.net2.JCSPNetworkException;
@@ -43,6 +44,17 @@ final class DynamicClassLoader
 
     final Hashtable classes = new Hashtable();
 
+    /**
+     * The digests of every class named in a manifest received so far
+     */
+    final Hashtable digests = new Hashtable();
+
+    /**
+     * Set once the originating Node has answered a manifest request with a single class, i.e. it is too old to build
+     * manifests. From then on, classes are requested one at a time.
+     */
+    private boolean manifestUnsupported = false;
+
     DynamicClassLoader(NodeID originator, NetChannelLocation requestLocation)
     {
         super(ClassLoader.getSystemClassLoader());
@@ -89,15 +101,26 @@ final class DynamicClassLoader
                 throw new ClassNotFoundException(className);
             }
 
+            // If this class has not been in a manifest, fetch it along with everything it depends upon
+            if (!this.manifestUnsupported && !this.digests.containsKey(className))
+            {
+                this.prefetch(className);
+                bytes = (byte[])classes.get(className);
+                if (bytes != null)
+                {
+                    return bytes;
+                }
+            }
+
             ClassRequest req = new ClassRequest(this.originatingNode, className,
                     (NetChannelLocation)this.classDataResponse.getLocation());
-            this.requestClassData.write(req);
-            ClassData data = (ClassData)classDataResponse.read();
+            ClassData data = this.request(req);
             if (data.bytes == null)
             {
                 throw new ClassNotFoundException(className);
             }
             this.classes.put(className, data.bytes);
+            ClassCache.put(ClassCache.digest(data.bytes), data.bytes);
             return data.bytes;
         }
         catch (JCSPNetworkException jne)
@@ -109,4 +132,96 @@ final class DynamicClassLoader
             throw new ClassNotFoundException(className);
         }
     }
+
+    /**
+     * Gets the manifest of a class and its dependencies from the originating Node, fetching any of the classes we do
+     * not have. Used when passing on classes to another Node.
+     */
+    synchronized ClassData requestManifest(String className)
+        throws JCSPNetworkException
+    {
+        if (this.requestClassData == null || this.manifestUnsupported)
+        {
+            return null;
+        }
+        return this.prefetch(className);
+    }
+
+    /**
+     * Fetches the dependency closure of a class in two requests; one for the manifest of names and digests, and one
+     * for the classes that are neither available locally nor in the class cache.
+     */
+    private ClassData prefetch(String className)
+        throws JCSPNetworkException
+    {
+        NetChannelLocation response = (NetChannelLocation)this.classDataResponse.getLocation();
+        ClassData manifest = this.request(new ClassRequest(ClassRequest.MANIFEST, this.originatingNode, className,
+                null, response));
+        if (manifest.classNames == null)
+        {
+            // An older Node, which has treated the manifest request as a request for the class itself
+            this.manifestUnsupported = true;
+            if (manifest.bytes != null)
+            {
+                this.classes.put(className, manifest.bytes);
+                ClassCache.put(ClassCache.digest(manifest.bytes), manifest.bytes);
+            }
+            return manifest;
+        }
+
+        ArrayList missing = new ArrayList();
+        for (int i = 0; i < manifest.classNames.length; i++)
+        {
+            String name = manifest.classNames[i];
+            this.digests.put(name, manifest.digests[i]);
+            if (this.classes.containsKey(name))
+            {
+                continue;
+            }
+            // Classes already on our class path will never be asked for
+            if (!name.equals(className)
+                && ClassLoader.getSystemResource(name.replace('.', '/') + ".class") != null)
+            {
+                continue;
+            }
+            byte[] cached = ClassCache.get(manifest.digests[i]);
+            if (cached != null)
+            {
+                this.classes.put(name, cached);
+            }
+            else
+            {
+                missing.add(name);
+            }
+        }
+
+        if (missing.size() > 0)
+        {
+            String[] names = (String[])missing.toArray(new String[missing.size()]);
+            ClassData batch = this.request(new ClassRequest(ClassRequest.BATCH, this.originatingNode, className,
+                    names, response));
+            for (int i = 0; i < names.length; i++)
+            {
+                byte[] bytes = batch.classBytes[i];
+                if (bytes == null)
+                {
+                    continue;
+                }
+                byte[] digest = ClassCache.digest(bytes);
+                if (Arrays.equals(digest, (byte[])this.digests.get(names[i])))
+                {
+                    this.classes.put(names[i], bytes);
+                    ClassCache.put(digest, bytes);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private ClassData request(ClassRequest req)
+        throws JCSPNetworkException
+    {
+        this.requestClassData.write(req);
+        return (ClassData)this.classDataResponse.read();
+    }
 }
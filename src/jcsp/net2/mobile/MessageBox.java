@@ -17,9 +17,10 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
+import java.util.ArrayList;
+
 import jcsp.lang.Alternative;
 import jcsp.lang.CSProcess;
 import jcsp.lang.Guard;
@@ -31,9 +32,21 @@ import jcsp.net2.NetChannelOutput;
 import jcsp.net2.NetworkMessageFilter;
 import jcsp.net2.Node;
 
+/**
+ * The home of a mobile channel. The message box stays on the Node where the mobile channel was created and acts as a
+ * forwarding pointer to wherever the input end currently is. Messages sent to the box are forwarded directly to the
+ * input end, and registered output ends are told of each new input location so that their subsequent messages go
+ * point-to-point. While the input end is moving, messages are held here until it arrives.
+ * 
+ * @author Kevin
+ */
 final class MessageBox
     implements CSProcess
 {
+    private static final int CONTROL = 0;
+
+    private static final int DATA = 1;
+
     private final NetAltingChannelInput in;
 
     private final NetAltingChannelInput fromInputEnd;
@@ -42,7 +55,9 @@ final class MessageBox
 
     private final NetworkMessageFilter.FilterTx encoder;
 
-    private final NetChannelLocation inputEndLoc = null;
+    private NetChannelLocation inputEndLoc = null;
+
+    private final ArrayList writers = new ArrayList();
 
     MessageBox(NetAltingChannelInput intoBox, NetAltingChannelInput requestChannel,
             NetworkMessageFilter.FilterTx encodingFilter)
@@ -56,78 +71,122 @@ final class MessageBox
     {
         try
         {
+            Guard[] guards = { this.fromInputEnd, this.in };
+            boolean[] preconditions = { true, false };
+            Alternative alt = new Alternative(guards);
             while (true)
             {
-                MobileChannelMessage msg = (MobileChannelMessage)fromInputEnd.read();
-                if (msg.type == MobileChannelMessage.REQUEST)
+                // We only accept data when we know where the input end is
+                preconditions[MessageBox.DATA] = this.inputEndLoc != null;
+                switch (alt.priSelect(preconditions))
                 {
-                    if (!msg.inputLocation.equals(this.inputEndLoc))
-                    {
-                        if (this.toInputEnd != null)
-                        {
-                            this.toInputEnd.destroy();
-                        }
-                        this.toInputEnd = NetChannel.one2net(msg.inputLocation, this.encoder);
-                    }
-                    Object obj = this.in.read();
-                    this.toInputEnd.write(obj);
-                }
-                else if (msg.type == MobileChannelMessage.CHECK)
-                {
-                    if (!msg.inputLocation.equals(this.inputEndLoc))
-                    {
-                        if (this.toInputEnd != null)
-                        {
-                            this.toInputEnd.destroy();
-                        }
-                        this.toInputEnd = NetChannel.one2net(msg.inputLocation, this.encoder);
-                    }
-
-                    MobileChannelMessage response = new MobileChannelMessage();
-                    response.type = MobileChannelMessage.CHECK_RESPONSE;
-                    if (this.in.pending())
-                    {
-                        response.ready = true;
-                        this.toInputEnd.write(response);
-                    }
-                    else
-                    {
-                        this.toInputEnd.write(response);
-                        Guard[] guards = { this.fromInputEnd, this.in };
-                        Alternative alt = new Alternative(guards);
-                        int selected = alt.priSelect();
-                        if (selected == 1)
+                    case CONTROL:
+                        this.control((MobileChannelMessage)this.fromInputEnd.read());
+                        break;
+
+                    case DATA:
+                        // Use an extended read so the writer is not released until the message has reached the
+                        // input end. This keeps forwarded and direct messages from a writer in order.
+                        Object obj = this.in.startRead();
+                        while (true)
                         {
-                            MobileChannelMessage resp = new MobileChannelMessage();
-                            resp.type = MobileChannelMessage.CHECK_RESPONSE;
-                            resp.ready = true;
                             try
                             {
-                                // Try and write to the input end
-                                this.toInputEnd.write(response);
+                                this.toInputEnd.write(obj);
+                                break;
                             }
-                            catch (JCSPNetworkException ex)
+                            catch (JCSPNetworkException jne)
                             {
-                                // The channel input end is no longer there.
-                                // Quietly ignore and wait for request.
+                                // The input end has moved away. Wait for it to arrive somewhere and try again.
+                                this.departed();
+                                while (this.inputEndLoc == null)
+                                    this.control((MobileChannelMessage)this.fromInputEnd.read());
                             }
                         }
-                        // If a new message from the input end has been received, then deal with
-                        // that message separately. Go into the main loop again.
-                    }
+                        this.in.endRead();
+                        break;
                 }
             }
         }
         catch (JCSPNetworkException jne)
         {
             // Something went wrong during comms. Kill the message box and all channels.
+            MobileChannelManager.deregister(((NetChannelLocation)this.in.getLocation()).getVCN());
             this.in.destroy();
             this.fromInputEnd.destroy();
             if (this.toInputEnd != null)
             {
                 this.toInputEnd.destroy();
             }
+            for (int i = 0; i < this.writers.size(); i++)
+                ((NetChannelOutput)this.writers.get(i)).destroy();
             Node.err.log(this.getClass(), "Message box threw exception during comms.  Destroying");
         }
     }
+
+    private void control(MobileChannelMessage msg)
+    {
+        if (msg.type == MobileChannelMessage.MOVED)
+        {
+            if (!msg.inputLocation.equals(this.inputEndLoc))
+            {
+                this.departed();
+                this.inputEndLoc = msg.inputLocation;
+                this.toInputEnd = NetChannel.one2net(msg.inputLocation, this.encoder);
+            }
+            // Lazily redirect the writers. They will pick this up on their next write.
+            for (int i = this.writers.size() - 1; i >= 0; i--)
+                this.redirect(i);
+        }
+        else if (msg.type == MobileChannelMessage.DEPARTED)
+        {
+            this.departed();
+        }
+        else if (msg.type == MobileChannelMessage.REGISTER)
+        {
+            this.writers.add(NetChannel.one2net(msg.writerLocation));
+            if (this.inputEndLoc != null)
+                this.redirect(this.writers.size() - 1);
+        }
+        else if (msg.type == MobileChannelMessage.DEREGISTER)
+        {
+            for (int i = this.writers.size() - 1; i >= 0; i--)
+            {
+                NetChannelOutput writer = (NetChannelOutput)this.writers.get(i);
+                if (msg.writerLocation.equals(writer.getLocation()))
+                {
+                    writer.destroy();
+                    this.writers.remove(i);
+                }
+            }
+        }
+    }
+
+    private void departed()
+    {
+        if (this.toInputEnd != null)
+        {
+            this.toInputEnd.destroy();
+            this.toInputEnd = null;
+        }
+        this.inputEndLoc = null;
+    }
+
+    private void redirect(int index)
+    {
+        MobileChannelMessage redirect = new MobileChannelMessage();
+        redirect.type = MobileChannelMessage.REDIRECT;
+        redirect.inputLocation = this.inputEndLoc;
+        NetChannelOutput writer = (NetChannelOutput)this.writers.get(index);
+        try
+        {
+            writer.asyncWrite(redirect);
+        }
+        catch (JCSPNetworkException jne)
+        {
+            // The writer has gone or moved. It will register again if it still exists.
+            writer.destroy();
+            this.writers.remove(index);
+        }
+    }
 }
@@ -17,7 +17,6 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.IOException;
@@ -36,6 +35,13 @@ import jcsp.net2.NetworkMessageFilter;
 import jcsp.net2.ObjectNetworkMessageFilter;
 import jcsp.net2.NetworkMessageFilter.FilterRx;
 
+/**
+ * The input end of a mobile channel. The location of the channel is always that of its message box, which stays on
+ * the creating Node. Whenever the input end arrives at a Node it creates a new local input and tells the message box,
+ * which forwards messages there and redirects the output ends so that they send directly.
+ * 
+ * @author Kevin
+ */
 public final class MobileChannelInput
     implements NetChannelInput, Serializable
 {
@@ -53,11 +59,13 @@ public final class MobileChannelInput
         NetAltingChannelInput toMsgBox = NetChannel.net2one();
         NetAltingChannelInput msgBoxReq = NetChannel.net2one();
         MessageBox msgBox = new MessageBox(toMsgBox, msgBoxReq, new ObjectNetworkMessageFilter.FilterTX());
-        new ProcessManager(msgBox).start();
         this.messageBoxLoc = (NetChannelLocation)toMsgBox.getLocation();
         this.msgBoxReqLoc = (NetChannelLocation)msgBoxReq.getLocation();
+        MobileChannelManager.register(this.messageBoxLoc.getVCN(), this.msgBoxReqLoc);
+        new ProcessManager(msgBox).start();
         this.actualIn = NetChannel.net2one();
         this.toMessageBox = NetChannel.one2net(this.msgBoxReqLoc);
+        this.arrived();
     }
 
     public MobileChannelInput(NetworkMessageFilter.FilterTx encoder, FilterRx decoder)
@@ -65,11 +73,21 @@ public final class MobileChannelInput
         NetAltingChannelInput toMsgBox = NetChannel.net2one(decoder);
         NetAltingChannelInput msgBoxReq = NetChannel.net2one();
         MessageBox msgBox = new MessageBox(toMsgBox, msgBoxReq, encoder);
-        new ProcessManager(msgBox).start();
         this.messageBoxLoc = (NetChannelLocation)toMsgBox.getLocation();
         this.msgBoxReqLoc = (NetChannelLocation)msgBoxReq.getLocation();
+        MobileChannelManager.register(this.messageBoxLoc.getVCN(), this.msgBoxReqLoc);
+        new ProcessManager(msgBox).start();
         this.actualIn = NetChannel.net2one(decoder);
         this.toMessageBox = NetChannel.one2net(this.msgBoxReqLoc);
+        this.arrived();
+    }
+
+    private void arrived()
+    {
+        MobileChannelMessage msg = new MobileChannelMessage();
+        msg.type = MobileChannelMessage.MOVED;
+        msg.inputLocation = (NetChannelLocation)this.actualIn.getLocation();
+        this.toMessageBox.write(msg);
     }
 
     public void endRead()
@@ -79,22 +97,12 @@ public final class MobileChannelInput
 
     public Object read()
     {
-        MobileChannelMessage msg = new MobileChannelMessage();
-        msg.type = MobileChannelMessage.REQUEST;
-        msg.inputLocation = (NetChannelLocation)this.actualIn.getLocation();
-        this.toMessageBox.write(msg);
-        Object toReturn = this.actualIn.read();
-        return toReturn;
+        return this.actualIn.read();
     }
 
     public Object startRead()
     {
-        MobileChannelMessage msg = new MobileChannelMessage();
-        msg.type = MobileChannelMessage.REQUEST;
-        msg.inputLocation = (NetChannelLocation)this.actualIn.getLocation();
-        this.toMessageBox.write(msg);
-        Object toReturn = this.actualIn.startRead();
-        return toReturn;
+        return this.actualIn.startRead();
     }
 
     public void poison(int strength)
@@ -123,7 +131,12 @@ public final class MobileChannelInput
     {
         output.writeObject(this.messageBoxLoc);
         output.writeObject(this.msgBoxReqLoc);
+        // Destroy the local input first. Any message being sent to it is rejected and resent via the message box once
+        // we have arrived.
         this.actualIn.destroy();
+        MobileChannelMessage msg = new MobileChannelMessage();
+        msg.type = MobileChannelMessage.DEPARTED;
+        this.toMessageBox.write(msg);
         this.toMessageBox.destroy();
     }
 
@@ -133,6 +146,7 @@ public final class MobileChannelInput
         this.messageBoxLoc = (NetChannelLocation)input.readObject();
         this.msgBoxReqLoc = (NetChannelLocation)input.readObject();
         this.actualIn = NetChannel.net2one();
-        this.toMessageBox = NetChannel.one2net(this.messageBoxLoc);
+        this.toMessageBox = NetChannel.one2net(this.msgBoxReqLoc);
+        this.arrived();
     }
 }
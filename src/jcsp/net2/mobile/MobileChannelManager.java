@@ -0,0 +1,84 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+package jcsp.net2.mobile;
+
+import java.util.Hashtable;
+
+import jcsp.lang.CSProcess;
+import jcsp.lang.ProcessManager;
+import jcsp.net2.JCSPNetworkException;
+import jcsp.net2.NetChannel;
+import jcsp.net2.NetChannelInput;
+import jcsp.net2.NetChannelLocation;
+import jcsp.net2.NetChannelOutput;
+
+/**
+ * Runs on every Node that is home to a message box. Output ends elsewhere only know the location of the message box
+ * they were created for, so they send their redirection registration here, on a well known VCN, and the registration
+ * is passed on to the relevant message box.
+ */
+final class MobileChannelManager
+    implements CSProcess
+{
+    static final int VCN = 11;
+
+    static Hashtable boxes = new Hashtable();
+
+    static NetChannelInput in = NetChannel.numberedNet2One(MobileChannelManager.VCN);
+
+    static
+    {
+        MobileChannelManager manager = new MobileChannelManager();
+        new ProcessManager(manager).start();
+    }
+
+    static void register(int boxVCN, NetChannelLocation controlLocation)
+    {
+        MobileChannelManager.boxes.put(new Integer(boxVCN), controlLocation);
+    }
+
+    static void deregister(int boxVCN)
+    {
+        MobileChannelManager.boxes.remove(new Integer(boxVCN));
+    }
+
+    public void run()
+    {
+        while (true)
+        {
+            try
+            {
+                MobileChannelMessage msg = (MobileChannelMessage)in.read();
+                NetChannelLocation control = (NetChannelLocation)MobileChannelManager.boxes.get(new Integer(
+                        msg.boxVCN));
+                if (control != null)
+                {
+                    NetChannelOutput out = NetChannel.one2net(control);
+                    out.asyncWrite(msg);
+                    out.destroy();
+                }
+            }
+            catch (JCSPNetworkException jne)
+            {
+                // Do nothing
+            }
+        }
+    }
+}
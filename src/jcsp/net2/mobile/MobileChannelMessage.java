@@ -17,7 +17,6 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.Serializable;
@@ -30,15 +29,39 @@ import jcsp.net2.NetChannelLocation;
 final class MobileChannelMessage
     implements Serializable
 {
-    static final int REQUEST = 1;
+    /**
+     * Sent by an input end to its message box when it has arrived at a Node. The input location is where the message
+     * box, and any registered output ends, should now send to directly.
+     */
+    static final int MOVED = 1;
+
+    /**
+     * Sent by an input end to its message box when it is about to move. The message box holds messages until the
+     * input end arrives.
+     */
+    static final int DEPARTED = 2;
 
-    static final int CHECK = 2;
+    /**
+     * Sent by an output end, via the MobileChannelManager of the message box's Node, to register for redirection.
+     */
+    static final int REGISTER = 3;
 
-    static final int CHECK_RESPONSE = 3;
+    /**
+     * Sent by a message box to its registered output ends to redirect them to the current input location.
+     */
+    static final int REDIRECT = 4;
+
+    /**
+     * Sent by an output end, via the MobileChannelManager of the message box's Node, when it is destroyed, moves or
+     * no longer wants redirection.
+     */
+    static final int DEREGISTER = 5;
 
     int type = -1;
 
-    boolean ready = false;
+    int boxVCN = -1;
 
     NetChannelLocation inputLocation = null;
+
+    NetChannelLocation writerLocation = null;
 }
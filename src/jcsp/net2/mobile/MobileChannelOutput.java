@@ -17,7 +17,6 @@
 //  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
-
 package jcsp.net2.mobile;
 
 import java.io.IOException;
@@ -26,6 +25,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import jcsp.net2.JCSPNetworkException;
+import jcsp.net2.NetAltingChannelInput;
 import jcsp.net2.NetChannel;
 import jcsp.net2.NetChannelLocation;
 import jcsp.net2.NetChannelOutput;
@@ -34,6 +34,16 @@ import jcsp.net2.NetworkPoisonException;
 import jcsp.net2.NetworkMessageFilter.FilterTx;
 
 /**
+ * The output end of a mobile channel. Messages are initially sent to the message box on the channel's home Node. The
+ * output end registers with the message box, which redirects it whenever the input end arrives somewhere. The redirect
+ * is picked up lazily at the next write, after which messages go point-to-point. If the input end has since moved on,
+ * the direct write is rejected and the message is resent via the message box.
+ * <p>
+ * Asynchronous writes are never sent point-to-point, since a rejected asynchronous message would be lost when the
+ * input end moves. Once an output end has used asyncWrite it deregisters from redirection and sends everything via
+ * the message box, so that its messages stay in order.
+ * </p>
+ * 
  * @author Kevin
  */
 public final class MobileChannelOutput
@@ -41,28 +51,110 @@ public final class MobileChannelOutput
 {
     private NetChannelLocation msgBoxLocation;
 
+    private NetChannelLocation directLocation = null;
+
     private transient NetChannelOutput actualOut;
 
+    private transient NetAltingChannelInput redirects = null;
+
+    private boolean viaBox = false;
+
+    private transient FilterTx encoder;
+
     public MobileChannelOutput(NetChannelLocation loc)
     {
         this.msgBoxLocation = loc;
         this.actualOut = NetChannel.one2net(loc);
+        this.register();
     }
 
     public MobileChannelOutput(NetChannelLocation loc, FilterTx encoder)
     {
         this.msgBoxLocation = loc;
+        this.encoder = encoder;
         this.actualOut = NetChannel.one2net(loc, encoder);
+        this.register();
+    }
+
+    private void register()
+    {
+        this.redirects = NetChannel.net2one();
+        this.sendToManager(MobileChannelMessage.REGISTER);
+    }
+
+    private void deregister()
+    {
+        if (this.redirects != null)
+        {
+            this.sendToManager(MobileChannelMessage.DEREGISTER);
+            this.redirects.destroy();
+            this.redirects = null;
+        }
+    }
+
+    private void sendToManager(int type)
+    {
+        MobileChannelMessage msg = new MobileChannelMessage();
+        msg.type = type;
+        msg.boxVCN = this.msgBoxLocation.getVCN();
+        msg.writerLocation = (NetChannelLocation)this.redirects.getLocation();
+        try
+        {
+            NetChannelOutput toManager = NetChannel.one2net(this.msgBoxLocation.getNodeID(), MobileChannelManager.VCN);
+            toManager.asyncWrite(msg);
+            toManager.destroy();
+        }
+        catch (JCSPNetworkException jne)
+        {
+            // The home Node cannot be reached. If registering, we simply keep sending via the message box.
+        }
+    }
+
+    private void connect(NetChannelLocation loc)
+    {
+        this.actualOut.destroy();
+        if (this.encoder == null)
+            this.actualOut = NetChannel.one2net(loc);
+        else
+            this.actualOut = NetChannel.one2net(loc, this.encoder);
+    }
+
+    private void checkRedirect()
+    {
+        if (this.redirects == null)
+            return;
+        NetChannelLocation latest = null;
+        while (this.redirects.pending())
+            latest = ((MobileChannelMessage)this.redirects.read()).inputLocation;
+        if (latest != null && !latest.equals(this.directLocation))
+        {
+            this.directLocation = latest;
+            this.connect(latest);
+        }
     }
 
     public void write(Object object)
     {
-        this.actualOut.write(object);
+        this.checkRedirect();
+        try
+        {
+            this.actualOut.write(object);
+        }
+        catch (JCSPNetworkException jne)
+        {
+            if (this.directLocation == null)
+                throw jne;
+            // The input end has moved on. Fall back to the message box, which knows where it is going.
+            this.directLocation = null;
+            this.connect(this.msgBoxLocation);
+            this.actualOut.write(object);
+        }
     }
 
     public void destroy()
     {
         this.actualOut.destroy();
+        this.deregister();
     }
 
     public NetLocation getLocation()
@@ -78,11 +170,22 @@ public final class MobileChannelOutput
     public void asyncWrite(Object obj)
         throws JCSPNetworkException, NetworkPoisonException
     {
+        if (!this.viaBox)
+        {
+            this.viaBox = true;
+            this.deregister();
+            if (this.directLocation != null)
+            {
+                this.directLocation = null;
+                this.connect(this.msgBoxLocation);
+            }
+        }
         this.actualOut.asyncWrite(obj);
     }
 
     public void setEncoder(FilterTx encoder)
     {
+        this.encoder = encoder;
         this.actualOut.setEncoder(encoder);
     }
 
@@ -90,14 +193,24 @@ public final class MobileChannelOutput
         throws IOException
     {
         output.writeObject(this.msgBoxLocation);
+        output.writeObject(this.directLocation);
+        output.writeBoolean(this.viaBox);
         this.actualOut.destroy();
+        this.deregister();
     }
 
     private void readObject(ObjectInputStream input)
         throws IOException, ClassNotFoundException
     {
         this.msgBoxLocation = (NetChannelLocation)input.readObject();
-        this.actualOut = NetChannel.one2net(this.msgBoxLocation);
+        this.directLocation = (NetChannelLocation)input.readObject();
+        this.viaBox = input.readBoolean();
+        if (this.directLocation == null)
+            this.actualOut = NetChannel.one2net(this.msgBoxLocation);
+        else
+            this.actualOut = NetChannel.one2net(this.directLocation);
+        if (!this.viaBox)
+            this.register();
     }
 
 }
@@ -0,0 +1,402 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay;
+
+import jcsp.lang.*;
+import jcsp.util.Buffer;
+
+/**
+ * A dynamically load-balanced farm of workers that keeps its output in input order.
+ *
+ * <H2>Process Diagram</H2>
+ * <H3>External View</H3>
+ * <PRE>
+ *          ________
+ *     in  |        | out
+ *    -->--|  Farm  |-->--
+ *         |________|
+ * </PRE>
+ * <H3>Internal View</H3>
+ * <PRE>
+ *         _______________________________________________________
+ *        |                       ________                        |
+ *        |                  +-->| worker |-->+                   |
+ *     in |   _________      |   |________|   |    ___________    | out
+ *    -->-|--| emitter |-->--+       :        +-->| collector |---|-->--
+ *        |  |_________|     |    ________    |   |___________|   |
+ *        |       |          +-->| worker |-->+         |         |
+ *        |       |              |________|             |         |
+ *        |       +-----------<-- credits (window) --<--+    Farm |
+ *        |_______________________________________________________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>Farm</TT> applies a {@link Pipeline.Function} to each object
+ * flowing through it, using a number of worker processes in parallel.
+ * The <I>emitter</I> numbers each object and offers it on a channel shared by all
+ * the workers, so that it is taken by whichever worker is free.  Workers of
+ * different speeds, or jobs of different costs, do not hold each other up
+ * &ndash; unlike the lockstep rounds of {@link Paraplex}/{@link Deparaplex}
+ * or {@link Plex}/{@link Multiplex}.
+ * <P>
+ * The <I>collector</I> takes results in whatever order they finish and outputs
+ * them in input order.  Results that arrive early are held until their turn.
+ * At most <TT>window</TT> objects may be in the farm at any time: when it is
+ * full, the emitter waits for the collector to output one.  This bounds the
+ * reorder memory to <TT>window</TT> results.  For full use of the workers,
+ * <TT>window</TT> should be comfortably larger than the number of workers.
+ * <P>
+ * The function is applied concurrently by the workers, so it must be
+ * a pure function (as for a stateless {@link Pipeline} stage).
+ * <P>
+ * The time each worker spends applying the function and the number of objects
+ * it has processed may be read at any time, while the farm is running
+ * (see {@link #getUtilization(int)}).
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in</TH>
+ *     <TD>java.lang.Object</TD>
+ *     <TD>
+ *       Whatever the function accepts.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>java.lang.Object</TD>
+ *     <TD>
+ *       The function's results, in the order of their inputs.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ * <P>
+ * <H2>Example</H2>
+ * <PRE>
+ * import jcsp.lang.*;
+ * import jcsp.plugNplay.*;
+ * 
+ * public class FarmExample {
+ * 
+ *   public static void main (String[] argv) {
+ * 
+ *     final One2OneChannel a = Channel.one2one ();
+ *     final One2OneChannel b = Channel.one2one ();
+ * 
+ *     final Pipeline.Function slowSquare = new Pipeline.Function () {
+ *       public Object apply (Object o) {
+ *         final int i = ((Integer) o).intValue ();
+ *         try {
+ *           Thread.sleep ((i%4)*100);            // uneven job costs
+ *         } catch (InterruptedException e) {
+ *         }
+ *         return new Integer (i*i);
+ *       }
+ *     };
+ * 
+ *     new Parallel (
+ *       new CSProcess[] {
+ *         new Numbers (a.out ()),
+ *         new Farm (a.in (), b.out (), slowSquare, 4, 16),
+ *         new Printer (b.in (), "--> ", "\n")
+ *       }
+ *     ).run ();
+ * 
+ *   }
+ * 
+ * }
+ * </PRE>
+ *
+ * @see Pipeline
+ */
+
+public final class Farm implements CSProcess
+{
+   /** The input Channel */
+   private final ChannelInput in;
+   
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /** The function applied by the workers */
+   private final Pipeline.Function function;
+   
+   /** The workers (which also keep their own statistics) */
+   private final Worker[] workers;
+   
+   /** The most objects that may be in the farm at once */
+   private final int window;
+   
+   /** When this farm was last started (System.nanoTime) */
+   private volatile long startTime;
+   
+   /** Whether this farm has been started */
+   private volatile boolean started = false;
+   
+   /**
+    * Construct a new Farm process with the input Channel in and the output Channel out,
+    * allowing up to twice as many objects in the farm as there are workers.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    * @param function the (pure) function to apply to each object
+    * @param workers the number of workers (must be positive)
+    */
+   public Farm(final ChannelInput in, final ChannelOutput out,
+               final Pipeline.Function function, final int workers)
+   {
+      this(in, out, function, workers, 2*workers);
+   }
+   
+   /**
+    * Construct a new Farm process with the input Channel in and the output Channel out.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    * @param function the (pure) function to apply to each object
+    * @param workers the number of workers (must be positive)
+    * @param window the most objects that may be in the farm at once, which is also
+    *                the most results the collector will hold back (must be positive)
+    */
+   public Farm(final ChannelInput in, final ChannelOutput out,
+               final Pipeline.Function function, final int workers, final int window)
+   {
+      if (function == null)
+         throw new IllegalArgumentException("function must not be null");
+      if (workers <= 0)
+         throw new IllegalArgumentException("workers must be positive: " + workers);
+      if (window <= 0)
+         throw new IllegalArgumentException("window must be positive: " + window);
+      this.in = in;
+      this.out = out;
+      this.function = function;
+      this.window = window;
+      this.workers = new Worker[workers];
+   }
+   
+   /**
+    * Returns the number of workers in this farm.
+    *
+    * @return the number of workers.
+    */
+   public int getWorkers()
+   {
+      return workers.length;
+   }
+   
+   /**
+    * Returns the number of objects processed by a worker since this farm was started.
+    *
+    * @param worker the index of the worker (from 0).
+    * @return the number of objects processed, or 0 if the farm has not been started.
+    */
+   public long getTaskCount(final int worker)
+   {
+      final Worker w = workers[worker];
+      return (w == null) ? 0 : w.tasks;
+   }
+   
+   /**
+    * Returns the time a worker has spent applying the function since this farm was started.
+    *
+    * @param worker the index of the worker (from 0).
+    * @return the busy time in nanoseconds, or 0 if the farm has not been started.
+    */
+   public long getBusyTime(final int worker)
+   {
+      final Worker w = workers[worker];
+      return (w == null) ? 0 : w.busy;
+   }
+   
+   /**
+    * Returns the fraction of the time, since this farm was started, that a worker
+    * has spent applying the function.  Low figures for all workers mean that the farm
+    * is starved of input (or blocked on output); uneven figures mean that some workers
+    * are idle while others are busy &ndash; i.e. there are more workers than needed
+    * or the <TT>window</TT> is too small.
+    *
+    * @param worker the index of the worker (from 0).
+    * @return the utilization, between 0.0 and 1.0 (0.0 if the farm has not been started).
+    */
+   public double getUtilization(final int worker)
+   {
+      if (!started)
+         return 0.0;
+      final long elapsed = System.nanoTime() - startTime;
+      return (elapsed <= 0) ? 0.0 : Math.min(1.0, ((double) getBusyTime(worker))/elapsed);
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      final One2AnyChannel jobs = Channel.one2any();
+      final Any2OneChannel results = Channel.any2one();
+      final One2OneChannel credits = Channel.one2one(new Buffer(window));
+      
+      final CSProcess[] procs = new CSProcess[workers.length + 2];
+      for (int i = 0; i < workers.length; i++)
+      {
+         workers[i] = new Worker(jobs.in(), results.out(), function);
+         procs[i] = workers[i];
+      }
+      procs[workers.length] = new Emitter(in, jobs.out(), credits.out());
+      procs[workers.length + 1] = new Collector(results.in(), out, credits.in(), window);
+      
+      startTime = System.nanoTime();
+      started = true;
+      new Parallel(procs).run();
+   }
+   
+   /**
+    * An object in the farm, with its position in the input stream.
+    */
+   private static final class Job
+   {
+      final long seq;
+      
+      Object value;
+      
+      Job(final long seq, final Object value)
+      {
+         this.seq = seq;
+         this.value = value;
+      }
+   }
+   
+   /**
+    * Numbers the input objects and offers them to the workers,
+    * taking a credit for each.
+    */
+   private static final class Emitter implements CSProcess
+   {
+      private final ChannelInput in;
+      
+      private final ChannelOutput jobs;
+      
+      private final ChannelOutput credits;
+      
+      Emitter(final ChannelInput in, final ChannelOutput jobs, final ChannelOutput credits)
+      {
+         this.in = in;
+         this.jobs = jobs;
+         this.credits = credits;
+      }
+      
+      public void run()
+      {
+         long seq = 0;
+         while (true)
+         {
+            final Object o = in.read();
+            credits.write(Boolean.TRUE);      // blocks while the farm is full
+            jobs.write(new Job(seq++, o));
+         }
+      }
+   }
+   
+   /**
+    * Applies the function to whatever job it is given, keeping count
+    * of its work.
+    */
+   private static final class Worker implements CSProcess
+   {
+      private final ChannelInput jobs;
+      
+      private final ChannelOutput results;
+      
+      private final Pipeline.Function function;
+      
+      volatile long tasks = 0;
+      
+      volatile long busy = 0;
+      
+      Worker(final ChannelInput jobs, final ChannelOutput results, final Pipeline.Function function)
+      {
+         this.jobs = jobs;
+         this.results = results;
+         this.function = function;
+      }
+      
+      public void run()
+      {
+         while (true)
+         {
+            final Job job = (Job) jobs.read();
+            final long t0 = System.nanoTime();
+            job.value = function.apply(job.value);
+            busy += System.nanoTime() - t0;
+            tasks++;
+            results.write(job);
+         }
+      }
+   }
+   
+   /**
+    * Restores input order, holding back early results, and returns
+    * a credit for each object output.
+    */
+   private static final class Collector implements CSProcess
+   {
+      private final ChannelInput results;
+      
+      private final ChannelOutput out;
+      
+      private final ChannelInput credits;
+      
+      /** Early results, indexed by position modulo the window */
+      private final Job[] held;
+      
+      Collector(final ChannelInput results, final ChannelOutput out,
+                final ChannelInput credits, final int window)
+      {
+         this.results = results;
+         this.out = out;
+         this.credits = credits;
+         this.held = new Job[window];
+      }
+      
+      public void run()
+      {
+         long next = 0;
+         while (true)
+         {
+            final Job job = (Job) results.read();
+            held[(int) (job.seq % held.length)] = job;
+            int slot = (int) (next % held.length);
+            while ((held[slot] != null) && (held[slot].seq == next))
+            {
+               out.write(held[slot].value);
+               held[slot] = null;
+               credits.read();
+               next++;
+               slot = (int) (next % held.length);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,379 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay;
+
+import java.util.*;
+import jcsp.lang.*;
+
+/**
+ * Builds a linear chain of processes, <I>fusing</I> neighbouring stateless stages
+ * into a single process.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *          ______________________________________
+ *     in  |   _______     _______     _______    | out
+ *    -->--|--| stage |-->| stage |-->| stage |---|-->--
+ *         |  |_______|   |_______|   |_______|   |
+ *         |                             Pipeline |
+ *         |______________________________________|
+ * </PRE>
+ * <H2>Description</H2>
+ * A chain such as {@link Successor} into {@link Mult} into {@link Sign} costs a
+ * thread and a channel communication per stage, although each stage only
+ * applies a trivial function to each object flowing through.  A <TT>Pipeline</TT>
+ * is told what the stages <I>are</I>, rather than being given the processes.
+ * Each run of neighbouring stateless stages (a <I>function</I> stage)
+ * is then collapsed into one process that reads an object, applies each function
+ * in turn and writes the result.  Only the remaining (process) stages get
+ * a thread of their own and only they are connected by internal channels.
+ * <P>
+ * The stateless stages provided are {@link #successor()}, {@link #mult(int)},
+ * {@link #sign(String)}, {@link #substitute(Object)} and {@link #identity()}
+ * (which has no effect on the fused chain).  Users may add their own with
+ * {@link #function(Pipeline.Function)} &ndash; the function must have no state
+ * or side-effects on which the rest of the network depends.  Any other
+ * single-input, single-output process is added with {@link #process(Pipeline.Stage)}
+ * and is never fused.
+ * <P>
+ * The <TT>in</TT> and <TT>out</TT> channels are used exactly as by the chain
+ * of separate processes: the same objects are output in the same order.
+ * The only difference is that the fused chain holds at most one object
+ * at a time, rather than one per stage.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in</TH>
+ *     <TD>java.lang.Object</TD>
+ *     <TD>
+ *       Whatever the first stage accepts.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>java.lang.Object</TD>
+ *     <TD>
+ *       Whatever the last stage outputs.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ * <P>
+ * <H2>Example</H2>
+ * The first three stages below run as a single process, which feeds
+ * an {@link Integrate} process.
+ *
+ * <PRE>
+ * import jcsp.lang.*;
+ * import jcsp.plugNplay.*;
+ * 
+ * public class PipelineExample {
+ * 
+ *   public static void main (String[] argv) {
+ * 
+ *     final One2OneChannel a = Channel.one2one ();
+ *     final One2OneChannel b = Channel.one2one ();
+ * 
+ *     new Parallel (
+ *       new CSProcess[] {
+ *         new Numbers (a.out ()),
+ *         new Pipeline (a.in (), b.out ())
+ *           .successor ()
+ *           .mult (3)
+ *           .function (new Pipeline.Function () {
+ *             public Object apply (Object o) {
+ *               final int i = ((Integer) o).intValue ();
+ *               return new Integer (i*i);
+ *             }
+ *           })
+ *           .process (new Pipeline.Stage () {
+ *             public CSProcess create (ChannelInput in, ChannelOutput out) {
+ *               return new Integrate (in, out);
+ *             }
+ *           }),
+ *         new Printer (b.in (), "--> ", "\n")
+ *       }
+ *     ).run ();
+ * 
+ *   }
+ * 
+ * }
+ * </PRE>
+ */
+
+public final class Pipeline implements CSProcess
+{
+   /**
+    * A stateless stage of a {@link Pipeline}.  Implementing this interface
+    * declares that <TT>apply</TT> is a pure function, so that it may be fused
+    * with its neighbours.
+    */
+   public interface Function
+   {
+      /**
+       * @param o an object flowing through the pipeline.
+       * @return the object to pass on.
+       */
+      public Object apply(Object o);
+   }
+   
+   /**
+    * A stage of a {@link Pipeline} that must run as a process in its own right.
+    */
+   public interface Stage
+   {
+      /**
+       * @param in the channel from which the process should read.
+       * @param out the channel to which the process should write.
+       * @return the process for this stage.
+       */
+      public CSProcess create(ChannelInput in, ChannelOutput out);
+   }
+   
+   /** The input Channel */
+   private final ChannelInput in;
+   
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /** The stages, in order: each is a Function or a Stage */
+   private final ArrayList stages = new ArrayList();
+   
+   /**
+    * Construct a new (empty) Pipeline from the input Channel in to the
+    * output Channel out.  Until stages are added, it behaves as an {@link Identity}.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    */
+   public Pipeline(final ChannelInput in, final ChannelOutput out)
+   {
+      this.in = in;
+      this.out = out;
+   }
+   
+   /**
+    * Adds a stage that behaves as {@link Successor}.
+    *
+    * @return this pipeline.
+    */
+   public Pipeline successor()
+   {
+      return function(SUCCESSOR);
+   }
+   
+   /**
+    * Adds a stage that behaves as {@link Mult}.
+    *
+    * @param n the multiplier.
+    * @return this pipeline.
+    */
+   public Pipeline mult(final int n)
+   {
+      return function(new Function()
+      {
+         public Object apply(Object o)
+         {
+            final int i = ((Integer) o).intValue();
+            return new Integer(n*i);
+         }
+      });
+   }
+   
+   /**
+    * Adds a stage that behaves as {@link Sign}.
+    *
+    * @param sign the string to prefix to each object.
+    * @return this pipeline.
+    */
+   public Pipeline sign(final String sign)
+   {
+      return function(new Function()
+      {
+         public Object apply(Object o)
+         {
+            return sign + o;
+         }
+      });
+   }
+   
+   /**
+    * Adds a stage that behaves as {@link Substitute}.
+    *
+    * @param o the object to output in place of each object input.
+    * @return this pipeline.
+    */
+   public Pipeline substitute(final Object o)
+   {
+      return function(new Function()
+      {
+         public Object apply(Object ignored)
+         {
+            return o;
+         }
+      });
+   }
+   
+   /**
+    * Adds a stage that behaves as {@link Identity}.  Once fused, such a stage
+    * does nothing at all, so it is not recorded.
+    *
+    * @return this pipeline.
+    */
+   public Pipeline identity()
+   {
+      return this;
+   }
+   
+   /**
+    * Adds a user-defined stateless stage, which will be fused with its neighbours.
+    *
+    * @param function the (pure) function to apply to each object.
+    * @return this pipeline.
+    */
+   public Pipeline function(final Function function)
+   {
+      if (function == null)
+         throw new IllegalArgumentException("function must not be null");
+      stages.add(function);
+      return this;
+   }
+   
+   /**
+    * Adds a stage that runs as a process of its own and is never fused.
+    *
+    * @param stage creates the process, given its input and output channels.
+    * @return this pipeline.
+    */
+   public Pipeline process(final Stage stage)
+   {
+      if (stage == null)
+         throw new IllegalArgumentException("stage must not be null");
+      stages.add(stage);
+      return this;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      // group neighbouring functions into single (fused) segments
+      final ArrayList segments = new ArrayList();
+      ArrayList fused = null;
+      for (int i = 0; i < stages.size(); i++)
+      {
+         final Object stage = stages.get(i);
+         if (stage instanceof Function)
+         {
+            if (fused == null)
+            {
+               fused = new ArrayList();
+               segments.add(fused);
+            }
+            fused.add(stage);
+         }
+         else
+         {
+            fused = null;
+            segments.add(stage);
+         }
+      }
+      if (segments.isEmpty())
+         segments.add(new ArrayList());
+      
+      final CSProcess[] procs = new CSProcess[segments.size()];
+      ChannelInput segmentIn = in;
+      for (int i = 0; i < procs.length; i++)
+      {
+         final ChannelOutput segmentOut;
+         ChannelInput nextIn = null;
+         if (i == procs.length - 1)
+            segmentOut = out;
+         else
+         {
+            final One2OneChannel c = Channel.one2one();
+            segmentOut = c.out();
+            nextIn = c.in();
+         }
+         final Object segment = segments.get(i);
+         if (segment instanceof Stage)
+            procs[i] = ((Stage) segment).create(segmentIn, segmentOut);
+         else
+         {
+            final ArrayList functions = (ArrayList) segment;
+            procs[i] = new Fused(segmentIn, segmentOut,
+                                 (Function[]) functions.toArray(new Function[functions.size()]));
+         }
+         segmentIn = nextIn;
+      }
+      
+      if (procs.length == 1)
+         procs[0].run();
+      else
+         new Parallel(procs).run();
+   }
+   
+   private static final Function SUCCESSOR = new Function()
+   {
+      public Object apply(Object o)
+      {
+         final int i = ((Integer) o).intValue();
+         return new Integer(i + 1);
+      }
+   };
+   
+   /**
+    * A run of neighbouring function stages, applied in turn to each object.
+    */
+   private static final class Fused implements CSProcess
+   {
+      private final ChannelInput in;
+      
+      private final ChannelOutput out;
+      
+      private final Function[] functions;
+      
+      Fused(final ChannelInput in, final ChannelOutput out, final Function[] functions)
+      {
+         this.in = in;
+         this.out = out;
+         this.functions = functions;
+      }
+      
+      public void run()
+      {
+         while (true)
+         {
+            Object o = in.read();
+            for (int i = 0; i < functions.length; i++)
+               o = functions[i].apply(o);
+            out.write(o);
+         }
+      }
+   }
+}
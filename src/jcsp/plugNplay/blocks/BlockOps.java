@@ -0,0 +1,173 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+/**
+ * The inner loops shared by the block processes.  Each works on an
+ * <TT>int[]</TT>, <TT>long[]</TT> or <TT>double[]</TT> block, in place,
+ * and is written as a simple counted loop over primitive arrays so that
+ * the JIT compiler is free to vectorise it.
+ */
+final class BlockOps
+{
+   private BlockOps()
+   {
+   }
+   
+   /**
+    * Checks that two blocks are of the same primitive type and length.
+    *
+    * @throws IllegalArgumentException if they are not.
+    */
+   static void checkMatch(final Object a, final Object b)
+   {
+      if (a.getClass() != b.getClass())
+         throw new IllegalArgumentException("Mismatched blocks: " + a.getClass().getName() +
+                                            " and " + b.getClass().getName());
+      if (length(a) != length(b))
+         throw new IllegalArgumentException("Mismatched block lengths: " + length(a) + " and " + length(b));
+   }
+   
+   /**
+    * Returns the length of a block.
+    *
+    * @throws IllegalArgumentException if it is not an int[], long[] or double[].
+    */
+   static int length(final Object block)
+   {
+      if (block instanceof int[])
+         return ((int[]) block).length;
+      if (block instanceof long[])
+         return ((long[]) block).length;
+      if (block instanceof double[])
+         return ((double[]) block).length;
+      throw notABlock(block);
+   }
+   
+   /**
+    * Adds <TT>b</TT> into <TT>a</TT>, element by element.
+    */
+   static void add(final Object a, final Object b)
+   {
+      checkMatch(a, b);
+      if (a instanceof int[])
+      {
+         final int[] x = (int[]) a;
+         final int[] y = (int[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] += y[i];
+      }
+      else if (a instanceof long[])
+      {
+         final long[] x = (long[]) a;
+         final long[] y = (long[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] += y[i];
+      }
+      else
+      {
+         final double[] x = (double[]) a;
+         final double[] y = (double[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] += y[i];
+      }
+   }
+   
+   /**
+    * Multiplies <TT>a</TT> by <TT>b</TT>, element by element, leaving the result in <TT>a</TT>.
+    */
+   static void multiply(final Object a, final Object b)
+   {
+      checkMatch(a, b);
+      if (a instanceof int[])
+      {
+         final int[] x = (int[]) a;
+         final int[] y = (int[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] *= y[i];
+      }
+      else if (a instanceof long[])
+      {
+         final long[] x = (long[]) a;
+         final long[] y = (long[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] *= y[i];
+      }
+      else
+      {
+         final double[] x = (double[]) a;
+         final double[] y = (double[]) b;
+         for (int i = 0; i < x.length; i++)
+            x[i] *= y[i];
+      }
+   }
+   
+   /**
+    * Replaces each element of <TT>a</TT> by the running total, starting from <TT>carry</TT>.
+    *
+    * @return the last running total (the carry into the next block).
+    */
+   static int integrate(final int[] a, int carry)
+   {
+      for (int i = 0; i < a.length; i++)
+      {
+         carry += a[i];
+         a[i] = carry;
+      }
+      return carry;
+   }
+   
+   /**
+    * Replaces each element of <TT>a</TT> by the running total, starting from <TT>carry</TT>.
+    *
+    * @return the last running total (the carry into the next block).
+    */
+   static long integrate(final long[] a, long carry)
+   {
+      for (int i = 0; i < a.length; i++)
+      {
+         carry += a[i];
+         a[i] = carry;
+      }
+      return carry;
+   }
+   
+   /**
+    * Replaces each element of <TT>a</TT> by the running total, starting from <TT>carry</TT>.
+    *
+    * @return the last running total (the carry into the next block).
+    */
+   static double integrate(final double[] a, double carry)
+   {
+      for (int i = 0; i < a.length; i++)
+      {
+         carry += a[i];
+         a[i] = carry;
+      }
+      return carry;
+   }
+   
+   static IllegalArgumentException notABlock(final Object block)
+   {
+      return new IllegalArgumentException("Not an int[], long[] or double[] block: " +
+                                          (block == null ? "null" : block.getClass().getName()));
+   }
+}
@@ -0,0 +1,113 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+import jcsp.lang.*;
+
+/**
+ * This is a running-sum integrator of the blocks on its input stream
+ * to its output stream.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *          ________________
+ *     in  |                | out
+ *    -->--| IntegrateBlock |-->--
+ *         |________________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>IntegrateBlock</TT> is the block equivalent of {@link jcsp.plugNplay.ints.IntegrateInt}.
+ * Each element of each block is replaced (in place) by the running total of all
+ * the elements received so far &ndash; the total is carried from one block to the next.
+ * <P>
+ * Separate totals are kept for <TT>int[]</TT>, <TT>long[]</TT> and <TT>double[]</TT>
+ * blocks.  A stream would normally carry only one of these.  <TT>int</TT> totals wrap
+ * on overflow, just as for {@link jcsp.plugNplay.ints.IntegrateInt}.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in</TH>
+ *     <TD>int[], long[] or double[]</TD>
+ *     <TD>
+ *       Blocks may be of any length.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>int[], long[] or double[]</TD>
+ *     <TD>
+ *       Each block input is output (modified).
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ */
+
+public final class IntegrateBlock implements CSProcess
+{
+   /** The input Channel */
+   private final ChannelInput in;
+   
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /**
+    * Construct a new IntegrateBlock process with the input Channel in and the
+    * output Channel out.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    */
+   public IntegrateBlock(final ChannelInput in, final ChannelOutput out)
+   {
+      this.in = in;
+      this.out = out;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      int intTotal = 0;
+      long longTotal = 0;
+      double doubleTotal = 0;
+      while (true)
+      {
+         final Object block = in.read();
+         if (block instanceof int[])
+            intTotal = BlockOps.integrate((int[]) block, intTotal);
+         else if (block instanceof long[])
+            longTotal = BlockOps.integrate((long[]) block, longTotal);
+         else if (block instanceof double[])
+            doubleTotal = BlockOps.integrate((double[]) block, doubleTotal);
+         else
+            throw BlockOps.notABlock(block);
+         out.write(block);
+      }
+   }
+}
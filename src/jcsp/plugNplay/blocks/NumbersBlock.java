@@ -0,0 +1,90 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+import jcsp.lang.*;
+
+/**
+ * Generates the sequence of natural numbers in <TT>int[]</TT> blocks.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *         ______________
+ *        |              | out
+ *        | NumbersBlock |-->----
+ *        |______________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>NumbersBlock</TT> is the block equivalent of {@link jcsp.plugNplay.ints.NumbersInt}.
+ * It outputs <TT>0, 1, 2, ...</TT> in fresh blocks of a fixed size.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>int[]</TD>
+ *     <TD>
+ *       Each block has <TT>blockSize</TT> elements.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ */
+
+public final class NumbersBlock implements CSProcess
+{
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /** The number of elements in each block */
+   private final int blockSize;
+   
+   /**
+    * Construct a new NumbersBlock process with the output Channel out.
+    *
+    * @param out the output Channel
+    * @param blockSize the number of elements in each block (must be positive)
+    */
+   public NumbersBlock(final ChannelOutput out, final int blockSize)
+   {
+      if (blockSize <= 0)
+         throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+      this.out = out;
+      this.blockSize = blockSize;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      int n = 0;
+      while (true)
+      {
+         final int[] block = new int[blockSize];
+         for (int i = 0; i < block.length; i++)
+            block[i] = n++;
+         out.write(block);
+      }
+   }
+}
@@ -0,0 +1,109 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+import jcsp.lang.*;
+
+/**
+ * Packs a stream of <TT>int</TT>s into a stream of <TT>int[]</TT> blocks.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *          _________
+ *     in  |         | out
+ *    -->--| PackInt |-->--
+ *         |_________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>PackInt</TT> is the adapter from a scalar {@link jcsp.plugNplay.ints}
+ * network into a block network.  It reads <TT>blockSize</TT> integers, then outputs them
+ * (in order) as one fresh <TT>int[]</TT> block, and so on.  {@link UnpackInt}
+ * is its inverse.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in</TH>
+ *     <TD>int</TD>
+ *     <TD>
+ *       Any integers.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>int[]</TD>
+ *     <TD>
+ *       Each block has <TT>blockSize</TT> elements.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ *
+ * @see UnpackInt
+ */
+
+public final class PackInt implements CSProcess
+{
+   /** The input Channel */
+   private final ChannelInputInt in;
+   
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /** The number of elements in each block */
+   private final int blockSize;
+   
+   /**
+    * Construct a new PackInt process with the input Channel in and the
+    * output Channel out.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    * @param blockSize the number of elements in each block (must be positive)
+    */
+   public PackInt(final ChannelInputInt in, final ChannelOutput out, final int blockSize)
+   {
+      if (blockSize <= 0)
+         throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+      this.in = in;
+      this.out = out;
+      this.blockSize = blockSize;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      while (true)
+      {
+         final int[] block = new int[blockSize];
+         for (int i = 0; i < block.length; i++)
+            block[i] = in.read();
+         out.write(block);
+      }
+   }
+}
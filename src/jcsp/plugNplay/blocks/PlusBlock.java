@@ -0,0 +1,112 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+import jcsp.lang.*;
+import jcsp.plugNplay.ProcessRead;
+
+/**
+ * <I>Sums</I> two streams of blocks, element by element, to one stream.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *    in0  ___________
+ *   -->--|           | out
+ *    in1 | PlusBlock |-->--
+ *   -->--|___________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>PlusBlock</TT> is the block equivalent of {@link jcsp.plugNplay.ints.PlusInt}.
+ * It reads one block from each of its input channels (in parallel) and outputs
+ * their element-wise sum.  The two blocks must have the same primitive type
+ * and length.
+ * <P>
+ * The sum is computed in place &ndash; the block output is the one that was read from
+ * <TT>in0</TT>.  As with all processes in this package, a block belongs to
+ * whichever process last received it, so no copying is needed.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in0, in1</TH>
+ *     <TD>int[], long[] or double[]</TD>
+ *     <TD>
+ *       Blocks arriving together must have the same type and length.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>int[], long[] or double[]</TD>
+ *     <TD>
+ *       The same type and length as the input blocks.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ */
+
+public final class PlusBlock implements CSProcess
+{
+   /** The first input Channel */
+   private final ChannelInput in0;
+   
+   /** The second input Channel */
+   private final ChannelInput in1;
+   
+   /** The output Channel */
+   private final ChannelOutput out;
+   
+   /**
+    * Construct a new PlusBlock process with the input Channels in0 and in1 and the
+    * output Channel out.
+    *
+    * @param in0 the first input Channel
+    * @param in1 the second input Channel
+    * @param out the output Channel
+    */
+   public PlusBlock(final ChannelInput in0, final ChannelInput in1, final ChannelOutput out)
+   {
+      this.in0 = in0;
+      this.in1 = in1;
+      this.out = out;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      final ProcessRead[] procs = {new ProcessRead(in0), new ProcessRead(in1)};
+      final Parallel par = new Parallel(procs);
+      
+      while (true)
+      {
+         par.run();
+         BlockOps.add(procs[0].value, procs[1].value);
+         out.write(procs[0].value);
+      }
+   }
+}
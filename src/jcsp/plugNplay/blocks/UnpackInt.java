@@ -0,0 +1,105 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.plugNplay.blocks;
+
+import jcsp.lang.*;
+
+/**
+ * Unpacks a stream of <TT>int[]</TT> blocks into a stream of <TT>int</TT>s.
+ *
+ * <H2>Process Diagram</H2>
+ * <PRE>
+ *          ___________
+ *     in  |           | out
+ *    -->--| UnpackInt |-->--
+ *         |___________|
+ * </PRE>
+ * <H2>Description</H2>
+ * <TT>UnpackInt</TT> is the adapter from a block network back into a scalar
+ * {@link jcsp.plugNplay.ints} network.  It outputs the elements of each block
+ * it reads, in order.  Blocks may be of any length.  {@link PackInt}
+ * is its inverse.
+ * <P>
+ * <H2>Channel Protocols</H2>
+ * <TABLE BORDER="2">
+ *   <TR>
+ *     <TH COLSPAN="3">Input Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>in</TH>
+ *     <TD>int[]</TD>
+ *     <TD>
+ *       Blocks of any length.
+ *     </TD>
+ *   </TR>
+ *   <TR>
+ *     <TH COLSPAN="3">Output Channels</TH>
+ *   </TR>
+ *   <TR>
+ *     <TH>out</TH>
+ *     <TD>int</TD>
+ *     <TD>
+ *       The elements of the blocks.
+ *     </TD>
+ *   </TR>
+ * </TABLE>
+ *
+ * @see PackInt
+ */
+
+public final class UnpackInt implements CSProcess
+{
+   /** The input Channel */
+   private final ChannelInput in;
+   
+   /** The output Channel */
+   private final ChannelOutputInt out;
+   
+   /**
+    * Construct a new UnpackInt process with the input Channel in and the
+    * output Channel out.
+    *
+    * @param in the input Channel
+    * @param out the output Channel
+    */
+   public UnpackInt(final ChannelInput in, final ChannelOutputInt out)
+   {
+      this.in = in;
+      this.out = out;
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      while (true)
+      {
+         final Object block = in.read();
+         if (!(block instanceof int[]))
+            throw new IllegalArgumentException("Not an int[] block: " +
+                                               (block == null ? "null" : block.getClass().getName()));
+         final int[] values = (int[]) block;
+         for (int i = 0; i < values.length; i++)
+            out.write(values[i]);
+      }
+   }
+}
@@ -44,6 +44,7 @@ import java.io.Serializable;
  * @see jcsp.util.OverWriteOldestBuffer
  * @see jcsp.util.OverWritingBuffer
  * @see jcsp.util.OverFlowingBuffer
+ * @see jcsp.util.SpillingBuffer
  * @see jcsp.lang.Channel
  *
  * @author P.D. Austin
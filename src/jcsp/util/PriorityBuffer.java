@@ -0,0 +1,311 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.util;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * This is used to create a buffered object channel that delivers its most urgent
+ * data first.
+ * <H2>Description</H2>
+ * <TT>PriorityBuffer</TT> is an implementation of <TT>ChannelDataStore</TT> that yields
+ * a blocking <I>priority-ordered</I> buffered semantics for a channel.  A reader always
+ * receives the most urgent item buffered.  Items of equal urgency are received in the
+ * order in which they were written.
+ * See the <tt>static</tt> construction methods of {@link jcsp.lang.Channel}
+ * ({@link jcsp.lang.Channel#one2one(jcsp.util.ChannelDataStore)} etc.).
+ * Since it is just a <TT>ChannelDataStore</TT>, the channel may be used as normal in
+ * an {@link jcsp.lang.Alternative} -- a server needs a single channel, rather than one
+ * channel per priority level serviced by a <TT>priSelect</TT>.
+ * <P>
+ * Urgency is defined either by a {@link Comparator}, in which case the item that compares
+ * lowest is the most urgent (as for <TT>java.util.PriorityQueue</TT>), or by a
+ * {@link Priority} function, in which case the item with the highest priority is the most
+ * urgent.  The priority of an item is computed once, when it is written.
+ * <P>
+ * The buffer is held as a binary heap, so writing and reading take <I>O(log n)</I> time.
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT>, <TT>NONEMPTYFULL</TT> or
+ * <TT>FULL</TT> according to the state of the buffer.
+ *
+ * @see jcsp.util.Buffer
+ * @see jcsp.lang.Channel
+ * @see jcsp.lang.Alternative
+ */
+
+public class PriorityBuffer implements ChannelDataStore, Serializable
+{
+    /**
+     * Defines the priority of the items held by a {@link PriorityBuffer}.  Items with
+     * higher priorities are read first.
+     */
+    public static interface Priority
+    {
+        /**
+         * Returns the priority of an item.
+         *
+         * @param value the item.
+         * @return its priority.
+         */
+        public int priority(Object value);
+    }
+
+    /** The heap of buffered Objects */
+    private final Object[] buffer;
+
+    /** The arrival sequence number of each buffered Object, to break ties */
+    private final long[] sequence;
+
+    /** The priority of each buffered Object, when a Priority function is used */
+    private final int[] priorities;
+
+    /** The ordering, when a Comparator is used */
+    private final Comparator comparator;
+
+    /** The priority function, when one is used */
+    private final Priority priority;
+
+    /** The number of Objects in the heap */
+    private int counter = 0;
+
+    /** The sequence number for the next Object put */
+    private long nextSequence = 0;
+
+    /** The Object removed from the heap by startGet, until endGet */
+    private Object pending = null;
+
+    /** True between startGet and endGet */
+    private boolean getting = false;
+
+    /**
+     * Construct a new <TT>PriorityBuffer</TT> with the specified size, ordered by a
+     * <TT>Comparator</TT>.
+     *
+     * @param size the number of Objects the PriorityBuffer can store.
+     * @param comparator the ordering of the Objects: lowest first.
+     * @throws BufferSizeError if <TT>size</TT> is zero or negative.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public PriorityBuffer(int size, Comparator comparator)
+    {
+        if (size <= 0)
+            throw new BufferSizeError
+                    ("\n*** Attempt to create a priority buffered channel with negative or zero capacity");
+        this.buffer = new Object[size];
+        this.sequence = new long[size];
+        this.priorities = null;
+        this.comparator = comparator;
+        this.priority = null;
+    }
+
+    /**
+     * Construct a new <TT>PriorityBuffer</TT> with the specified size, ordered by an
+     * <TT>int</TT> priority.
+     *
+     * @param size the number of Objects the PriorityBuffer can store.
+     * @param priority the priority of the Objects: highest first.
+     * @throws BufferSizeError if <TT>size</TT> is zero or negative.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public PriorityBuffer(int size, Priority priority)
+    {
+        if (size <= 0)
+            throw new BufferSizeError
+                    ("\n*** Attempt to create a priority buffered channel with negative or zero capacity");
+        this.buffer = new Object[size];
+        this.sequence = new long[size];
+        this.priorities = new int[size];
+        this.comparator = null;
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the most urgent <TT>Object</TT> from the <TT>PriorityBuffer</TT> and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the most urgent <TT>Object</TT> from the <TT>PriorityBuffer</TT>
+     */
+    public Object get()
+    {
+        Object value = buffer[0];
+        removeTop();
+        return value;
+    }
+
+    /**
+     * Returns the most urgent object from the buffer, but does not remove it until
+     * {@link #endGet()}.  An item written in the meantime is not delivered in its place,
+     * however urgent.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the most urgent <TT>Object</TT> from the <TT>PriorityBuffer</TT>
+     */
+    public Object startGet()
+    {
+        pending = buffer[0];
+        removeTop();
+        getting = true;
+        return pending;
+    }
+
+    /**
+     * Removes the object returned by {@link #startGet()} from the buffer.
+     */
+    public void endGet()
+    {
+        pending = null;
+        getting = false;
+    }
+
+    /**
+     * Puts a new <TT>Object</TT> into the <TT>PriorityBuffer</TT>.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param value the Object to put into the PriorityBuffer
+     */
+    public void put(Object value)
+    {
+        int i = counter++;
+        buffer[i] = value;
+        sequence[i] = nextSequence++;
+        if (priorities != null)
+            priorities[i] = priority.priority(value);
+        //sift up
+        while (i > 0)
+        {
+            int parent = (i - 1) >> 1;
+            if (!before(i, parent))
+                break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /** Removes the item at the top of the heap */
+    private void removeTop()
+    {
+        counter--;
+        if (counter > 0)
+            move(counter, 0);
+        buffer[counter] = null;
+        //sift down
+        int i = 0;
+        while (true)
+        {
+            int child = 2 * i + 1;
+            if (child >= counter)
+                break;
+            if (child + 1 < counter && before(child + 1, child))
+                child++;
+            if (!before(child, i))
+                break;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    /** Returns true if the item at heap index i must be read before that at j */
+    private boolean before(int i, int j)
+    {
+        int c;
+        if (priorities != null)
+            c = (priorities[i] > priorities[j]) ? -1 : ((priorities[i] < priorities[j]) ? 1 : 0);
+        else
+            c = comparator.compare(buffer[i], buffer[j]);
+        if (c != 0)
+            return c < 0;
+        return sequence[i] < sequence[j];
+    }
+
+    private void swap(int i, int j)
+    {
+        Object value = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = value;
+        long seq = sequence[i];
+        sequence[i] = sequence[j];
+        sequence[j] = seq;
+        if (priorities != null)
+        {
+            int p = priorities[i];
+            priorities[i] = priorities[j];
+            priorities[j] = p;
+        }
+    }
+
+    private void move(int from, int to)
+    {
+        buffer[to] = buffer[from];
+        sequence[to] = sequence[from];
+        if (priorities != null)
+            priorities[to] = priorities[from];
+    }
+
+    /**
+     * Returns the current state of the <TT>PriorityBuffer</TT>.
+     *
+     * @return the current state of the <TT>PriorityBuffer</TT> (<TT>EMPTY</TT>,
+     * <TT>NONEMPTYFULL</TT> or <TT>FULL</TT>)
+     */
+    public int getState()
+    {
+        int held = getting ? counter + 1 : counter;
+        if (held == 0)
+            return EMPTY;
+        else if (held >= buffer.length)
+            return FULL;
+        else
+            return NONEMPTYFULL;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>PriorityBuffer</TT> with the same
+     * creation parameters as this one.
+     * <P>
+     * <I>Note: Only the size and ordering of the </I><TT>PriorityBuffer</TT><I> are
+     * cloned, not any stored data.</I>
+     *
+     * @return the cloned instance of this <TT>PriorityBuffer</TT>.
+     */
+    public Object clone()
+    {
+        if (priority != null)
+            return new PriorityBuffer(buffer.length, priority);
+        return new PriorityBuffer(buffer.length, comparator);
+    }
+
+    public void removeAll()
+    {
+        for (int i = 0; i < counter; i++)
+        {
+            //Null the objects so they can be garbage collected:
+            buffer[i] = null;
+        }
+        counter = 0;
+        pending = null;
+        getting = false;
+    }
+}
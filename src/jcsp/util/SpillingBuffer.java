@@ -0,0 +1,446 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * This is used to create a buffered object channel that always accepts and
+ * never loses any input, holding only a bounded amount of it on the heap.
+ * <H2>Description</H2>
+ * <TT>SpillingBuffer</TT> is an implementation of <TT>ChannelDataStore</TT> that yields
+ * a <I>FIFO</I> buffered semantics for a channel.  When empty, the channel blocks readers.
+ * Like an {@link InfiniteBuffer}, it <I>never</I> gets full and blocks a writer.  Unlike
+ * an <TT>InfiniteBuffer</TT>, it does not keep everything on the heap.
+ * See the <tt>static</tt> construction methods of {@link jcsp.lang.Channel}
+ * ({@link jcsp.lang.Channel#one2one(jcsp.util.ChannelDataStore)} etc.).
+ * <P>
+ * Items are held in a chain of <I>segments</I>.  Up to a given number of segments, each
+ * holding a given number of items, are kept on the heap.  Once these are in use, further
+ * items are serialized into <I>spill</I> segments: files in a given directory, mapped
+ * into memory.  Spilled items are only deserialized as they are read, in <I>FIFO</I>
+ * order with the rest, and each segment is released (and its file deleted) as soon as it
+ * has been drained.  So, a burst from a fast writer is absorbed without growing the heap,
+ * and nothing is pinned once the burst has been read.  New items go back onto the heap
+ * as soon as a heap segment is free again.
+ * <P>
+ * Spilled items must be <TT>Serializable</TT> and are read back as copies.  An item that
+ * cannot be serialized, or that arrives when no spill file can be created, is kept on the
+ * heap regardless -- no item is ever lost or reordered.
+ * <P>
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT> or <TT>NONEMPTYFULL</TT>, but
+ * never <TT>FULL</TT>.
+ *
+ * @see InfiniteBuffer
+ * @see Buffer
+ * @see jcsp.lang.Channel
+ */
+
+public class SpillingBuffer implements ChannelDataStore
+{
+    /** The default number of items in a heap segment */
+    private static final int DEFAULT_SEGMENT_SIZE = 1024;
+
+    /** The default number of heap segments */
+    private static final int DEFAULT_HEAP_SEGMENTS = 16;
+
+    /** The default size in bytes of a spill segment */
+    private static final int DEFAULT_SPILL_SEGMENT_BYTES = 4 * 1024 * 1024;
+
+    /** A segment of the buffer */
+    private static abstract class Segment
+    {
+        /** The next (newer) segment */
+        Segment next;
+
+        /** Returns the oldest item not yet read */
+        abstract Object peek();
+
+        /** Discards the oldest item not yet read */
+        abstract void skip();
+
+        /** Returns true if every item written has been read */
+        abstract boolean drained();
+    }
+
+    /** A segment of items on the heap */
+    private static final class HeapSegment extends Segment
+    {
+        final Object[] items;
+        int readIndex = 0;
+        int writeIndex = 0;
+
+        HeapSegment(Object[] items)
+        {
+            this.items = items;
+        }
+
+        boolean offer(Object value)
+        {
+            if (writeIndex == items.length)
+                return false;
+            items[writeIndex++] = value;
+            return true;
+        }
+
+        Object peek()
+        {
+            return items[readIndex];
+        }
+
+        void skip()
+        {
+            items[readIndex++] = null;
+        }
+
+        boolean drained()
+        {
+            return readIndex == writeIndex;
+        }
+    }
+
+    /** A segment of serialized items in a memory-mapped file */
+    private static final class SpillSegment extends Segment
+    {
+        final File file;
+        final MappedByteBuffer writeBuffer;
+        final ByteBuffer readBuffer;
+        int written = 0;
+        int read = 0;
+
+        SpillSegment(File file, MappedByteBuffer buffer)
+        {
+            this.file = file;
+            this.writeBuffer = buffer;
+            this.readBuffer = buffer.duplicate();
+        }
+
+        boolean offer(byte[] bytes)
+        {
+            if (writeBuffer.remaining() < bytes.length + 4)
+                return false;
+            writeBuffer.putInt(bytes.length);
+            writeBuffer.put(bytes);
+            written++;
+            return true;
+        }
+
+        Object peek()
+        {
+            int start = readBuffer.position();
+            byte[] bytes = new byte[readBuffer.getInt()];
+            readBuffer.get(bytes);
+            readBuffer.position(start);
+            try
+            {
+                ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                return in.readObject();
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("*** SpillingBuffer: unable to read back a spilled item: " + e);
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new RuntimeException("*** SpillingBuffer: unable to read back a spilled item: " + e);
+            }
+        }
+
+        void skip()
+        {
+            readBuffer.position(readBuffer.position() + 4 + readBuffer.getInt(readBuffer.position()));
+            read++;
+        }
+
+        boolean drained()
+        {
+            return read == written;
+        }
+
+        void release()
+        {
+            //the mapping itself is released when the buffer is garbage collected
+            if (!file.delete())
+                file.deleteOnExit();
+        }
+    }
+
+    /** The number of items in a heap segment */
+    private final int segmentSize;
+
+    /** The number of heap segments that may be used before items are spilled */
+    private final int maxHeapSegments;
+
+    /** The directory for spill files, or null for the default temporary directory */
+    private final File directory;
+
+    /** The size in bytes of a spill segment */
+    private final int spillSegmentBytes;
+
+    /** The oldest segment (when counter > 0) */
+    private Segment head = null;
+
+    /** The newest segment (when counter > 0) */
+    private Segment tail = null;
+
+    /** The number of heap segments in the chain */
+    private int heapSegments = 0;
+
+    /** A drained heap segment's storage, kept for reuse */
+    private Object[] spare = null;
+
+    /** The number of Objects stored in the SpillingBuffer */
+    private int counter = 0;
+
+    /** Used to serialize items being spilled */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /**
+     * Construct a new <TT>SpillingBuffer</TT> with the default sizes (16 heap segments
+     * of 1024 items, and spill segments of 4MB in the default temporary directory).
+     */
+    public SpillingBuffer()
+    {
+        this(DEFAULT_SEGMENT_SIZE, DEFAULT_HEAP_SEGMENTS, null, DEFAULT_SPILL_SEGMENT_BYTES);
+    }
+
+    /**
+     * Construct a new <TT>SpillingBuffer</TT> with the specified sizes.
+     *
+     * @param segmentSize the number of Objects held by a heap segment.
+     * @param maxHeapSegments the number of heap segments that may be in use before
+     * items are spilled.
+     * @param directory the directory for spill files, or <TT>null</TT> for the
+     * default temporary directory.
+     * @param spillSegmentBytes the size in bytes of each spill file (larger files
+     * are made for items that do not fit).
+     * @throws BufferSizeError if any size is zero or negative.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public SpillingBuffer(int segmentSize, int maxHeapSegments, File directory, int spillSegmentBytes)
+    {
+        if (segmentSize <= 0 || maxHeapSegments <= 0 || spillSegmentBytes <= 0)
+            throw new BufferSizeError
+                    ("\n*** Attempt to create a spilling buffered channel with negative or zero segments");
+        this.segmentSize = segmentSize;
+        this.maxHeapSegments = maxHeapSegments;
+        this.directory = directory;
+        this.spillSegmentBytes = spillSegmentBytes;
+    }
+
+    /**
+     * Returns the oldest <TT>Object</TT> from the <TT>SpillingBuffer</TT> and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>SpillingBuffer</TT>
+     */
+    public Object get()
+    {
+        Object value = startGet();
+        endGet();
+        return value;
+    }
+
+    /**
+     * Returns the oldest object from the buffer but does not remove it.
+     *
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>SpillingBuffer</TT>
+     */
+    public Object startGet()
+    {
+        while (head.drained())
+            releaseHead();
+        return head.peek();
+    }
+
+    /**
+     * Removes the oldest object from the buffer.
+     */
+    public void endGet()
+    {
+        head.skip();
+        counter--;
+        if (counter == 0)
+            removeAll();
+        else if (head.drained() && head != tail)
+            releaseHead();
+    }
+
+    /**
+     * Puts a new <TT>Object</TT> into the <TT>SpillingBuffer</TT>.
+     * <P>
+     * <I>Implementation note:</I> if all the heap segments are in use, the object is
+     * serialized into a memory-mapped spill segment.
+     *
+     * @param value the Object to put into the SpillingBuffer
+     */
+    public void put(Object value)
+    {
+        if (!(tail instanceof HeapSegment && ((HeapSegment) tail).offer(value)))
+        {
+            if (heapSegments >= maxHeapSegments && spill(value))
+            {
+                counter++;
+                return;
+            }
+            HeapSegment segment = new HeapSegment(spare != null ? spare : new Object[segmentSize]);
+            spare = null;
+            heapSegments++;
+            append(segment);
+            segment.offer(value);
+        }
+        counter++;
+    }
+
+    /**
+     * Serializes an item into the newest spill segment, or a new one.
+     *
+     * @return false if the item could not be spilled.
+     */
+    private boolean spill(Object value)
+    {
+        bytes.reset();
+        try
+        {
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+        byte[] data = bytes.toByteArray();
+        if (tail instanceof SpillSegment && ((SpillSegment) tail).offer(data))
+            return true;
+        SpillSegment segment = createSpillSegment(Math.max(spillSegmentBytes, data.length + 4));
+        if (segment == null)
+            return false;
+        append(segment);
+        segment.offer(data);
+        return true;
+    }
+
+    /**
+     * Creates and maps a new spill file.
+     *
+     * @return the new segment, or null if the file could not be created.
+     */
+    private SpillSegment createSpillSegment(int size)
+    {
+        File file = null;
+        try
+        {
+            file = File.createTempFile("jcsp-spill", ".seg", directory);
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try
+            {
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new SpillSegment(file, buffer);
+            }
+            finally
+            {
+                raf.close();
+            }
+        }
+        catch (IOException e)
+        {
+            if (file != null)
+                file.delete();
+            return null;
+        }
+    }
+
+    /** Adds a segment to the end of the chain */
+    private void append(Segment segment)
+    {
+        if (tail == null)
+            head = segment;
+        else
+            tail.next = segment;
+        tail = segment;
+    }
+
+    /** Removes the oldest segment from the chain, releasing its storage */
+    private void releaseHead()
+    {
+        Segment segment = head;
+        head = segment.next;
+        segment.next = null;
+        if (head == null)
+            tail = null;
+        if (segment instanceof HeapSegment)
+        {
+            heapSegments--;
+            spare = ((HeapSegment) segment).items;
+        }
+        else
+            ((SpillSegment) segment).release();
+    }
+
+    /**
+     * Returns the current state of the <TT>SpillingBuffer</TT>.
+     *
+     * @return the current state of the <TT>SpillingBuffer</TT> (<TT>EMPTY</TT> or
+     * <TT>NONEMPTYFULL</TT>)
+     */
+    public int getState()
+    {
+        if (counter == 0)
+            return EMPTY;
+        else
+            return NONEMPTYFULL;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>SpillingBuffer</TT> with the same
+     * creation parameters as this one.
+     * <P>
+     * <I>Note: Only the sizes and spill directory of the </I><TT>SpillingBuffer</TT><I>
+     * are cloned, not any stored data.</I>
+     *
+     * @return the cloned instance of this <TT>SpillingBuffer</TT>.
+     */
+    public Object clone()
+    {
+        return new SpillingBuffer(segmentSize, maxHeapSegments, directory, spillSegmentBytes);
+    }
+
+    public void removeAll()
+    {
+        while (head != null)
+            releaseHead();
+        if (spare != null)
+        {
+            //Null the objects so they can be garbage collected:
+            for (int i = 0; i < spare.length; i++)
+                spare[i] = null;
+        }
+        counter = 0;
+    }
+}
@@ -21,74 +21,64 @@
 package jcsp.util.filter;
 
     /**
- * Storage scheme for a set of filters that is dynamically sized and supports insert and remove
- * operations to keep the filters in a contiguous block.
+ * Storage scheme for a set of filters that supports insert and remove operations. The set is held as
+ * a copy-on-write array: every change builds a new array and compiles it into a single {@link Chain},
+ * so that applying the filters needs no lock and no walk through this holder. Changes are serialized
+ * with each other, but a communication already applying the previous chain is not affected by them.
  *
  * @author Quickstone Technologies Limited
  */
 class FilterHolder
 {
     /**
-     * The array of filters. The installed filters are in a block at the start of the array.
+     * An empty array of filters.
      */
-    private Filter[] filters;
+    private static final Filter[] NONE = new Filter[0];
 
     /**
-     * Number of filters currently installed.
+     * The installed filters. This array is never modified once published.
      */
-    private int count = 0;
+    private Filter[] filters = NONE;
 
     /**
-     * Constructs a new <code>FilterHolder</code> with an intial capacity of 2.
+     * The compiled form of <code>filters</code>, or <code>null</code> if none are installed.
      */
-    FilterHolder()
-    {
-        this(2);
-    }
+    private volatile Chain chain = null;
 
     /**
-     * Constructs a new <Code>FilterHolder</code> with the given initial capacity.
-     *
-     * @param initialSize the initial size for the array.
+     * Constructs a new <code>FilterHolder</code> with no filters installed.
      */
-    FilterHolder(int initialSize)
+    FilterHolder()
     {
-        filters = new Filter[initialSize];
     }
 
     /**
-     * Adds a filter to the end of the array, possibly enlarging it if it is full.
+     * Adds a filter to the end of the array.
      *
      * @param filter the filter to add.
      */
-    public void addFilter(Filter filter)
+    public synchronized void addFilter(Filter filter)
     {
-        makeSpace();
-        filters[count] = filter;
-        count++;
+        addFilter(filter, filters.length);
     }
 
     /**
      * Adds a filter at the given index. If the index is past the end of the array, the filter is placed
      * at the end of the array. If the index is in use, filter is inserted, shifting the existing ones.
-     * If necessary, the array may be enlarged.
      *
      * @param filter the filter to add.
      * @param index the position to add the filter.
      */
-    public void addFilter(Filter filter, int index)
+    public synchronized void addFilter(Filter filter, int index)
     {
-        if (index >= count)
-            //add filter to end
-            addFilter(filter);
-        else
-        {
-            makeSpace();
-            //shift all elements from specifed index and above along one
-            System.arraycopy(filters, index, filters, index + 1, count - index);
-            filters[index] = filter;
-            count++;
-        }
+        int count = filters.length;
+        if (index > count)
+            index = count;
+        Filter[] newFilters = new Filter[count + 1];
+        System.arraycopy(filters, 0, newFilters, 0, index);
+        newFilters[index] = filter;
+        System.arraycopy(filters, index, newFilters, index + 1, count - index);
+        publish(newFilters);
     }
 
     /**
@@ -97,11 +87,11 @@ class FilterHolder
      *
      * @param filter the filter to remove.
      */
-    public void removeFilter(Filter filter)
+    public synchronized void removeFilter(Filter filter)
     {
         if (filter == null)
             throw new IllegalArgumentException("filter parameter cannot be null");
-        for (int i = 0; i < count; i++)
+        for (int i = 0; i < filters.length; i++)
             if (filters[i].equals(filter))
             {
                 removeFilter(i);
@@ -115,30 +105,26 @@ class FilterHolder
      *
      * @param index the array index to remove the filter.
      */
-    public void removeFilter(int index)
+    public synchronized void removeFilter(int index)
     {
+        int count = filters.length;
         if (index > (count - 1) || index < 0)
             throw new IndexOutOfBoundsException("Invalid filter index.");
-        filters[index] = null;
-        //if filter not the last item in the array
-        //then need to shift all elements after the
-        //specified filter
-        if (index < filters.length - 1)
+        if (count == 1)
         {
-            System.arraycopy(filters, index + 1, filters, index, count - index - 1);
-            count--;
-        }
-        else
-        {
-            count--;
-            compact();
+            publish(NONE);
+            return;
         }
+        Filter[] newFilters = new Filter[count - 1];
+        System.arraycopy(filters, 0, newFilters, 0, index);
+        System.arraycopy(filters, index + 1, newFilters, index, count - index - 1);
+        publish(newFilters);
     }
 
     /**
      * Returns a filter at the given array index.
      */
-    public Filter getFilter(int index)
+    public synchronized Filter getFilter(int index)
     {
         return filters[index];
     }
@@ -146,38 +132,90 @@ class FilterHolder
     /**
      * Returns the number of filters current installed.
      */
-    public int getFilterCount()
+    public synchronized int getFilterCount()
     {
-        return count;
+        return filters.length;
     }
 
     /**
-     * Enlarges the size of the array to make room for more filters. Currently the array is doubled
-     * in size.
+     * Returns the compiled chain of the installed filters, or <code>null</code> if there are none. This
+     * does not lock the holder.
      */
-    private void makeSpace()
+    Chain getChain()
     {
-        //if array of filters is full - double size
-        if (count == filters.length)
-        {
-            Filter[] filters = new Filter[count * 2];
-            System.arraycopy(this.filters, 0, filters, 0, this.filters.length);
-            this.filters = filters;
-        }
+        return chain;
+    }
+
+    /**
+     * Installs a new array of filters and compiles it.
+     *
+     * @param newFilters the new filters.
+     */
+    private void publish(Filter[] newFilters)
+    {
+        filters = newFilters;
+        chain = (newFilters.length == 0) ? null : new Chain(newFilters);
     }
 
     /**
-     * Shrinks the array to save space if it is 75% empty.
+     * An immutable sequence of filters fused into a single filter.
      */
-    private void compact()
+    static final class Chain implements Filter
     {
-        int newSize = count + 1;
-        if (count < (filters.length / 4) && newSize < filters.length)
+        /**
+         * The filters, when there is more than one.
+         */
+        private final Filter[] filters;
+
+        /**
+         * The filter, when there is only one.
+         */
+        private final Filter single;
+
+        /**
+         * True if every filter in the chain is a <code>StatelessFilter</code>.
+         */
+        private final boolean stateless;
+
+        /**
+         * Compiles a chain from an array of filters that will not be modified.
+         *
+         * @param filters the filters, in the order they are to be applied.
+         */
+        Chain(Filter[] filters)
+        {
+            boolean stateless = true;
+            for (int i = 0; i < filters.length; i++)
+                if (!(filters[i] instanceof StatelessFilter))
+                    stateless = false;
+            this.stateless = stateless;
+            if (filters.length == 1)
+            {
+                this.single = filters[0];
+                this.filters = null;
+            }
+            else
+            {
+                this.single = null;
+                this.filters = filters;
+            }
+        }
+
+        public Object filter(Object obj)
+        {
+            if (single != null)
+                return single.filter(obj);
+            for (int i = 0; i < filters.length; i++)
+                obj = filters[i].filter(obj);
+            return obj;
+        }
+
+        /**
+         * Returns true if the chain may be applied by several processes at once.
+         */
+        boolean isStateless()
         {
-            //create a new array which
-            Filter[] filters = new Filter[newSize];
-            System.arraycopy(this.filters, 0, filters, 0, count);
-            this.filters = filters;
+            return stateless;
         }
     }
 }
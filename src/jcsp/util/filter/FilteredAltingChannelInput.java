@@ -37,7 +37,7 @@ public class FilteredAltingChannelInput
     /**
      * Holds the filters installed for the read end of this channel.
      */
-    private FilterHolder filters = null;
+    private final FilterHolder filters = new FilterHolder();
 
     /**
      * Constructs a new channel end that supports filtering by wrapping up an existing channel end.
@@ -52,50 +52,39 @@ public class FilteredAltingChannelInput
     public Object read()
     {
         Object toFilter = super.read();
-        for (int i = 0; filters != null && i < filters.getFilterCount(); i++)
-            toFilter = filters.getFilter(i).filter(toFilter);
+        FilterHolder.Chain chain = filters.getChain();
+        if (chain != null)
+            toFilter = chain.filter(toFilter);
         return toFilter;
     }
 
     public void addReadFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter);
     }
 
     public void addReadFilter(Filter filter, int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter, index);
     }
 
     public void removeReadFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(filter);
     }
 
     public void removeReadFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(index);
     }
 
     public Filter getReadFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         return filters.getFilter(index);
     }
 
     public int getReadFilterCount()
     {
-        if (filters == null)
-            return 0;
         return filters.getFilterCount();
     }
 }
@@ -34,7 +34,7 @@ class FilteredChannelInputWrapper
     /**
      * Set of read filters installed.
      */
-    private FilterHolder filters = null;
+    private final FilterHolder filters = new FilterHolder();
 
     /**
      * Constructs a new <code>FilteredChannelInputWrapper</code> around the existing channel end.
@@ -47,52 +47,59 @@ class FilteredChannelInputWrapper
     }
 
     public Object read()
+    {
+        return read(filters.getChain());
+    }
+
+    /**
+     * Reads data through a given compiled set of read filters.
+     *
+     * @param chain the filters to apply, or <code>null</code> for none.
+     * @return the filtered data.
+     */
+    Object read(FilterHolder.Chain chain)
     {
         Object toFilter = super.read();
-        for (int i = 0; filters != null && i < filters.getFilterCount(); i++)
-            toFilter = filters.getFilter(i).filter(toFilter);
+        if (chain != null)
+            toFilter = chain.filter(toFilter);
         return toFilter;
     }
 
+    /**
+     * Returns the compiled read filters, or <code>null</code> if none are installed.
+     */
+    FilterHolder.Chain getReadFilterChain()
+    {
+        return filters.getChain();
+    }
+
     public void addReadFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter);
     }
 
     public void addReadFilter(Filter filter, int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter, index);
     }
 
     public void removeReadFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(filter);
     }
 
     public void removeReadFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(index);
     }
 
     public Filter getReadFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         return filters.getFilter(index);
     }
 
     public int getReadFilterCount()
     {
-        if (filters == null)
-            return 0;
         return filters.getFilterCount();
     }
 }
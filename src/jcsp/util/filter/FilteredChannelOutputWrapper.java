@@ -34,7 +34,7 @@ class FilteredChannelOutputWrapper
     /**
      * Set of write filters installed.
      */
-    private FilterHolder filters = null;
+    private final FilterHolder filters = new FilterHolder();
 
     /**
      * Constructs a new <code>FilteredChannelOutputWrapper</code> around the given output channel end.
@@ -48,50 +48,57 @@ class FilteredChannelOutputWrapper
 
     public void write(Object data)
     {
-        for (int i = 0; filters != null && i < filters.getFilterCount(); i++)
-            data = filters.getFilter(i).filter(data);
+        write(data, filters.getChain());
+    }
+
+    /**
+     * Writes data through a given compiled set of write filters.
+     *
+     * @param data the data to write.
+     * @param chain the filters to apply, or <code>null</code> for none.
+     */
+    void write(Object data, FilterHolder.Chain chain)
+    {
+        if (chain != null)
+            data = chain.filter(data);
         super.write(data);
     }
 
+    /**
+     * Returns the compiled write filters, or <code>null</code> if none are installed.
+     */
+    FilterHolder.Chain getWriteFilterChain()
+    {
+        return filters.getChain();
+    }
+
     public void addWriteFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter);
     }
 
     public void addWriteFilter(Filter filter, int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.addFilter(filter, index);
     }
 
     public void removeWriteFilter(Filter filter)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(filter);
     }
 
     public void removeWriteFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         filters.removeFilter(index);
     }
 
     public Filter getWriteFilter(int index)
     {
-        if (filters == null)
-            filters = new FilterHolder();
         return filters.getFilter(index);
     }
 
     public int getWriteFilterCount()
     {
-        if (filters == null)
-            return 0;
         return filters.getFilterCount();
     }
 }
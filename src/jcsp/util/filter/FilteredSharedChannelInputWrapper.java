@@ -35,7 +35,7 @@ public class FilteredSharedChannelInputWrapper
 {    
     /**
      * The object used for synchronization by the methods here to protect the readers from each other
-     * when manipulating the filters and reading data.
+     * when manipulating the filters and reading data through filters that are not all stateless.
      */
     private Object synchObject;
 
@@ -52,6 +52,12 @@ public class FilteredSharedChannelInputWrapper
 
     public Object read()
     {
+        FilterHolder.Chain chain = getReadFilterChain();
+        if (chain == null || chain.isStateless())
+        {
+            //no filter state to protect - the readers need not wait for each other
+            return read(chain);
+        }
         synchronized (synchObject)
         {
             return super.read();
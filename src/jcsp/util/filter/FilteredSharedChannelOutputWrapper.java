@@ -35,8 +35,8 @@ public class FilteredSharedChannelOutputWrapper
 {    
 
     /**
-     * The synchronization object to protect the writers from each other when they read data or update
-     * the write filters.
+     * The synchronization object to protect the writers from each other when they write data through
+     * filters that are not all stateless, or update the write filters.
      */
     private Object synchObject;
 
@@ -53,6 +53,13 @@ public class FilteredSharedChannelOutputWrapper
 
     public void write(Object data)
     {
+        FilterHolder.Chain chain = getWriteFilterChain();
+        if (chain == null || chain.isStateless())
+        {
+            //no filter state to protect - the writers need not wait for each other
+            write(data, chain);
+            return;
+        }
         synchronized (synchObject)
         {
             super.write(data);
@@ -27,7 +27,7 @@ package jcsp.util.filter;
  *
  * @author Quickstone Technologies Limited
  */
-public class PoisonFilter implements Filter
+public class PoisonFilter implements StatelessFilter
 {
     /**
      * The message to be placed in the <code>PoisonException</code> raised.
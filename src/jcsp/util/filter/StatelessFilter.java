@@ -1,5 +1,4 @@
 
-
 //////////////////////////////////////////////////////////////////////
 //                                                                  //
 //  JCSP ("CSP for Java") Libraries                                 //
@@ -19,48 +18,18 @@
 //                                                                  //
 //////////////////////////////////////////////////////////////////////
 
-package jcsp.lang;
-
-  class AltingChannelOutputSymmetricImpl extends AltingChannelOutput
-  implements MultiwaySynchronisation {
-
-  private final AltingBarrier ab;
-
-  private final ChannelOutput out;
-
-  private boolean syncDone = false;
-  
-  public AltingChannelOutputSymmetricImpl (
-          AltingBarrier ab, ChannelOutput out) {
-    this.ab = ab;
-    this.out = out;
-  }
-
-  boolean enable (Alternative alt) {
-    syncDone = ab.enable (alt);
-    return syncDone;
-  }
-
-  boolean disable () {
-    syncDone = ab.disable ();
-    return syncDone;
-  }
-
-  public void write (Object o) {
-    if (!syncDone) ab.sync ();
-    syncDone = false;
-    out.write (o);
-  }
-
-  public boolean pending () {
-    syncDone = ab.poll (10);
-    return syncDone;
-  }
-
-  public void poison(int strength) {
-	out.poison(strength);
-  }
-  
-  
-
+package jcsp.util.filter;
+
+    /**
+ * Marker interface for filters that hold no mutable state, so that the result of
+ * <code>filter</code> depends only on its argument. A stateless filter can be called
+ * by several processes at once, and it does not matter which end of a channel it is
+ * applied at. Filtered shared channel ends do not serialize the processes using them
+ * while all the filters installed are stateless, so that the filtering is carried out
+ * in parallel.
+ *
+ * @see Filter
+ */
+public interface StatelessFilter extends Filter
+{
 }
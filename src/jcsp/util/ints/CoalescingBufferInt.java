@@ -0,0 +1,245 @@
+
+//////////////////////////////////////////////////////////////////////
+//                                                                  //
+//  JCSP ("CSP for Java") Libraries                                 //
+//  Copyright (C) 1996-2018 Peter Welch, Paul Austin and Neil Brown //
+//                2001-2004 Quickstone Technologies Limited         //
+//                2005-2018 Kevin Chalmers                          //
+//                                                                  //
+//  You may use this work under the terms of either                 //
+//  1. The Apache License, Version 2.0                              //
+//  2. or (at your option), the GNU Lesser General Public License,  //
+//       version 2.1 or greater.                                    //
+//                                                                  //
+//  Full licence texts are included in the LICENCE file with        //
+//  this library.                                                   //
+//                                                                  //
+//  Author contacts: P.H.Welch@kent.ac.uk K.Chalmers@napier.ac.uk   //
+//                                                                  //
+//////////////////////////////////////////////////////////////////////
+
+package jcsp.util.ints;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * This is used to create a buffered integer channel that always holds just the latest
+ * item written for each <I>key</I>.
+ * <H2>Description</H2>
+ * <TT>CoalescingBufferInt</TT> is an implementation of <TT>ChannelDataStoreInt</TT> for
+ * channels carrying updates to a set of keyed values, where a slow reader only needs the
+ * most recent update for each key.  The key of an item is computed by a user-supplied
+ * {@link KeyFunction} (for example, from its top bits).
+ * If an item is written while another with the same key is still buffered, the new item
+ * replaces the old one in place; otherwise it is added at the end of the buffer.  The
+ * reader, therefore, receives keys in the order in which they first arrived (since they
+ * were last read), each with its latest value.  Both operations take constant time.
+ * See the <tt>static</tt> construction methods of {@link jcsp.lang.Channel}
+ * ({@link jcsp.lang.Channel#one2oneInt(ChannelDataStoreInt)} etc.).
+ * <P>
+ * The number of distinct keys that may be held can be bounded.  When that many keys are
+ * buffered, the <TT>getState</TT> method returns <TT>FULL</TT> and writers block, as for
+ * a {@link BufferInt}.  Otherwise it returns <TT>EMPTY</TT> or <TT>NONEMPTYFULL</TT>.
+ *
+ * @see OverWritingBufferInt
+ * @see OverWriteOldestBufferInt
+ * @see jcsp.util.CoalescingBuffer
+ * @see jcsp.lang.ChannelInt
+ */
+
+public class CoalescingBufferInt implements ChannelDataStoreInt, Serializable
+{
+    /**
+     * Defines the key of the items held by a {@link CoalescingBufferInt}.  Items with
+     * equal keys replace each other.
+     */
+    public static interface KeyFunction
+    {
+        /**
+         * Returns the key of an item.
+         *
+         * @param value the item.
+         * @return its key.
+         */
+        public int key(int value);
+    }
+
+    /** A buffered item, linked in arrival order of its key */
+    private static class Entry implements Serializable
+    {
+        final Integer key;
+        int value;
+        Entry next;
+
+        Entry(Integer key, int value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** The function computing the key of each item */
+    private final KeyFunction keyFunction;
+
+    /** The maximum number of keys held, or zero if unbounded */
+    private final int size;
+
+    /** The buffered entries, indexed by key */
+    private final HashMap entries = new HashMap();
+
+    /** The entry with the oldest key (when counter &gt; 0) */
+    private Entry first = null;
+
+    /** The entry with the newest key (when counter &gt; 0) */
+    private Entry last = null;
+
+    /** The number of entries buffered */
+    private int counter = 0;
+
+    /**
+     * Construct a new <TT>CoalescingBufferInt</TT> holding any number of keys.
+     *
+     * @param keyFunction the function giving the key of each item.
+     */
+    public CoalescingBufferInt(KeyFunction keyFunction)
+    {
+        this.keyFunction = keyFunction;
+        this.size = 0;
+    }
+
+    /**
+     * Construct a new <TT>CoalescingBufferInt</TT> holding at most <TT>size</TT> keys.
+     *
+     * @param keyFunction the function giving the key of each item.
+     * @param size the number of keys the CoalescingBufferInt can hold.
+     * @throws BufferIntSizeError if <TT>size</TT> is zero or negative.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public CoalescingBufferInt(KeyFunction keyFunction, int size)
+    {
+        if (size <= 0)
+            throw new BufferIntSizeError
+                    ("\n*** Attempt to create a coalescing buffered channel with negative or zero capacity");
+        this.keyFunction = keyFunction;
+        this.size = size;
+    }
+
+    /**
+     * Returns the latest <TT>int</TT> for the oldest key in the <TT>CoalescingBufferInt</TT>
+     * and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the latest <TT>int</TT> for the oldest key
+     */
+    public int get()
+    {
+        Entry e = first;
+        entries.remove(e.key);
+        unlinkFirst();
+        return e.value;
+    }
+
+    /**
+     * Puts a new <TT>int</TT> into the <TT>CoalescingBufferInt</TT>, replacing any item
+     * with the same key.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param value the int to put into the CoalescingBufferInt
+     */
+    public void put(int value)
+    {
+        Integer key = new Integer(keyFunction.key(value));
+        Entry e = (Entry) entries.get(key);
+        if (e != null)
+        {
+            e.value = value;
+            return;
+        }
+        e = new Entry(key, value);
+        entries.put(key, e);
+        if (counter == 0)
+            first = e;
+        else
+            last.next = e;
+        last = e;
+        counter++;
+    }
+
+    /**
+     * This begins an extended rendezvous by the reader.  The latest item for the oldest key
+     * is returned, but not removed.  From this point on, an item written with the same key
+     * is buffered as a new update (after the other keys), rather than replacing the one
+     * being read.
+     *
+     * @return the latest item for the oldest key
+     */
+    public int startGet()
+    {
+        entries.remove(first.key);
+        return first.value;
+    }
+
+    /**
+     * This ends an extended rendezvous by the reader, removing the item returned by
+     * {@link #startGet()}.
+     */
+    public void endGet()
+    {
+        unlinkFirst();
+    }
+
+    /** Removes the first entry from the arrival order list */
+    private void unlinkFirst()
+    {
+        Entry e = first;
+        first = e.next;
+        e.next = null;
+        counter--;
+        if (counter == 0)
+            last = null;
+    }
+
+    /**
+     * Returns the current state of the <TT>CoalescingBufferInt</TT>.
+     *
+     * @return the current state of the <TT>CoalescingBufferInt</TT> (<TT>EMPTY</TT>,
+     * <TT>NONEMPTYFULL</TT> or <TT>FULL</TT>)
+     */
+    public int getState()
+    {
+        if (counter == 0)
+            return EMPTY;
+        else if (counter == size)
+            return FULL;
+        else
+            return NONEMPTYFULL;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>CoalescingBufferInt</TT> with the same
+     * creation parameters as this one.
+     * <P>
+     * <I>Note: Only the key function and size of the </I><TT>CoalescingBufferInt</TT><I> are
+     * cloned, not any stored data.</I>
+     *
+     * @return the cloned instance of this <TT>CoalescingBufferInt</TT>.
+     */
+    public Object clone()
+    {
+        if (size == 0)
+            return new CoalescingBufferInt(keyFunction);
+        return new CoalescingBufferInt(keyFunction, size);
+    }
+
+    public void removeAll()
+    {
+        entries.clear();
+        first = null;
+        last = null;
+        counter = 0;
+    }
+}